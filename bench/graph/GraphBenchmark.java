@@ -0,0 +1,282 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks of the single operations of every mutable Graph
+ * implementation, on synthetic graphs.
+ *
+ * <p>Each graph has the given number of vertices and about DEGREE times as
+ * many edges, none of them self-loops. With UNIFORM degrees every endpoint
+ * is chosen uniformly; with POWER_LAW degrees both endpoints are drawn from
+ * a Zipf distribution, so a few hub vertices have most of the edges, as
+ * words do in a corpus. The
+ * vertices looked up, reweighted and removed are drawn from the same
+ * distribution. Labels are either Strings or Integers.
+ *
+ * <p>add() and remove() change the graph, so they are timed in batches of
+ * BATCH calls, each batch undone before the next, so that the graph stays
+ * within BATCH vertices of its nominal size; their scores are the time per
+ * batch. The other benchmarks report the average time per call.
+ *
+ * <p>Build with src/ and JMH on the class path and run, for example:
+ * <pre>    java -cp ... org.openjdk.jmh.Main GraphBenchmark -p vertices=1000    </pre>
+ * OffHeapGraph only accepts String labels, so its INTEGER runs fail at setup;
+ * exclude them with -p labels=STRING.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GraphBenchmark {
+
+    /** Average out-degree of a synthetic graph */
+    static final int DEGREE = 8;
+
+    /** Number of add() or remove() calls timed together; at most the smallest graph size */
+    static final int BATCH = 10;
+
+    /* lookups and updates precomputed per fixture, cycled through */
+    private static final int PROBES = 1 << 16;
+
+    /** The implementations benchmarked */
+    public enum Implementation {
+        CONCRETE_EDGES(ConcreteEdgesGraph::new),
+        CONCRETE_VERTICES(ConcreteVerticesGraph::new),
+        CACHED_CONCRETE_EDGES(() -> new CachingGraph<>(new ConcreteEdgesGraph<>(), 1024)),
+        ADJACENCY_MAP(AdjacencyMapGraph::new),
+        MAP_VERTICES(MapVerticesGraph::new),
+        INTERNED(InternedGraph::new),
+        CONCURRENT(ConcurrentGraph::new),
+        VERSIONED(VersionedGraph::new),
+        RANKED(RankedGraph::new),
+        OFF_HEAP(OffHeapGraph::new);
+
+        private final Supplier<Graph<?>> factory;
+
+        Implementation(Supplier<Graph<?>> factory) {
+            this.factory = factory;
+        }
+
+        @SuppressWarnings("unchecked")
+        Graph<Object> create(Labels labels) {
+            if (this == OFF_HEAP && labels != Labels.STRING) {
+                throw new IllegalArgumentException("OffHeapGraph only supports String labels");
+            }
+            return (Graph<Object>) factory.get();
+        }
+    }
+
+    /** How edge endpoints are distributed over the vertices */
+    public enum Degrees {
+        UNIFORM(0), POWER_LAW(1);
+
+        private final double exponent;
+
+        Degrees(double exponent) {
+            this.exponent = exponent;
+        }
+
+        Zipf over(int vertices) {
+            return new Zipf(vertices, exponent);
+        }
+    }
+
+    /** The type of the vertex labels */
+    public enum Labels {
+        STRING, INTEGER;
+
+        Object label(int i) {
+            return this == STRING ? "w" + i : Integer.valueOf(i);
+        }
+    }
+
+    /** A synthetic graph, with precomputed vertices and edges to operate on */
+    @State(Scope.Thread)
+    public static class Fixture {
+
+        @Param
+        public Implementation implementation;
+
+        @Param({"100", "1000", "10000"})
+        public int vertices;
+
+        @Param
+        public Degrees degrees;
+
+        @Param
+        public Labels labels;
+
+        Graph<Object> graph;
+        Object[] labelOf;
+        Object[] probes;
+        Object[] edgeSources;
+        Object[] edgeTargets;
+        int next = 0;
+
+        @Setup(Level.Trial)
+        public void build() {
+            final Random random = new Random(42);
+            final Zipf endpoints = degrees.over(vertices);
+            labelOf = new Object[vertices];
+            graph = implementation.create(labels);
+            for (int i = 0; i < vertices; i++) {
+                labelOf[i] = labels.label(i);
+                graph.add(labelOf[i]);
+            }
+            final List<Object> sources = new ArrayList<>();
+            final List<Object> targets = new ArrayList<>();
+            for (int i = 0; i < vertices * DEGREE; i++) {
+                final Object source = labelOf[endpoints.next(random)];
+                final Object target = labelOf[endpoints.next(random)];
+                // ConcreteVerticesGraph does not allow self-loops
+                if (source != target && graph.set(source, target, 1 + random.nextInt(10)) == 0) {
+                    sources.add(source);
+                    targets.add(target);
+                }
+            }
+            edgeSources = sources.toArray();
+            edgeTargets = targets.toArray();
+            probes = new Object[PROBES];
+            for (int i = 0; i < PROBES; i++) {
+                probes[i] = labelOf[endpoints.next(random)];
+            }
+        }
+
+        /* the next vertex to operate on */
+        Object probe() {
+            next = (next + 1) & (PROBES - 1);
+            return probes[next];
+        }
+
+        /* the index of the next existing edge to reweight */
+        int edge() {
+            next = (next + 1) & (PROBES - 1);
+            return next % edgeSources.length;
+        }
+    }
+
+    /** Labels of fresh vertices for a batch of add(), removed again after each batch */
+    @State(Scope.Thread)
+    public static class Additions {
+
+        Object[] labels;
+        int next = 0;
+
+        @Setup(Level.Trial)
+        public void label(Fixture fixture) {
+            labels = new Object[BATCH];
+            for (int i = 0; i < BATCH; i++) {
+                labels[i] = fixture.labels.label(fixture.vertices + i);
+            }
+        }
+
+        @TearDown(Level.Iteration)
+        public void removeAdded(Fixture fixture) {
+            for (int i = 0; i < next; i++) {
+                fixture.graph.remove(labels[i]);
+            }
+            next = 0;
+        }
+    }
+
+    /** A batch of distinct vertices for remove(), put back with their edges after each batch */
+    @State(Scope.Thread)
+    public static class Removals {
+
+        Object[] vertices;
+        List<Map<Object, Integer>> sources;
+        List<Map<Object, Integer>> targets;
+        int next = 0;
+
+        @Setup(Level.Iteration)
+        public void choose(Fixture fixture) {
+            final Set<Object> chosen = new LinkedHashSet<>();
+            while (chosen.size() < BATCH) {
+                chosen.add(fixture.probe());
+            }
+            vertices = chosen.toArray();
+            sources = new ArrayList<>();
+            targets = new ArrayList<>();
+            for (Object vertex : vertices) {
+                // copied, since some implementations return live views
+                sources.add(new HashMap<>(fixture.graph.sources(vertex)));
+                targets.add(new HashMap<>(fixture.graph.targets(vertex)));
+            }
+            next = 0;
+        }
+
+        @TearDown(Level.Iteration)
+        public void restore(Fixture fixture) {
+            // every vertex first, since the removed vertices may be neighbours
+            for (Object vertex : vertices) {
+                fixture.graph.add(vertex);
+            }
+            for (int i = 0; i < vertices.length; i++) {
+                final Object vertex = vertices[i];
+                sources.get(i).forEach((source, weight) -> fixture.graph.set(source, vertex, weight));
+                targets.get(i).forEach((target, weight) -> fixture.graph.set(vertex, target, weight));
+            }
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 500, batchSize = BATCH)
+    @Measurement(iterations = 2000, batchSize = BATCH)
+    public boolean add(Fixture fixture, Additions additions) {
+        return fixture.graph.add(additions.labels[additions.next++]);
+    }
+
+    @Benchmark
+    public int set(Fixture fixture) {
+        final int i = fixture.edge();
+        // alternate between two positive weights, so no edge is added or removed
+        return fixture.graph.set(fixture.edgeSources[i], fixture.edgeTargets[i], 1 + (fixture.next & 1));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 500, batchSize = BATCH)
+    @Measurement(iterations = 2000, batchSize = BATCH)
+    public boolean remove(Fixture fixture, Removals removals) {
+        return fixture.graph.remove(removals.vertices[removals.next++]);
+    }
+
+    @Benchmark
+    public Map<Object, Integer> sources(Fixture fixture) {
+        return fixture.graph.sources(fixture.probe());
+    }
+
+    @Benchmark
+    public Map<Object, Integer> targets(Fixture fixture) {
+        return fixture.graph.targets(fixture.probe());
+    }
+
+}
@@ -0,0 +1,54 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Samples ranks 0..n-1 from a Zipf distribution, in which rank k is drawn
+ * with probability proportional to 1 / (k + 1)^exponent. Rank 0 is the
+ * most frequent. Used to generate power-law graphs and Zipfian text for
+ * the benchmarks.
+ */
+public final class Zipf {
+
+    private final double[] cumulative;
+
+    // Abstraction function:
+    //   represents the Zipf distribution over ranks 0..cumulative.length-1
+    //   in which P(rank <= k) == cumulative[k]
+    // Representation invariant:
+    //   cumulative is non-empty and non-decreasing, and its last element is 1
+    // Safety from rep exposure:
+    //   cumulative is private and never returned
+
+    /**
+     * @param n number of ranks, > 0
+     * @param exponent skew of the distribution, >= 0; 0 is uniform
+     */
+    public Zipf(int n, double exponent) {
+        assert n > 0 && exponent >= 0;
+        cumulative = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1 / Math.pow(k + 1, exponent);
+            cumulative[k] = sum;
+        }
+        for (int k = 0; k < n; k++) {
+            cumulative[k] /= sum;
+        }
+        cumulative[n - 1] = 1;
+    }
+
+    /**
+     * @param random source of randomness
+     * @return a rank drawn from this distribution
+     */
+    public int next(Random random) {
+        final int i = Arrays.binarySearch(cumulative, random.nextDouble());
+        return i >= 0 ? i : -i - 1;
+    }
+
+}
@@ -0,0 +1,208 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package poet;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import graph.ImmutableGraph;
+import graph.MappedGraph;
+import graph.Zipf;
+
+/**
+ * JMH benchmarks of GraphPoet construction and poem generation on generated
+ * corpora.
+ *
+ * <p>A corpus is a sequence of words drawn from a Zipf distribution over a
+ * vocabulary, so that word frequencies follow the power law of natural
+ * text, broken into lines of LINE words. Poem inputs are drawn the same way,
+ * INPUTS of them, and each poem benchmark cycles through them.
+ *
+ * <p>poem() and poemRandom() go through the poet, whose BridgeIndex
+ * remembers every pair it has looked up, so once the inputs have been seen
+ * they measure poems assembled from remembered bridges. poemUncached() and
+ * poemRandomUncached() write the same poems with a BridgeIndex that
+ * remembers nothing, so every bridge is computed from the graph; they compare
+ * the graph backends.
+ *
+ * <p>Build with src/, bench/graph/ and JMH on the class path and run, for
+ * example:
+ * <pre>    java -cp ... org.openjdk.jmh.Main GraphPoetBenchmark    </pre>
+ */
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class GraphPoetBenchmark {
+
+    /** Words per line of a generated corpus */
+    static final int LINE = 12;
+
+    /* words per poem input */
+    private static final int INPUT_WORDS = 100;
+
+    /* poem inputs per corpus, cycled through */
+    private static final int INPUTS = 1 << 10;
+
+    /** Where the poet's affinity graph comes from */
+    public enum Backend {
+        /** built from the corpus, as GraphPoet(corpus, threads) does */
+        BUILT,
+        /** saved, then memory-mapped, as GraphPoet(corpus, graphFile) does */
+        MAPPED
+    }
+
+    /** A generated corpus file, a poet built from it, and poem inputs */
+    @State(Scope.Benchmark)
+    public static class Corpus {
+
+        @Param({"10000", "1000000"})
+        public int words;
+
+        @Param({"1000", "50000"})
+        public int vocabulary;
+
+        @Param({"1", "4"})
+        public int threads;
+
+        @Param
+        public Backend backend;
+
+        File file;
+        File graphFile;
+        GraphPoet poet;
+        BridgeIndex uncached;
+        String[] inputs;
+
+        @Setup(Level.Trial)
+        public void generate() throws IOException {
+            final Random random = new Random(42);
+            final Zipf ranks = new Zipf(vocabulary, 1);
+            file = File.createTempFile("corpus", ".txt");
+            try (Writer out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+                for (int i = 0; i < words; i++) {
+                    out.write(word(ranks.next(random)));
+                    out.write(i % LINE == LINE - 1 ? '\n' : ' ');
+                }
+            }
+            poet = new GraphPoet(file, threads);
+            final ImmutableGraph<String> graph;
+            if (backend == Backend.MAPPED) {
+                graphFile = File.createTempFile("corpus", ".graph");
+                poet.save(graphFile);
+                poet = new GraphPoet(file, graphFile);
+                graph = MappedGraph.open(graphFile);
+            } else {
+                graph = ParallelCorpusLoader.load(file, threads).freeze();
+            }
+            uncached = new BridgeIndex(graph, 0);
+            inputs = new String[INPUTS];
+            for (int i = 0; i < INPUTS; i++) {
+                final StringBuilder text = new StringBuilder();
+                for (int j = 0; j < INPUT_WORDS; j++) {
+                    text.append(j == 0 ? "" : " ").append(word(ranks.next(random)));
+                }
+                inputs[i] = text.toString();
+            }
+        }
+
+        /* a word for each rank, of varying length and case */
+        private static String word(int rank) {
+            final String base = Integer.toString(rank, Character.MAX_RADIX);
+            return rank % 7 == 0 ? base.toUpperCase() + "," : base;
+        }
+
+        @TearDown(Level.Trial)
+        public void delete() {
+            file.delete();
+            if (graphFile != null) {
+                graphFile.delete();
+            }
+        }
+    }
+
+    /** The next poem input for one thread, and a seed for its random bridges */
+    @State(Scope.Thread)
+    public static class Inputs {
+
+        int next = 0;
+
+        String next(Corpus corpus) {
+            next = (next + 1) & (INPUTS - 1);
+            return corpus.inputs[next];
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public GraphPoet construct(Corpus corpus) throws IOException {
+        return new GraphPoet(corpus.file, corpus.threads);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Warmup(iterations = 5, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public String poem(Corpus corpus, Inputs inputs) {
+        return corpus.poet.poem(inputs.next(corpus));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Warmup(iterations = 5, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public String poemRandom(Corpus corpus, Inputs inputs) {
+        return corpus.poet.poem(inputs.next(corpus), new Random(inputs.next));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Warmup(iterations = 5, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public String poemUncached(Corpus corpus, Inputs inputs) throws IOException {
+        return write(inputs.next(corpus), corpus.uncached::best);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Warmup(iterations = 5, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public String poemRandomUncached(Corpus corpus, Inputs inputs) throws IOException {
+        final String input = inputs.next(corpus);
+        final Random random = new Random(inputs.next);
+        return write(input, (word1, word2) -> corpus.uncached.get(word1, word2).weightedRandom(random));
+    }
+
+    /* the poem of input with the given bridges, assembled as GraphPoet.poem() does */
+    private static String write(String input, BiFunction<String, String, String> bridges) throws IOException {
+        final StringBuilder poem = new StringBuilder(input.length() * 2);
+        new PoemWriter(poem, bridges).write(input);
+        return poem.toString();
+    }
+
+}
@@ -0,0 +1,177 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * An implementation of Graph that indexes every edge twice, once under its
+ * source and once under its target.
+ *
+ * <p>set() is expected O(1), sources() and targets() are O(1) views of the
+ * per-vertex index, and remove() is O(in-degree + out-degree) of the removed
+ * vertex. ConcreteEdgesGraph, by contrast, scans its whole edge list for each
+ * of these operations.
+ */
+public class AdjacencyMapGraph<L> implements IncrementableGraph<L> {
+
+    private final Map<L, Map<L, Integer>> targetsOf;
+    private final Map<L, Map<L, Integer>> sourcesOf;
+    private int edgeCount = 0;
+
+    // Abstraction function:
+    //   represents a directed weighted graph whose vertices are the keys of
+    //   targetsOf, with an edge source -> target of weight w for every
+    //   targetsOf.get(source).get(target) == w
+    // Representation invariant:
+    //   targetsOf and sourcesOf have the same key set
+    //   every weight is > 0
+    //   targetsOf.get(s).get(t) == sourcesOf.get(t).get(s) for every edge,
+    //     and neither side holds an edge the other does not
+    //   edgeCount is the number of edges
+    // Safety from rep exposure:
+    //   all fields are private and final;
+    //   vertices(), sources() and targets() only return unmodifiable views
+
+    /** Create an empty graph. */
+    public AdjacencyMapGraph() {
+        this(new HashMap<>(), new HashMap<>(), 0);
+    }
+
+    /*
+     * Adopt an already-built rep; the caller must hand over maps that satisfy
+     * the rep invariant and keep no reference to them.
+     */
+    AdjacencyMapGraph(Map<L, Map<L, Integer>> targetsOf,
+            Map<L, Map<L, Integer>> sourcesOf, int edgeCount) {
+        this.targetsOf = targetsOf;
+        this.sourcesOf = sourcesOf;
+        this.edgeCount = edgeCount;
+        checkRep();
+    }
+
+    /*checkRep*/
+    private void checkRep() {
+        assert targetsOf.size() == sourcesOf.size();
+        assert edgeCount >= 0;
+    }
+
+    @Override public boolean add(L vertex) {
+        if (targetsOf.containsKey(vertex)) {
+            return false;
+        }
+        targetsOf.put(vertex, new HashMap<>());
+        sourcesOf.put(vertex, new HashMap<>());
+        checkRep();
+        return true;
+    }
+
+    @Override public int set(L source, L target, int weight) {
+        assert weight >= 0;
+
+        final Integer previousWeight;
+        if (weight > 0) {
+            add(source);
+            add(target);
+            previousWeight = targetsOf.get(source).put(target, weight);
+            sourcesOf.get(target).put(source, weight);
+            if (previousWeight == null) {
+                edgeCount++;
+            }
+        } else {
+            final Map<L, Integer> targets = targetsOf.get(source);
+            previousWeight = targets == null ? null : targets.remove(target);
+            if (previousWeight != null) {
+                sourcesOf.get(target).remove(source);
+                edgeCount--;
+            }
+        }
+        checkRep();
+        return previousWeight == null ? 0 : previousWeight;
+    }
+
+    @Override public int increment(L source, L target, int delta) {
+        if (delta <= 0) {
+            final int previousWeight = targets(source).getOrDefault(target, 0);
+            assert previousWeight + delta >= 0;
+            return delta == 0 ? previousWeight : set(source, target, previousWeight + delta);
+        }
+        add(source);
+        add(target);
+        final int weight = targetsOf.get(source).merge(target, delta, Integer::sum);
+        sourcesOf.get(target).put(source, weight);
+        if (weight == delta) {
+            edgeCount++;
+        }
+        checkRep();
+        return weight - delta;
+    }
+
+    @Override public boolean remove(L vertex) {
+        final Map<L, Integer> targets = targetsOf.remove(vertex);
+        if (targets == null) {
+            return false;
+        }
+        final Map<L, Integer> sources = sourcesOf.remove(vertex);
+
+        // a self-loop shows up on both sides but is a single edge
+        final boolean selfLoop = targets.containsKey(vertex);
+        for (L target : targets.keySet()) {
+            if (!target.equals(vertex)) {
+                sourcesOf.get(target).remove(vertex);
+            }
+        }
+        for (L source : sources.keySet()) {
+            if (!source.equals(vertex)) {
+                targetsOf.get(source).remove(vertex);
+            }
+        }
+        edgeCount -= targets.size() + sources.size() - (selfLoop ? 1 : 0);
+        checkRep();
+        return true;
+    }
+
+    /** Returns a read-only view of this graph's vertices */
+    @Override public Set<L> vertices() {
+        return Collections.unmodifiableSet(targetsOf.keySet());
+    }
+
+    /** Returns a read-only view of a target's sources */
+    @Override public Map<L, Integer> sources(L target) {
+        final Map<L, Integer> sources = sourcesOf.get(target);
+        if (sources == null) {
+            return Collections.emptyMap();
+        }
+        return Collections.unmodifiableMap(sources);
+    }
+
+    /** Returns a read-only view of a source's targets */
+    @Override public Map<L, Integer> targets(L source) {
+        final Map<L, Integer> targets = targetsOf.get(source);
+        if (targets == null) {
+            return Collections.emptyMap();
+        }
+        return Collections.unmodifiableMap(targets);
+    }
+
+    /** Returns the number of edges in this graph */
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    @Override public String toString() {
+        if (edgeCount == 0) {
+            return "Empty Graph";
+        }
+        return targetsOf.entrySet().stream()
+                .flatMap(source -> source.getValue().entrySet().stream()
+                        .map(edge -> source.getKey() + " -> " + edge.getKey() + ": " + edge.getValue()))
+                .collect(Collectors.joining("\n"));
+    }
+
+}
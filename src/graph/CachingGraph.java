@@ -0,0 +1,181 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A Graph that forwards every call to another graph and remembers the
+ * results of the most recently used sources() and targets() lookups.
+ *
+ * <p>Each of the two caches holds at most capacity vertices and evicts the
+ * least recently used one when full. A hit is a single hash lookup, which
+ * pays off over graphs whose lookups build a new map each time, such as
+ * ConcreteEdgesGraph, where a lookup takes time linear in the vertex's
+ * degree, for Zipfian access patterns where a few hot vertices get most
+ * lookups. Over graphs whose lookups return views, such as AdjacencyMapGraph
+ * or CsrGraph, a hit saves little. set() invalidates only the entries of the
+ * edge's two endpoints; remove() invalidates the removed vertex and its
+ * neighbours.
+ *
+ * <p>The wrapped graph must only be changed through this graph, or the
+ * caches go stale. Results are read-only. Like the graphs it wraps, this
+ * class is not thread-safe.
+ */
+public class CachingGraph<L> implements Graph<L> {
+
+    private final Graph<L> graph;
+    private final Lru<L> sourcesOf;
+    private final Lru<L> targetsOf;
+    private long hits = 0;
+    private long misses = 0;
+
+    // Abstraction function:
+    //   represents the same graph as graph; sourcesOf and targetsOf cache
+    //   graph.sources(v) and graph.targets(v) for some vertices v
+    // Representation invariant:
+    //   sourcesOf.get(v), if present, equals graph.sources(v), and
+    //   targetsOf.get(v), if present, equals graph.targets(v)
+    //   sourcesOf and targetsOf each hold at most their capacity entries
+    //   hits, misses >= 0
+    // Safety from rep exposure:
+    //   all fields are private and final or immutable; cached maps are
+    //   unmodifiable copies, so returning them is safe; graph is shared with
+    //   the caller by design
+
+    /**
+     * @param graph graph to forward calls to; must not be changed except
+     *        through this graph
+     * @param capacity greatest number of vertices whose sources, and whose
+     *        targets, are remembered; > 0
+     */
+    public CachingGraph(Graph<L> graph, int capacity) {
+        assert capacity > 0;
+        this.graph = graph;
+        this.sourcesOf = new Lru<>(capacity);
+        this.targetsOf = new Lru<>(capacity);
+    }
+
+    /*checkRep*/
+    private void checkRep() {
+        assert sourcesOf.size() <= sourcesOf.capacity;
+        assert targetsOf.size() <= targetsOf.capacity;
+        assert hits >= 0 && misses >= 0;
+    }
+
+    @Override public boolean add(L vertex) {
+        // a new vertex has no edges, as any cached lookup of it already says
+        return graph.add(vertex);
+    }
+
+    @Override public int set(L source, L target, int weight) {
+        final int previousWeight = graph.set(source, target, weight);
+        if (previousWeight != weight) {
+            targetsOf.remove(source);
+            sourcesOf.remove(target);
+        }
+        checkRep();
+        return previousWeight;
+    }
+
+    @Override public boolean remove(L vertex) {
+        final Map<L, Integer> sources = graph.sources(vertex);
+        final Map<L, Integer> targets = graph.targets(vertex);
+        for (L source : sources.keySet()) {
+            targetsOf.remove(source);
+        }
+        for (L target : targets.keySet()) {
+            sourcesOf.remove(target);
+        }
+        sourcesOf.remove(vertex);
+        targetsOf.remove(vertex);
+        final boolean removed = graph.remove(vertex);
+        checkRep();
+        return removed;
+    }
+
+    @Override public Set<L> vertices() {
+        return graph.vertices();
+    }
+
+    /** Returns a read-only map, remembered until an edge into target changes */
+    @Override public Map<L, Integer> sources(L target) {
+        Map<L, Integer> sources = sourcesOf.get(target);
+        if (sources != null) {
+            hits++;
+            return sources;
+        }
+        misses++;
+        sources = Collections.unmodifiableMap(new HashMap<>(graph.sources(target)));
+        sourcesOf.put(target, sources);
+        checkRep();
+        return sources;
+    }
+
+    /** Returns a read-only map, remembered until an edge out of source changes */
+    @Override public Map<L, Integer> targets(L source) {
+        Map<L, Integer> targets = targetsOf.get(source);
+        if (targets != null) {
+            hits++;
+            return targets;
+        }
+        misses++;
+        targets = Collections.unmodifiableMap(new HashMap<>(graph.targets(source)));
+        targetsOf.put(source, targets);
+        checkRep();
+        return targets;
+    }
+
+    /** Returns the number of sources() and targets() calls answered from the caches */
+    public long hits() {
+        return hits;
+    }
+
+    /** Returns the number of sources() and targets() calls forwarded to the wrapped graph */
+    public long misses() {
+        return misses;
+    }
+
+    /** Returns the number of entries evicted from the caches to make room */
+    public long evictions() {
+        return sourcesOf.evictions + targetsOf.evictions;
+    }
+
+    /** Returns hits() / (hits() + misses()), or 0 if there have been no lookups */
+    public double hitRate() {
+        final long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+
+    @Override public String toString() {
+        return graph.toString();
+    }
+
+    /* A map of vertices to their cached neighbours, in access order, that evicts beyond capacity */
+    private static final class Lru<L> extends LinkedHashMap<L, Map<L, Integer>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+        private long evictions = 0;
+
+        Lru(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override protected boolean removeEldestEntry(Map.Entry<L, Map<L, Integer>> eldest) {
+            if (size() > capacity) {
+                evictions++;
+                return true;
+            }
+            return false;
+        }
+    }
+
+}
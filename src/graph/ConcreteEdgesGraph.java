@@ -5,33 +5,46 @@ package graph;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
  * An implementation of Graph.
  * 
  * <p>PS2 instructions: you MUST use the provided rep.
+ * 
+ * <p>The edge list is indexed twice, by source and by target, with the
+ * position of each edge in the list, so set() is expected O(1), sources()
+ * and targets() are O(in-degree) and O(out-degree), and remove() is
+ * O(in-degree + out-degree) of the removed vertex. Removing an edge moves the
+ * last edge of the list into its place. increment() finds the edge with one
+ * index lookup and replaces it, since an Edge is immutable.
  */
-public class ConcreteEdgesGraph<L> implements Graph<L> {
+public class ConcreteEdgesGraph<L> implements IncrementableGraph<L> {
     
-	private final Set<L> vertices = new HashSet<>();
+    private final Set<L> vertices = new HashSet<>();
     private final List<Edge<L>> edges = new ArrayList<>();
+    private final Map<L, Map<L, Integer>> outEdges = new HashMap<>();
+    private final Map<L, Map<L, Integer>> inEdges = new HashMap<>();
     
     // Abstraction function:
-    //   TODO
+    //   represents a directed weighted graph with vertices vertices and an
+    //   edge source -> target of weight w for every Edge(source, target, w)
+    //   in edges
     // Representation invariant:
-    //   TODO
+    //   the endpoints of every edge are in vertices
+    //   no two edges have the same source and target
+    //   outEdges.get(s).get(t) == i and inEdges.get(t).get(s) == i iff
+    //     edges.get(i) has source s and target t
+    //   no map in outEdges or inEdges is empty
     // Safety from rep exposure:
-    //   TODO
-    
-    // TODO constructor
-    
-    // TODO checkRep
+    //   all fields are private and final; Edge is immutable;
+    //   vertices() returns an unmodifiable view, and sources() and
+    //   targets() return new maps
     
     /*constructor*/
     public ConcreteEdgesGraph(){
@@ -40,10 +53,11 @@ public class ConcreteEdgesGraph<L> implements Graph<L> {
     private void checkRep(){
         final int sizeOfEdges = edges.size();
         final int sizeOfVertices = vertices.size();
-        int minNumberOfVertices = 
-                sizeOfEdges == 0 ? 0 : (int)Math.ceil(Math.sqrt(2 * sizeOfEdges) + 0.5);
+        // n vertices have at most n * n edges, counting self-loops
+        int minNumberOfVertices = (int)Math.ceil(Math.sqrt(sizeOfEdges));
         
         assert sizeOfVertices >= minNumberOfVertices;  
+        assert outEdges.size() <= sizeOfEdges && inEdges.size() <= sizeOfEdges;
     }
     
     /*returns true if the new vertex is added*/
@@ -61,58 +75,107 @@ public class ConcreteEdgesGraph<L> implements Graph<L> {
         final Edge<L> previousEdge;
         
         if (weight > 0) {
-            Edge<L> newEdge = new Edge<>(source, target, weight);
             if ( indexOfEdge < 0 ) {
-                add(source);
-                add(target);
-                edges.add(newEdge);
+                addEdge(source, target, weight);
             } else {
-                previousEdge = edges.set(indexOfEdge, newEdge);
+                previousEdge = edges.set(indexOfEdge, new Edge<>(source, target, weight));
                 previousWeight = previousEdge.getWeight();
             }
         } else if ( weight == 0 && indexOfEdge >= 0) {
-            previousEdge = edges.remove(indexOfEdge);
+            previousEdge = removeEdge(source, target);
             previousWeight = previousEdge.getWeight();
         }
         checkRep();
         return previousWeight;
     }
-    /*helper method*/
-    private int indexOfEdgeInEdges(L source, L target){        
-        for(int i = 0;  i < edges.size(); i++){
-            Edge<L> edge = edges.get(i);
-            if (edge.getSource().equals(source) &&
-                    edge.getTarget().equals(target)){
-                return i;
+    
+    /*@param takes the source, target and amount to add to the weight
+     *@return previous Weight*/
+    @Override public int increment(L source, L target, int delta) {
+        final int indexOfEdge = indexOfEdgeInEdges(source, target);
+        if ( indexOfEdge < 0 ) {
+            assert delta >= 0;
+            if (delta > 0) {
+                addEdge(source, target, delta);
+                checkRep();
             }
+            return 0;
+        }
+        final int previousWeight = edges.get(indexOfEdge).getWeight();
+        assert previousWeight + delta >= 0;
+        if (previousWeight + delta > 0) {
+            edges.set(indexOfEdge, new Edge<>(source, target, previousWeight + delta));
+        } else {
+            removeEdge(source, target);
         }
-        return -1;
+        checkRep();
+        return previousWeight;
+    }
+    
+    /*helper method: add source -> target, which must not exist, and its vertices*/
+    private void addEdge(L source, L target, int weight){
+        add(source);
+        add(target);
+        outEdges.computeIfAbsent(source, s -> new HashMap<>()).put(target, edges.size());
+        inEdges.computeIfAbsent(target, t -> new HashMap<>()).put(source, edges.size());
+        edges.add(new Edge<>(source, target, weight));
+    }
+    /*helper method: position of source -> target in edges, or -1*/
+    private int indexOfEdgeInEdges(L source, L target){        
+        final Map<L, Integer> targets = outEdges.get(source);
+        final Integer index = targets == null ? null : targets.get(target);
+        return index == null ? -1 : index;
+    }
+    
+    /*
+     * helper method: remove source -> target, which must exist, from edges
+     * by moving the last edge into its place; returns the removed edge
+     */
+    private Edge<L> removeEdge(L source, L target){
+        final int index = unindex(outEdges, source, target);
+        unindex(inEdges, target, source);
+        final Edge<L> removed = edges.get(index);
+        final Edge<L> last = edges.remove(edges.size() - 1);
+        if (index < edges.size()) {
+            edges.set(index, last);
+            outEdges.get(last.getSource()).put(last.getTarget(), index);
+            inEdges.get(last.getTarget()).put(last.getSource(), index);
+        }
+        return removed;
+    }
+    
+    /*helper method: remove index.get(from).get(to), dropping an emptied map; returns it*/
+    private static <L> int unindex(Map<L, Map<L, Integer>> index, L from, L to){
+        final Map<L, Integer> row = index.get(from);
+        final int position = row.remove(to);
+        if (row.isEmpty()) {
+            index.remove(from);
+        }
+        return position;
     }
     
     /*@param vertex to be removed
      *@return boolean true if removed*/
     @Override public boolean remove(L vertex) {
-        final int initialSizeEdges = edges.size();
-        final int initialSizeVertices = vertices.size();
-        
-        Predicate<Edge<L>> vertexInEdge = (Edge<L> edge) -> ( ( edge.getSource().equals(vertex) )||( edge.getTarget().equals(vertex) ) ) ;
-        Predicate<L> vertexInVertices = v -> v.equals(vertex);
-        
-        boolean removedEdge = edges.removeIf(vertexInEdge);
-        boolean removedVertice = vertices.removeIf(vertexInVertices);
-        
-        //NB a vertex can exist without being in an edge
-        //if removedEdge, then removedVertice
-        if(removedVertice){
-            assert initialSizeVertices != vertices.size();
-            assert initialSizeVertices - 1 == vertices.size();
+        if (!vertices.remove(vertex)) {
+            return false;
         }
-        if(removedEdge){
-            assert initialSizeEdges != edges.size();
-            assert removedVertice;
+        // copied, since removeEdge() changes the index maps
+        final Map<L, Integer> targets = outEdges.get(vertex);
+        if (targets != null) {
+            for (L target : new ArrayList<>(targets.keySet())) {
+                removeEdge(vertex, target);
+            }
+        }
+        final Map<L, Integer> sources = inEdges.get(vertex);
+        if (sources != null) {
+            for (L source : new ArrayList<>(sources.keySet())) {
+                removeEdge(source, vertex);
+            }
         }
+        assert !outEdges.containsKey(vertex) && !inEdges.containsKey(vertex);
         checkRep();
-        return initialSizeVertices - 1 == vertices.size();
+        return true;
     }
     
     /** Returns an read-only view of ConcreteEdgesGraph's vertices */
@@ -122,18 +185,22 @@ public class ConcreteEdgesGraph<L> implements Graph<L> {
     
     /** Returns a map of a target's sources */
     @Override public Map<L, Integer> sources(L target) {
-        return edges.stream()
-                .filter(edge -> edge.getTarget().equals(target))
-                .collect(Collectors.toMap(Edge::getSource, Edge::getWeight));
+        return weights(inEdges.get(target));
     }
     /** Returns a map of a source's targets */
     @Override public Map<L, Integer> targets(L source) {
-        return edges.stream()
-                .filter(edge -> edge.getSource().equals(source))
-                .collect(Collectors.toMap(Edge::getTarget, Edge::getWeight));
+        return weights(outEdges.get(source));
+    }
+    
+    /*helper method: new map of each neighbor in an index row to its edge's weight*/
+    private Map<L, Integer> weights(Map<L, Integer> row){
+        final Map<L, Integer> weights = new HashMap<>();
+        if (row != null) {
+            row.forEach((neighbor, index) -> weights.put(neighbor, edges.get(index).getWeight()));
+        }
+        return weights;
     }
     
-    // TODO toString()
     @Override public String toString(){
         if ( edges.isEmpty() ) {
             return "Empty Graph";
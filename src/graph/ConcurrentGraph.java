@@ -0,0 +1,390 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * A thread-safe implementation of Graph for graphs that are updated by many
+ * threads at once while others read them.
+ *
+ * <p>Every edge is one AtomicInteger cell, indexed under both its source and
+ * its target. Changing the weight of an existing edge is a compare-and-set
+ * on its cell, without locking. Adding or removing an edge locks only that
+ * edge's entry in its source's ConcurrentHashMap. Vertices are spread over
+ * STRIPES read-write locks by label: add(), set() and increment() take the
+ * read locks of their vertices' stripes and so run concurrently with each
+ * other, and remove() takes the write lock of its vertex's stripe only, so
+ * it excludes just the updates that touch a vertex of that stripe. Readers
+ * never lock.
+ *
+ * <p>add(), set() and increment() are atomic. An edge appears in sources()
+ * and targets() at the same moment, when its cell first holds its weight,
+ * and leaves both at the same moment, when the cell is zeroed, so no reader
+ * sees one direction of an edge without the other. remove() is atomic with
+ * respect to the other mutators, but not to readers: the removed vertex's
+ * edges vanish one at a time, and then the vertex does.
+ *
+ * <p>vertices(), sources() and targets() are weakly consistent live views.
+ * A sources() or targets() view is empty once its vertex is removed.
+ */
+public class ConcurrentGraph<L> implements IncrementableGraph<L> {
+
+    /* number of lock stripes; a power of two */
+    private static final int STRIPES = 64;
+
+    private final ConcurrentMap<L, Node<L>> nodes = new ConcurrentHashMap<>();
+    private final Set<L> vertices = Collections.unmodifiableSet(nodes.keySet());
+    private final ReadWriteLock[] locks = new ReadWriteLock[STRIPES];
+    private final LongAdder edgeCount = new LongAdder();
+
+    // Abstraction function:
+    //   represents a directed weighted graph whose vertices are the keys of
+    //   nodes, with an edge source -> target of weight w for every
+    //   nodes.get(source).targets.get(target).get() == w > 0
+    // Representation invariant:
+    //   outside the critical sections described below:
+    //   every cell holds a weight > 0
+    //   nodes.get(s).targets.get(t) == nodes.get(t).sources.get(s) for every
+    //     edge (the same cell), and neither side holds an edge the other
+    //     does not
+    //   edgeCount sums to the number of edges
+    // Safety from rep exposure:
+    //   all fields are private and final; vertices is unmodifiable, and
+    //   sources() and targets() return unmodifiable views
+    // Thread safety argument:
+    //   nodes and every Node's maps are ConcurrentHashMaps, and every weight
+    //     is an AtomicInteger, so single reads and writes are safe
+    //   an edge is only added to or removed from either side inside
+    //     compute() on its entry in its source's targets map, or by remove()
+    //     of one of its endpoints, under the write lock of that endpoint's
+    //     stripe, which excludes every update of the edge
+    //   a new edge's cell holds 0 until it is linked on both sides, and a
+    //     cell is set to 0 before it is unlinked; readers skip cells holding
+    //     0, and lock-free weight updates only apply to a cell holding a
+    //     weight > 0, so no update is applied to an unlinked cell
+    //   compute() on an entry whose cell holds 0 leaves it as is, and the
+    //     update retries outside compute(): the thread that linked the cell
+    //     may still be finishing its own compute() on the same map, such as
+    //     a resize that needs the bin lock, before it publishes the cell
+    //   update() takes the read locks of its endpoints' stripes in stripe
+    //     order, and remove() takes a single write lock, so no cycle of
+    //     threads can wait on each other's locks
+    //   concurrent remove() of two neighbours may both find their shared
+    //     edges; whichever zeroes a cell counts it, and a neighbour whose
+    //     node is already gone is skipped
+
+    /** Create an empty graph. */
+    public ConcurrentGraph() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    /*
+     * checkRep: O(1), since it runs inside remove() and so blocks every
+     * update of the removed vertex's stripe
+     */
+    private void checkRep() {
+        assert edgeCount.sum() >= 0;
+    }
+
+    /* lock stripe of vertex */
+    private static int stripe(Object vertex) {
+        final int h = vertex.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+
+    @Override public boolean add(L vertex) {
+        final Lock lock = locks[stripe(vertex)].readLock();
+        lock.lock();
+        try {
+            return nodes.putIfAbsent(vertex, new Node<>()) == null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override public int set(L source, L target, int weight) {
+        assert weight >= 0;
+        return update(source, target, previous -> weight);
+    }
+
+    @Override public int increment(L source, L target, int delta) {
+        return update(source, target, previous -> {
+            assert previous + delta >= 0;
+            return previous + delta;
+        });
+    }
+
+    /*
+     * Atomically replace the weight w of source -> target, 0 if absent, with
+     * f(w), adding or removing the edge as needed; returns w.
+     */
+    private int update(L source, L target, IntUnaryOperator f) {
+        final int sourceStripe = stripe(source);
+        final int targetStripe = stripe(target);
+        final Lock first = locks[Math.min(sourceStripe, targetStripe)].readLock();
+        final Lock second = sourceStripe == targetStripe ? null
+                : locks[Math.max(sourceStripe, targetStripe)].readLock();
+        first.lock();
+        try {
+            if (second != null) {
+                second.lock();
+            }
+            try {
+                return updateLocked(source, target, f);
+            } finally {
+                if (second != null) {
+                    second.unlock();
+                }
+            }
+        } finally {
+            first.unlock();
+        }
+    }
+
+    /* update(), holding the read locks of both endpoints' stripes */
+    private int updateLocked(L source, L target, IntUnaryOperator f) {
+        Node<L> from = nodes.get(source);
+        Node<L> to = nodes.get(target);
+
+        // fast path: reweight a live edge without locking
+        final AtomicInteger cell = from == null ? null : from.targets.get(target);
+        if (cell != null) {
+            for (int previous = cell.get(); previous > 0; previous = cell.get()) {
+                final int weight = f.applyAsInt(previous);
+                if (weight == 0) {
+                    break;
+                }
+                if (cell.compareAndSet(previous, weight)) {
+                    return previous;
+                }
+            }
+        }
+
+        if (from == null || to == null) {
+            // both vertices exist while the edge does, so the edge is absent
+            if (f.applyAsInt(0) == 0) {
+                return 0;
+            }
+            from = node(source);
+            to = node(target);
+        }
+        final Node<L> targetNode = to;
+        final int[] previousWeight = new int[1];
+        final AtomicInteger[] linked = new AtomicInteger[1];
+        final boolean[] unpublished = new boolean[1];
+        do {
+            if (unpublished[0]) {
+                // linked by another thread, which is about to publish it
+                Thread.yield();
+                unpublished[0] = false;
+            }
+            from.targets.compute(target, (label, existing) -> {
+                if (existing == null) {
+                    if (f.applyAsInt(0) == 0) {
+                        return null;
+                    }
+                    // linked at 0, so readers skip it until both sides hold it
+                    final AtomicInteger created = new AtomicInteger(0);
+                    targetNode.sources.put(source, created);
+                    edgeCount.increment();
+                    linked[0] = created;
+                    return created;
+                }
+                while (true) {
+                    final int previous = existing.get();
+                    if (previous == 0) {
+                        unpublished[0] = true;
+                        return existing;
+                    }
+                    final int weight = f.applyAsInt(previous);
+                    if (existing.compareAndSet(previous, weight)) {
+                        previousWeight[0] = previous;
+                        if (weight > 0) {
+                            return existing;
+                        }
+                        targetNode.sources.remove(source);
+                        edgeCount.decrement();
+                        return null;
+                    }
+                }
+            });
+        } while (unpublished[0]);
+        if (linked[0] != null) {
+            // publish the edge in both directions at once
+            linked[0].set(f.applyAsInt(0));
+        }
+        return previousWeight[0];
+    }
+
+    /* the node of vertex, added if absent; requires the read lock of its stripe */
+    private Node<L> node(L vertex) {
+        return nodes.computeIfAbsent(vertex, label -> new Node<>());
+    }
+
+    @Override public boolean remove(L vertex) {
+        final Lock lock = locks[stripe(vertex)].writeLock();
+        lock.lock();
+        try {
+            final Node<L> node = nodes.get(vertex);
+            if (node == null) {
+                return false;
+            }
+            // each edge leaves both directions when its cell is zeroed; a
+            // self-loop's cell is on both sides, but is only counted once
+            zeroCells(node.targets);
+            zeroCells(node.sources);
+            nodes.remove(vertex);
+            for (L target : node.targets.keySet()) {
+                final Node<L> neighbor = nodes.get(target);
+                if (neighbor != null && !target.equals(vertex)) {
+                    neighbor.sources.remove(vertex);
+                }
+            }
+            for (L source : node.sources.keySet()) {
+                final Node<L> neighbor = nodes.get(source);
+                if (neighbor != null && !source.equals(vertex)) {
+                    neighbor.targets.remove(vertex);
+                }
+            }
+            node.targets.clear();
+            node.sources.clear();
+            checkRep();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /* zero every cell, counting each one that held an edge */
+    private void zeroCells(Map<L, AtomicInteger> cells) {
+        for (AtomicInteger cell : cells.values()) {
+            if (cell.getAndSet(0) > 0) {
+                edgeCount.decrement();
+            }
+        }
+    }
+
+    /** Returns a weakly consistent read-only view of this graph's vertices */
+    @Override public Set<L> vertices() {
+        return vertices;
+    }
+
+    /** Returns a weakly consistent read-only view of a target's sources */
+    @Override public Map<L, Integer> sources(L target) {
+        final Node<L> node = nodes.get(target);
+        return node == null ? Collections.<L, Integer>emptyMap() : new CellsView<>(node.sources);
+    }
+
+    /** Returns a weakly consistent read-only view of a source's targets */
+    @Override public Map<L, Integer> targets(L source) {
+        final Node<L> node = nodes.get(source);
+        return node == null ? Collections.<L, Integer>emptyMap() : new CellsView<>(node.targets);
+    }
+
+    /** Returns the number of edges in this graph */
+    public int edgeCount() {
+        return (int) edgeCount.sum();
+    }
+
+    @Override public String toString() {
+        final String edges = nodes.entrySet().stream()
+                .flatMap(source -> new CellsView<>(source.getValue().targets).entrySet().stream()
+                        .map(edge -> source.getKey() + " -> " + edge.getKey() + ": " + edge.getValue()))
+                .collect(Collectors.joining("\n"));
+        return edges.isEmpty() ? "Empty Graph" : edges;
+    }
+
+    /* The edges of one vertex, each cell shared with the other endpoint's Node */
+    private static final class Node<L> {
+        final ConcurrentMap<L, AtomicInteger> targets = new ConcurrentHashMap<>();
+        final ConcurrentMap<L, AtomicInteger> sources = new ConcurrentHashMap<>();
+    }
+
+    /*
+     * Read-only Map view of one side of a Node, skipping cells that hold 0.
+     * size() counts cells, so it may include an edge being added or removed
+     * at that moment.
+     */
+    private static final class CellsView<L> extends AbstractMap<L, Integer> {
+
+        private final Map<L, AtomicInteger> cells;
+
+        CellsView(Map<L, AtomicInteger> cells) {
+            this.cells = cells;
+        }
+
+        @Override public int size() {
+            return cells.size();
+        }
+
+        @Override public boolean containsKey(Object label) {
+            return get(label) != null;
+        }
+
+        @Override public Integer get(Object label) {
+            final AtomicInteger cell = cells.get(label);
+            final int weight = cell == null ? 0 : cell.get();
+            return weight > 0 ? weight : null;
+        }
+
+        @Override public Set<Map.Entry<L, Integer>> entrySet() {
+            return new AbstractSet<Map.Entry<L, Integer>>() {
+                @Override public int size() {
+                    return cells.size();
+                }
+
+                @Override public Iterator<Map.Entry<L, Integer>> iterator() {
+                    final Iterator<Map.Entry<L, AtomicInteger>> entries = cells.entrySet().iterator();
+                    return new Iterator<Map.Entry<L, Integer>>() {
+                        private Map.Entry<L, Integer> next = advance();
+
+                        /* the next entry of a cell holding a weight, or null */
+                        private Map.Entry<L, Integer> advance() {
+                            while (entries.hasNext()) {
+                                final Map.Entry<L, AtomicInteger> entry = entries.next();
+                                final int weight = entry.getValue().get();
+                                if (weight > 0) {
+                                    return new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), weight);
+                                }
+                            }
+                            return null;
+                        }
+
+                        @Override public boolean hasNext() {
+                            return next != null;
+                        }
+
+                        @Override public Map.Entry<L, Integer> next() {
+                            if (next == null) {
+                                throw new NoSuchElementException();
+                            }
+                            final Map.Entry<L, Integer> entry = next;
+                            next = advance();
+                            return entry;
+                        }
+                    };
+                }
+            };
+        }
+    }
+
+}
@@ -0,0 +1,400 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable Graph stored in compressed sparse row (CSR) form.
+ *
+ * <p>Each vertex has a dense int id. The out-edges of vertex v are
+ * outNeighbors[outOffsets[v] .. outOffsets[v+1]) with matching outWeights,
+ * and the in-edges are laid out the same way in the in* arrays, so an edge
+ * costs four ints in total and sources() and targets() read one contiguous
+ * slice each.
+ *
+ * <p>The views returned by vertices(), sources() and targets() are built once,
+ * during construction, and shared by every caller. sourceRow() and
+ * targetRow() return the same views, read by position.
+ */
+public final class CsrGraph<L> implements ImmutableGraph<L> {
+
+    private final Object[] labels;
+    private final ObjectIntMap<L> ids;
+    private final int[] outOffsets;
+    private final int[] outNeighbors;
+    private final int[] outWeights;
+    private final int[] inOffsets;
+    private final int[] inNeighbors;
+    private final int[] inWeights;
+    private final Set<L> vertexView;
+    private final Map<L, Integer>[] sourceViews;
+    private final Map<L, Integer>[] targetViews;
+    private final RowView emptyRow;
+
+    // Abstraction function:
+    //   represents the graph with vertices labels[0 .. labels.length) and an
+    //   edge labels[v] -> labels[outNeighbors[i]] of weight outWeights[i] for
+    //   every v and outOffsets[v] <= i < outOffsets[v+1]
+    // Representation invariant:
+    //   ids.get(labels[v]) == v + 1 for every v, and ids has no other keys
+    //   outOffsets and inOffsets have length labels.length + 1, start at 0,
+    //     are non-decreasing and end at the length of the neighbor arrays
+    //   within each row, neighbors are strictly increasing
+    //   every weight is > 0
+    //   the in* arrays hold exactly the transpose of the out* arrays
+    //   sourceViews[v] and targetViews[v] are the RowViews of in-row and
+    //     out-row v; both arrays have length labels.length
+    //   emptyRow is a RowView with no edges
+    // Safety from rep exposure:
+    //   all fields are private and final and never mutated after
+    //   construction; no array leaves this class, and every returned view
+    //   is read-only
+    // Thread safety argument:
+    //   every field is final and nothing is mutated after construction
+
+    /*
+     * Adopt arrays built by a caller that satisfy the rep invariant and keep
+     * no reference to them.
+     */
+    CsrGraph(Object[] labels, int[] outOffsets, int[] outNeighbors, int[] outWeights,
+            int[] inOffsets, int[] inNeighbors, int[] inWeights) {
+        this.labels = labels;
+        this.outOffsets = outOffsets;
+        this.outNeighbors = outNeighbors;
+        this.outWeights = outWeights;
+        this.inOffsets = inOffsets;
+        this.inNeighbors = inNeighbors;
+        this.inWeights = inWeights;
+        this.ids = new ObjectIntMap<>(labels.length);
+        for (int v = 0; v < labels.length; v++) {
+            ids.put(label(v), v + 1);
+        }
+        this.vertexView = new VertexView();
+        this.sourceViews = newViews(labels.length);
+        this.targetViews = newViews(labels.length);
+        for (int v = 0; v < labels.length; v++) {
+            sourceViews[v] = new RowView(inNeighbors, inWeights, inOffsets[v], inOffsets[v + 1]);
+            targetViews[v] = new RowView(outNeighbors, outWeights, outOffsets[v], outOffsets[v + 1]);
+        }
+        this.emptyRow = new RowView(outNeighbors, outWeights, 0, 0);
+        checkRep();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <L> Map<L, Integer>[] newViews(int length) {
+        return new Map[length];
+    }
+
+    /**
+     * Copy a graph into CSR form.
+     *
+     * @param graph the graph to copy; not modified
+     * @return an immutable graph with the same vertices and edges as graph
+     */
+    public static <L> CsrGraph<L> copyOf(Graph<L> graph) {
+        final Object[] labels = graph.vertices().toArray();
+        final ObjectIntMap<Object> ids = new ObjectIntMap<>(labels.length);
+        for (int v = 0; v < labels.length; v++) {
+            ids.put(labels[v], v + 1);
+        }
+
+        final int[] outOffsets = new int[labels.length + 1];
+        final List<int[]> rows = new ArrayList<>(labels.length);
+        for (int v = 0; v < labels.length; v++) {
+            @SuppressWarnings("unchecked")
+            final Map<L, Integer> targets = graph.targets((L) labels[v]);
+            final int[] row = new int[targets.size() * 2];
+            int i = 0;
+            for (Map.Entry<L, Integer> edge : targets.entrySet()) {
+                row[i++] = ids.get(edge.getKey()) - 1;
+                row[i++] = edge.getValue();
+            }
+            rows.add(row);
+            outOffsets[v + 1] = outOffsets[v] + targets.size();
+        }
+
+        final int[] neighbors = new int[outOffsets[labels.length]];
+        final int[] weights = new int[neighbors.length];
+        for (int v = 0; v < labels.length; v++) {
+            final int[] row = rows.get(v);
+            for (int i = 0, j = outOffsets[v]; i < row.length; i += 2, j++) {
+                neighbors[j] = row[i];
+                weights[j] = row[i + 1];
+            }
+            rows.set(v, null);
+        }
+        return fromOutEdges(labels, outOffsets, neighbors, weights);
+    }
+
+    /*
+     * Build a CsrGraph from out-edge rows alone: sort each row by neighbor and
+     * derive the in-edge arrays by transposing. The arrays are adopted.
+     */
+    static <L> CsrGraph<L> fromOutEdges(Object[] labels, int[] outOffsets,
+            int[] outNeighbors, int[] outWeights) {
+        final int n = labels.length;
+        for (int v = 0; v < n; v++) {
+            sortRow(outNeighbors, outWeights, outOffsets[v], outOffsets[v + 1]);
+        }
+
+        final int[] inOffsets = new int[n + 1];
+        for (int neighbor : outNeighbors) {
+            inOffsets[neighbor + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            inOffsets[v + 1] += inOffsets[v];
+        }
+        final int[] inNeighbors = new int[outNeighbors.length];
+        final int[] inWeights = new int[outNeighbors.length];
+        final int[] fill = Arrays.copyOf(inOffsets, n);
+        // sources are visited in increasing order, so in-rows come out sorted
+        for (int v = 0; v < n; v++) {
+            for (int i = outOffsets[v]; i < outOffsets[v + 1]; i++) {
+                final int slot = fill[outNeighbors[i]]++;
+                inNeighbors[slot] = v;
+                inWeights[slot] = outWeights[i];
+            }
+        }
+        return new CsrGraph<>(labels, outOffsets, outNeighbors, outWeights,
+                inOffsets, inNeighbors, inWeights);
+    }
+
+    /* insertion sort for short rows, otherwise sort packed (neighbor, weight) pairs */
+    private static void sortRow(int[] neighbors, int[] weights, int from, int to) {
+        if (to - from <= 16) {
+            for (int i = from + 1; i < to; i++) {
+                final int neighbor = neighbors[i];
+                final int weight = weights[i];
+                int j = i - 1;
+                while (j >= from && neighbors[j] > neighbor) {
+                    neighbors[j + 1] = neighbors[j];
+                    weights[j + 1] = weights[j];
+                    j--;
+                }
+                neighbors[j + 1] = neighbor;
+                weights[j + 1] = weight;
+            }
+            return;
+        }
+        final long[] packed = new long[to - from];
+        for (int i = from; i < to; i++) {
+            packed[i - from] = ((long) neighbors[i] << 32) | (weights[i] & 0xFFFFFFFFL);
+        }
+        Arrays.sort(packed);
+        for (int i = from; i < to; i++) {
+            neighbors[i] = (int) (packed[i - from] >>> 32);
+            weights[i] = (int) packed[i - from];
+        }
+    }
+
+    private void checkRep() {
+        assert outOffsets.length == labels.length + 1;
+        assert inOffsets.length == labels.length + 1;
+        assert outOffsets[labels.length] == outNeighbors.length;
+        assert inOffsets[labels.length] == inNeighbors.length;
+        assert outNeighbors.length == inNeighbors.length;
+        assert ids.size() == labels.length;
+        assert sourceViews.length == labels.length;
+        assert targetViews.length == labels.length;
+    }
+
+    @SuppressWarnings("unchecked")
+    private L label(int id) {
+        return (L) labels[id];
+    }
+
+    /* id of label, or -1 if label is not a vertex */
+    private int id(Object label) {
+        return ids.get(label) - 1;
+    }
+
+    /** @throws UnsupportedOperationException always; this graph is immutable */
+    @Override public boolean add(L vertex) {
+        throw new UnsupportedOperationException("CsrGraph is immutable");
+    }
+
+    /** @throws UnsupportedOperationException always; this graph is immutable */
+    @Override public int set(L source, L target, int weight) {
+        throw new UnsupportedOperationException("CsrGraph is immutable");
+    }
+
+    /** @throws UnsupportedOperationException always; this graph is immutable */
+    @Override public boolean remove(L vertex) {
+        throw new UnsupportedOperationException("CsrGraph is immutable");
+    }
+
+    /** Returns a shared read-only view of this graph's vertices */
+    @Override public Set<L> vertices() {
+        return vertexView;
+    }
+
+    /** Returns a shared read-only view of a target's sources */
+    @Override public Map<L, Integer> sources(L target) {
+        final int v = id(target);
+        return v < 0 ? Collections.<L, Integer>emptyMap() : sourceViews[v];
+    }
+
+    /** Returns a shared read-only view of a source's targets */
+    @Override public Map<L, Integer> targets(L source) {
+        final int v = id(source);
+        return v < 0 ? Collections.<L, Integer>emptyMap() : targetViews[v];
+    }
+
+    /** Returns a shared row over a source's slice of the out-edge arrays */
+    @Override public Row<L> targetRow(L source) {
+        final int v = id(source);
+        return v < 0 ? emptyRow : (RowView) targetViews[v];
+    }
+
+    /** Returns a shared row over a target's slice of the in-edge arrays */
+    @Override public Row<L> sourceRow(L target) {
+        final int v = id(target);
+        return v < 0 ? emptyRow : (RowView) sourceViews[v];
+    }
+
+    /** Returns the number of edges in this graph, in O(1) */
+    @Override public int edgeCount() {
+        return outNeighbors.length;
+    }
+
+    @Override public String toString() {
+        if (outNeighbors.length == 0) {
+            return "Empty Graph";
+        }
+        final StringBuilder string = new StringBuilder();
+        for (int v = 0; v < labels.length; v++) {
+            for (int i = outOffsets[v]; i < outOffsets[v + 1]; i++) {
+                if (string.length() > 0) {
+                    string.append('\n');
+                }
+                string.append(labels[v]).append(" -> ")
+                      .append(labels[outNeighbors[i]]).append(": ").append(outWeights[i]);
+            }
+        }
+        return string.toString();
+    }
+
+    /* Read-only Set view of the vertices */
+    private final class VertexView extends AbstractSet<L> {
+
+        @Override public int size() {
+            return labels.length;
+        }
+
+        @Override public boolean contains(Object label) {
+            return ids.containsKey(label);
+        }
+
+        @Override public Iterator<L> iterator() {
+            return new Iterator<L>() {
+                private int next = 0;
+
+                @Override public boolean hasNext() {
+                    return next < labels.length;
+                }
+
+                @Override public L next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return label(next++);
+                }
+            };
+        }
+    }
+
+    /* Read-only Map view and Row of one row, neighbors[from .. to) */
+    private final class RowView extends AbstractMap<L, Integer> implements Row<L> {
+
+        private final int[] neighbors;
+        private final int[] weights;
+        private final int from;
+        private final int to;
+        private final Set<Map.Entry<L, Integer>> entries = new EntryView();
+
+        RowView(int[] neighbors, int[] weights, int from, int to) {
+            this.neighbors = neighbors;
+            this.weights = weights;
+            this.from = from;
+            this.to = to;
+        }
+
+        /* index of neighbor id in this row, or a negative number */
+        private int indexOf(Object label) {
+            final int neighbor = id(label);
+            if (neighbor < 0) {
+                return -1;
+            }
+            return Arrays.binarySearch(neighbors, from, to, neighbor);
+        }
+
+        @Override public int size() {
+            return to - from;
+        }
+
+        @Override public boolean containsKey(Object label) {
+            return indexOf(label) >= 0;
+        }
+
+        @Override public Integer get(Object label) {
+            final int i = indexOf(label);
+            return i < 0 ? null : weights[i];
+        }
+
+        @Override public L neighbor(int i) {
+            return label(neighbors[from + i]);
+        }
+
+        @Override public int weight(int i) {
+            return weights[from + i];
+        }
+
+        @Override public int weightOf(L label) {
+            final int i = indexOf(label);
+            return i < 0 ? 0 : weights[i];
+        }
+
+        @Override public Set<Map.Entry<L, Integer>> entrySet() {
+            return entries;
+        }
+
+        private final class EntryView extends AbstractSet<Map.Entry<L, Integer>> {
+
+            @Override public int size() {
+                return to - from;
+            }
+
+            @Override public Iterator<Map.Entry<L, Integer>> iterator() {
+                return new Iterator<Map.Entry<L, Integer>>() {
+                    private int next = from;
+
+                    @Override public boolean hasNext() {
+                        return next < to;
+                    }
+
+                    @Override public Map.Entry<L, Integer> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        final Map.Entry<L, Integer> entry = new AbstractMap.SimpleImmutableEntry<>(
+                                label(neighbors[next]), weights[next]);
+                        next++;
+                        return entry;
+                    }
+                };
+            }
+        }
+    }
+
+}
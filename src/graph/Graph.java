@@ -26,7 +26,22 @@ public interface Graph<L> {
      * @return a new empty weighted directed graph
      */
     public static <L> Graph<L> empty() {
-        return (Graph<L>) new ConcreteEdgesGraph();
+        return new AdjacencyMapGraph<>();
+    }
+    
+    /**
+     * Create an immutable copy of a graph.
+     * 
+     * @param <L> type of vertex labels in the graph, must be immutable
+     * @param graph the graph to copy; not modified
+     * @return an immutable graph with the same vertices and edges as graph,
+     *         which is graph itself if it is already immutable
+     */
+    public static <L> ImmutableGraph<L> freeze(Graph<L> graph) {
+        if (graph instanceof ImmutableGraph) {
+            return (ImmutableGraph<L>) graph;
+        }
+        return CsrGraph.copyOf(graph);
     }
     
     /**
@@ -0,0 +1,256 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+
+/**
+ * A one-shot builder for loading many edges into a graph at once.
+ *
+ * <p>The builder fills pre-sized adjacency maps directly, without the
+ * per-call rep checks and read-only wrapping of Graph.set(). build() then
+ * hands the maps to a new AdjacencyMapGraph without copying them, and
+ * freeze() copies them into a CsrGraph, releasing each map as soon as it is
+ * copied, so a builder can only be built or frozen once.
+ *
+ * @param <L> type of vertex labels, must be immutable
+ */
+public class GraphBuilder<L> {
+
+    private Map<L, Map<L, Integer>> targetsOf;
+    private Map<L, Map<L, Integer>> sourcesOf;
+    private int edgeCount = 0;
+
+    // Abstraction function:
+    //   represents the graph that build() will return, or a spent builder if
+    //   targetsOf == null
+    // Representation invariant:
+    //   targetsOf and sourcesOf are both null or both non-null; when non-null
+    //   they satisfy the AdjacencyMapGraph rep invariant with edgeCount
+    // Safety from rep exposure:
+    //   the maps are only handed out by build(), which then drops them;
+    //   freeze() drops them before copying
+
+    /** Create a builder for a graph of unknown size. */
+    public GraphBuilder() {
+        this(16);
+    }
+
+    /**
+     * Create a builder whose tables are sized up front.
+     *
+     * @param expectedVertices number of distinct vertices expected; the
+     *        builder still accepts more
+     */
+    public GraphBuilder(int expectedVertices) {
+        assert expectedVertices >= 0;
+        targetsOf = new HashMap<>(capacity(expectedVertices));
+        sourcesOf = new HashMap<>(capacity(expectedVertices));
+    }
+
+    /* initial HashMap capacity that holds expected entries without rehashing */
+    private static int capacity(int expected) {
+        return (int) Math.min(1 << 30, expected * 4L / 3 + 1);
+    }
+
+    private void checkNotBuilt() {
+        if (targetsOf == null) {
+            throw new IllegalStateException("graph already built or frozen");
+        }
+    }
+
+    /* adjacency map of vertex in index, adding the vertex to both indexes if needed */
+    private Map<L, Integer> adjacency(Map<L, Map<L, Integer>> index, L vertex) {
+        Map<L, Integer> adjacency = index.get(vertex);
+        if (adjacency == null) {
+            add(vertex);
+            adjacency = index.get(vertex);
+        }
+        return adjacency;
+    }
+
+    /**
+     * Add a vertex to the graph being built; no effect if it is already there.
+     *
+     * @param vertex label of the vertex
+     * @return this builder
+     * @throws IllegalStateException if build() or freeze() has been called
+     */
+    public GraphBuilder<L> add(L vertex) {
+        checkNotBuilt();
+        if (!targetsOf.containsKey(vertex)) {
+            targetsOf.put(vertex, new HashMap<>());
+            sourcesOf.put(vertex, new HashMap<>());
+        }
+        return this;
+    }
+
+    /**
+     * Add a vertex whose adjacency maps are sized up front, so that filling
+     * them never rehashes; no effect if the vertex is already there.
+     *
+     * @param vertex label of the vertex
+     * @param expectedOutDegree number of edges out of vertex expected, >= 0;
+     *        the builder still accepts more
+     * @param expectedInDegree number of edges into vertex expected, >= 0;
+     *        the builder still accepts more
+     * @return this builder
+     * @throws IllegalStateException if build() or freeze() has been called
+     */
+    public GraphBuilder<L> add(L vertex, int expectedOutDegree, int expectedInDegree) {
+        checkNotBuilt();
+        assert expectedOutDegree >= 0 && expectedInDegree >= 0;
+        if (!targetsOf.containsKey(vertex)) {
+            targetsOf.put(vertex, new HashMap<>(capacity(expectedOutDegree)));
+            sourcesOf.put(vertex, new HashMap<>(capacity(expectedInDegree)));
+        }
+        return this;
+    }
+
+    /**
+     * Add, change, or remove an edge, with the same meaning as Graph.set().
+     *
+     * @param source label of the source vertex
+     * @param target label of the target vertex
+     * @param weight nonnegative weight of the edge
+     * @return this builder
+     * @throws IllegalStateException if build() or freeze() has been called
+     */
+    public GraphBuilder<L> set(L source, L target, int weight) {
+        checkNotBuilt();
+        assert weight >= 0;
+        if (weight > 0) {
+            if (adjacency(targetsOf, source).put(target, weight) == null) {
+                edgeCount++;
+            }
+            adjacency(sourcesOf, target).put(source, weight);
+        } else {
+            final Map<L, Integer> targets = targetsOf.get(source);
+            if (targets != null && targets.remove(target) != null) {
+                sourcesOf.get(target).remove(source);
+                edgeCount--;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Add a positive amount to the weight of an edge, where an absent edge
+     * has weight zero; vertices are added as needed.
+     *
+     * @param source label of the source vertex
+     * @param target label of the target vertex
+     * @param delta positive amount to add
+     * @return this builder
+     * @throws IllegalStateException if build() or freeze() has been called
+     */
+    public GraphBuilder<L> increment(L source, L target, int delta) {
+        checkNotBuilt();
+        assert delta > 0;
+        final int weight = adjacency(targetsOf, source).merge(target, delta, Integer::sum);
+        adjacency(sourcesOf, target).put(source, weight);
+        if (weight == delta) {
+            edgeCount++;
+        }
+        return this;
+    }
+
+    /**
+     * Set every edge given by parallel arrays, in order: edge i goes from
+     * sources[i] to targets[i] with weight weights[i].
+     *
+     * @param sources source labels
+     * @param targets target labels, same length as sources
+     * @param weights nonnegative weights, same length as sources
+     * @return this builder
+     * @throws IllegalStateException if build() or freeze() has been called
+     */
+    public GraphBuilder<L> setAll(L[] sources, L[] targets, int[] weights) {
+        assert sources.length == targets.length && sources.length == weights.length;
+        for (int i = 0; i < sources.length; i++) {
+            set(sources[i], targets[i], weights[i]);
+        }
+        return this;
+    }
+
+    /**
+     * Set every edge described by a stream of (source, target, weight)
+     * triples, in encounter order.
+     *
+     * @param triples the edges; consumed by this call
+     * @param source extracts the source label of a triple
+     * @param target extracts the target label of a triple
+     * @param weight extracts the nonnegative weight of a triple
+     * @return this builder
+     * @throws IllegalStateException if build() or freeze() has been called
+     */
+    public <T> GraphBuilder<L> setAll(Stream<T> triples,
+            Function<? super T, ? extends L> source,
+            Function<? super T, ? extends L> target,
+            ToIntFunction<? super T> weight) {
+        checkNotBuilt();
+        triples.forEachOrdered(triple ->
+                set(source.apply(triple), target.apply(triple), weight.applyAsInt(triple)));
+        return this;
+    }
+
+    /**
+     * Finish building. The builder cannot be used afterwards.
+     *
+     * @return a new mutable graph with the vertices and edges added so far
+     * @throws IllegalStateException if build() or freeze() has already been
+     *         called
+     */
+    public IncrementableGraph<L> build() {
+        checkNotBuilt();
+        final AdjacencyMapGraph<L> graph = new AdjacencyMapGraph<>(targetsOf, sourcesOf, edgeCount);
+        targetsOf = null;
+        sourcesOf = null;
+        return graph;
+    }
+
+    /**
+     * Finish building into an immutable graph. The builder cannot be used
+     * afterwards.
+     *
+     * <p>The result is the same as Graph.freeze(build()), but the adjacency
+     * maps are never all alive together with the whole copy: the in-edge
+     * maps are dropped first, since the copy derives its in-edges from the
+     * out-edges, and each out-edge map is dropped as soon as it is copied.
+     *
+     * @return a new immutable graph with the vertices and edges added so far
+     * @throws IllegalStateException if build() or freeze() has already been
+     *         called
+     */
+    public ImmutableGraph<L> freeze() {
+        checkNotBuilt();
+        final Map<L, Map<L, Integer>> rows = targetsOf;
+        targetsOf = null;
+        sourcesOf = null;
+
+        final Object[] labels = rows.keySet().toArray();
+        final ObjectIntMap<Object> ids = new ObjectIntMap<>(labels.length);
+        for (int v = 0; v < labels.length; v++) {
+            ids.put(labels[v], v + 1);
+        }
+        final int[] offsets = new int[labels.length + 1];
+        final int[] neighbors = new int[edgeCount];
+        final int[] weights = new int[edgeCount];
+        int i = 0;
+        for (int v = 0; v < labels.length; v++) {
+            for (Map.Entry<L, Integer> edge : rows.remove(labels[v]).entrySet()) {
+                neighbors[i] = ids.get(edge.getKey()) - 1;
+                weights[i] = edge.getValue();
+                i++;
+            }
+            offsets[v + 1] = i;
+        }
+        return CsrGraph.fromOutEdges(labels, offsets, neighbors, weights);
+    }
+
+}
@@ -0,0 +1,131 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Call counts and times of the operations of one or more InstrumentedGraphs.
+ *
+ * <p>Recording is a pair of LongAdder updates, so many threads can record at
+ * once without contending. While disabled, an InstrumentedGraph only reads
+ * a volatile flag per call and then calls straight through. Can be
+ * registered with an MBeanServer, e.g. the platform one, as an MXBean.
+ */
+public final class GraphMetrics implements GraphMetricsMXBean {
+
+    /** The operations of Graph */
+    public enum Operation {
+        ADD, SET, REMOVE, VERTICES, SOURCES, TARGETS
+    }
+
+    private static final Operation[] OPERATIONS = Operation.values();
+
+    private final LongAdder[] calls = new LongAdder[OPERATIONS.length];
+    private final LongAdder[] nanos = new LongAdder[OPERATIONS.length];
+    private volatile boolean enabled;
+
+    // Abstraction function:
+    //   represents, for each operation op, calls[op.ordinal()] calls taking
+    //   nanos[op.ordinal()] ns in total, recorded while enabled
+    // Representation invariant:
+    //   calls and nanos have one non-null adder per operation
+    // Safety from rep exposure:
+    //   all fields are private; the adders are never returned
+    // Thread safety argument:
+    //   the adders are thread-safe and the arrays are final and never
+    //   written after construction; enabled is volatile
+
+    /**
+     * Create metrics with every count 0.
+     * 
+     * @param enabled whether to start out counting and timing calls
+     */
+    public GraphMetrics(boolean enabled) {
+        for (int i = 0; i < OPERATIONS.length; i++) {
+            calls[i] = new LongAdder();
+            nanos[i] = new LongAdder();
+        }
+        this.enabled = enabled;
+    }
+
+    @Override public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Record one call.
+     * 
+     * @param operation operation called
+     * @param elapsed time the call took, in nanoseconds
+     */
+    public void record(Operation operation, long elapsed) {
+        calls[operation.ordinal()].increment();
+        nanos[operation.ordinal()].add(elapsed);
+    }
+
+    /**
+     * @param operation an operation
+     * @return number of calls of operation recorded
+     */
+    public long calls(Operation operation) {
+        return calls[operation.ordinal()].sum();
+    }
+
+    /**
+     * @param operation an operation
+     * @return total time of the calls of operation recorded, in nanoseconds
+     */
+    public long totalNanos(Operation operation) {
+        return nanos[operation.ordinal()].sum();
+    }
+
+    @Override public Map<String, Long> getCalls() {
+        final Map<String, Long> result = new LinkedHashMap<>();
+        for (Operation operation : OPERATIONS) {
+            result.put(name(operation), calls(operation));
+        }
+        return result;
+    }
+
+    @Override public Map<String, Long> getTotalNanos() {
+        final Map<String, Long> result = new LinkedHashMap<>();
+        for (Operation operation : OPERATIONS) {
+            result.put(name(operation), totalNanos(operation));
+        }
+        return result;
+    }
+
+    @Override public Map<String, Double> getMeanNanos() {
+        final Map<String, Double> result = new LinkedHashMap<>();
+        for (Operation operation : OPERATIONS) {
+            final long count = calls(operation);
+            result.put(name(operation), count == 0 ? 0.0 : (double) totalNanos(operation) / count);
+        }
+        return result;
+    }
+
+    @Override public void reset() {
+        for (int i = 0; i < OPERATIONS.length; i++) {
+            calls[i].reset();
+            nanos[i].reset();
+        }
+    }
+
+    private static String name(Operation operation) {
+        return operation.name().toLowerCase(Locale.ROOT);
+    }
+
+    @Override public String toString() {
+        return getCalls() + " calls, " + getMeanNanos() + " mean ns";
+    }
+
+}
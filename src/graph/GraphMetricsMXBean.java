@@ -0,0 +1,32 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.Map;
+
+/**
+ * JMX management interface of GraphMetrics. Maps are keyed by operation
+ * name: add, set, remove, vertices, sources, targets.
+ */
+public interface GraphMetricsMXBean {
+
+    /** Returns whether calls are currently being counted and timed */
+    boolean isEnabled();
+
+    /** Start or stop counting and timing calls */
+    void setEnabled(boolean enabled);
+
+    /** Returns the number of calls of each operation */
+    Map<String, Long> getCalls();
+
+    /** Returns the total time spent in each operation, in nanoseconds */
+    Map<String, Long> getTotalNanos();
+
+    /** Returns the mean time of one call of each operation, in nanoseconds */
+    Map<String, Double> getMeanNanos();
+
+    /** Set every count and time back to 0 */
+    void reset();
+
+}
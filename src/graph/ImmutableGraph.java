@@ -0,0 +1,100 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+/**
+ * A Graph that never changes.
+ *
+ * <p>add(), set() and remove() throw UnsupportedOperationException. The sets
+ * and maps returned by vertices(), sources() and targets() are read-only.
+ * Instances are safe to share between threads once constructed, and reads
+ * need no locking.
+ *
+ * <p>targetRow() and sourceRow() read the edges of a vertex by position,
+ * for loops that visit every edge of a row or probe one edge of it without
+ * the entry objects and boxed weights of walking a Map.
+ *
+ * <p>Use {@link Graph#freeze(Graph)} to make one from any graph.
+ *
+ * @param <L> type of vertex labels in this graph, must be immutable
+ */
+public interface ImmutableGraph<L> extends Graph<L> {
+
+    /**
+     * Count the edges of this graph.
+     *
+     * <p>The default walks every vertex's targets(); graphs that know their
+     * edge count return it in O(1).
+     *
+     * @return the number of edges in this graph
+     */
+    public default int edgeCount() {
+        int edges = 0;
+        for (L source : vertices()) {
+            edges += targets(source).size();
+        }
+        return edges;
+    }
+
+    /**
+     * Get the edges out of a vertex, read by position.
+     *
+     * <p>The default reads targets(source), copying its entries on the first
+     * read by position; graphs stored in flat arrays return a row over them
+     * instead.
+     *
+     * @param source label of a vertex
+     * @return the edges out of source, none if source is not a vertex
+     */
+    public default Row<L> targetRow(L source) {
+        return new MapRow<>(targets(source));
+    }
+
+    /**
+     * Get the edges into a vertex, read by position.
+     *
+     * <p>The default reads sources(target), copying its entries on the first
+     * read by position; graphs stored in flat arrays return a row over them
+     * instead.
+     *
+     * @param target label of a vertex
+     * @return the edges into target, none if target is not a vertex
+     */
+    public default Row<L> sourceRow(L target) {
+        return new MapRow<>(sources(target));
+    }
+
+    /**
+     * The edges out of or into one vertex, in a fixed order: edge i joins the
+     * vertex to neighbor(i) with weight weight(i). Read-only, and reads
+     * neither allocate nor box unless the row says otherwise.
+     *
+     * @param <L> type of vertex labels, must be immutable
+     */
+    public interface Row<L> {
+
+        /** Returns the number of edges in this row */
+        public int size();
+
+        /**
+         * @param i index of an edge, 0 <= i < size()
+         * @return the vertex at the other end of edge i
+         */
+        public L neighbor(int i);
+
+        /**
+         * @param i index of an edge, 0 <= i < size()
+         * @return the weight of edge i, > 0
+         */
+        public int weight(int i);
+
+        /**
+         * @param neighbor label of a vertex
+         * @return the weight of the edge in this row to or from neighbor, or
+         *         zero if there is none
+         */
+        public int weightOf(L neighbor);
+    }
+
+}
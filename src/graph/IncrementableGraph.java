@@ -0,0 +1,44 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+/**
+ * A Graph whose edge weights can also be adjusted relative to their current
+ * value, in one operation.
+ *
+ * <p>increment() is what counting workloads such as GraphPoet's affinity
+ * graph need: with set() alone, every adjacency costs a read of the old
+ * weight followed by a write of the new one.
+ *
+ * @param <L> type of vertex labels in this graph, must be immutable
+ */
+public interface IncrementableGraph<L> extends Graph<L> {
+
+    /**
+     * Create an empty graph that supports increment().
+     *
+     * @param <L> type of vertex labels in the graph, must be immutable
+     * @return a new empty weighted directed graph
+     */
+    public static <L> IncrementableGraph<L> empty() {
+        return new AdjacencyMapGraph<>();
+    }
+
+    /**
+     * Add delta to the weight of a directed edge in this graph, where an
+     * absent edge has weight zero.
+     * If the new weight is nonzero, the edge is added or updated as by
+     * set(source, target, newWeight); if it is zero, the edge is removed if
+     * it exists (the graph is not otherwise modified).
+     *
+     * @param source label of the source vertex
+     * @param target label of the target vertex
+     * @param delta amount to add to the weight; requires that the previous
+     *        weight plus delta is nonnegative
+     * @return the previous weight of the edge, or zero if there was no such
+     *         edge
+     */
+    public int increment(L source, L target, int delta);
+
+}
@@ -0,0 +1,112 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.Map;
+import java.util.Set;
+
+import graph.GraphMetrics.Operation;
+
+/**
+ * A Graph that forwards every call to another graph and, while its metrics
+ * are enabled, counts and times the call.
+ *
+ * <p>Behaves exactly as the graph it wraps, and is as thread-safe as that
+ * graph. Times are wall-clock times from System.nanoTime() and include the
+ * time spent waiting for any lock the wrapped graph takes.
+ */
+public class InstrumentedGraph<L> implements Graph<L> {
+
+    private final Graph<L> graph;
+    private final GraphMetrics metrics;
+
+    // Abstraction function:
+    //   represents the same graph as graph
+    // Representation invariant:
+    //   true
+    // Safety from rep exposure:
+    //   all fields are private and final; graph is shared with the caller
+    //   by design, and results are graph's own
+    // Thread safety argument:
+    //   all fields are final; GraphMetrics is thread-safe
+
+    /**
+     * @param graph graph to forward calls to
+     * @param metrics records the calls while enabled
+     */
+    public InstrumentedGraph(Graph<L> graph, GraphMetrics metrics) {
+        this.graph = graph;
+        this.metrics = metrics;
+    }
+
+    /** Returns the metrics this graph records calls in */
+    public GraphMetrics metrics() {
+        return metrics;
+    }
+
+    @Override public boolean add(L vertex) {
+        if (!metrics.isEnabled()) {
+            return graph.add(vertex);
+        }
+        final long start = System.nanoTime();
+        final boolean added = graph.add(vertex);
+        metrics.record(Operation.ADD, System.nanoTime() - start);
+        return added;
+    }
+
+    @Override public int set(L source, L target, int weight) {
+        if (!metrics.isEnabled()) {
+            return graph.set(source, target, weight);
+        }
+        final long start = System.nanoTime();
+        final int previousWeight = graph.set(source, target, weight);
+        metrics.record(Operation.SET, System.nanoTime() - start);
+        return previousWeight;
+    }
+
+    @Override public boolean remove(L vertex) {
+        if (!metrics.isEnabled()) {
+            return graph.remove(vertex);
+        }
+        final long start = System.nanoTime();
+        final boolean removed = graph.remove(vertex);
+        metrics.record(Operation.REMOVE, System.nanoTime() - start);
+        return removed;
+    }
+
+    @Override public Set<L> vertices() {
+        if (!metrics.isEnabled()) {
+            return graph.vertices();
+        }
+        final long start = System.nanoTime();
+        final Set<L> vertices = graph.vertices();
+        metrics.record(Operation.VERTICES, System.nanoTime() - start);
+        return vertices;
+    }
+
+    @Override public Map<L, Integer> sources(L target) {
+        if (!metrics.isEnabled()) {
+            return graph.sources(target);
+        }
+        final long start = System.nanoTime();
+        final Map<L, Integer> sources = graph.sources(target);
+        metrics.record(Operation.SOURCES, System.nanoTime() - start);
+        return sources;
+    }
+
+    @Override public Map<L, Integer> targets(L source) {
+        if (!metrics.isEnabled()) {
+            return graph.targets(source);
+        }
+        final long start = System.nanoTime();
+        final Map<L, Integer> targets = graph.targets(source);
+        metrics.record(Operation.TARGETS, System.nanoTime() - start);
+        return targets;
+    }
+
+    @Override public String toString() {
+        return graph.toString();
+    }
+
+}
@@ -0,0 +1,200 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * A mutable map from non-negative int keys to int values, using open
+ * addressing with linear probing. Used by InternedGraph to store the edges of
+ * one vertex as neighbor id -> weight without boxing either side.
+ *
+ * <p>Absent keys read as 0, which is never a stored weight. Slots can be
+ * walked directly with capacity(), keyAt() and valueAt().
+ */
+final class IntIntMap {
+
+    /** keyAt() of an empty slot */
+    static final int EMPTY = -1;
+
+    private static final int[] NO_INTS = {};
+    private static final int MIN_CAPACITY = 4;
+
+    private int[] keys = NO_INTS;
+    private int[] values = NO_INTS;
+    private int size = 0;
+
+    // Abstraction function:
+    //   represents the mapping keys[i] -> values[i] for every i with
+    //   keys[i] != EMPTY
+    // Representation invariant:
+    //   keys.length == values.length, and is 0 or a power of two >= MIN_CAPACITY
+    //   size is the number of non-EMPTY keys, and size < keys.length when
+    //     keys.length > 0
+    //   every key is >= 0 and reachable by linear probing from its home slot
+    //     without crossing an EMPTY slot, and no key appears twice
+    // Safety from rep exposure:
+    //   the arrays never leave this class; only primitives are returned
+
+    public IntIntMap() {
+    }
+
+    private void checkRep() {
+        assert keys.length == values.length;
+        assert keys.length == 0 || Integer.bitCount(keys.length) == 1;
+        assert keys.length == 0 || size < keys.length;
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    private int home(int key) {
+        final int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (keys.length - 1);
+    }
+
+    private int indexOf(int key) {
+        if (size == 0) {
+            return -1;
+        }
+        final int mask = keys.length - 1;
+        for (int i = home(key); keys[i] != EMPTY; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void grow() {
+        final int[] oldKeys = keys;
+        final int[] oldValues = values;
+        allocate(oldKeys.length == 0 ? MIN_CAPACITY : oldKeys.length * 2);
+        final int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != EMPTY) {
+                int i = home(oldKeys[j]);
+                while (keys[i] != EMPTY) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean containsKey(int key) {
+        return indexOf(key) >= 0;
+    }
+
+    /** Returns the value for key, or 0 if key is absent */
+    public int get(int key) {
+        final int i = indexOf(key);
+        return i < 0 ? 0 : values[i];
+    }
+
+    /**
+     * Associate key with value.
+     *
+     * @return the previous value for key, or 0 if key was absent
+     */
+    public int put(int key, int value) {
+        assert key >= 0;
+        final int existing = indexOf(key);
+        if (existing >= 0) {
+            final int previous = values[existing];
+            values[existing] = value;
+            return previous;
+        }
+        if ((size + 1) * 4L > keys.length * 3L) {
+            grow();
+        }
+        final int mask = keys.length - 1;
+        int i = home(key);
+        while (keys[i] != EMPTY) {
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        size++;
+        checkRep();
+        return 0;
+    }
+
+    /**
+     * Add delta to the value for key, treating an absent key as 0.
+     *
+     * @return the previous value for key, or 0 if key was absent
+     */
+    public int addTo(int key, int delta) {
+        final int i = indexOf(key);
+        if (i < 0) {
+            put(key, delta);
+            return 0;
+        }
+        final int previous = values[i];
+        values[i] = previous + delta;
+        return previous;
+    }
+
+    /**
+     * Remove key from this map.
+     *
+     * @return the previous value for key, or 0 if key was absent
+     */
+    public int remove(int key) {
+        int i = indexOf(key);
+        if (i < 0) {
+            return 0;
+        }
+        final int previous = values[i];
+        final int mask = keys.length - 1;
+        keys[i] = EMPTY;
+        size--;
+        // shift later members of the probe run back over the hole
+        for (int j = (i + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+            final int h = home(keys[j]);
+            final boolean homeInHole = i <= j ? (h <= i || h > j) : (h <= i && h > j);
+            if (homeInHole) {
+                keys[i] = keys[j];
+                values[i] = values[j];
+                keys[j] = EMPTY;
+                i = j;
+            }
+        }
+        checkRep();
+        return previous;
+    }
+
+    /** Remove every mapping, and release the slots */
+    public void clear() {
+        keys = NO_INTS;
+        values = NO_INTS;
+        size = 0;
+        checkRep();
+    }
+
+    /** Returns the number of slots; slots are numbered 0 to capacity() - 1 */
+    public int capacity() {
+        return keys.length;
+    }
+
+    /** Returns the key in slot i, or EMPTY */
+    public int keyAt(int i) {
+        return keys[i];
+    }
+
+    /** Returns the value in slot i; meaningless if keyAt(i) is EMPTY */
+    public int valueAt(int i) {
+        return values[i];
+    }
+
+}
@@ -0,0 +1,367 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An implementation of Graph that interns each label once into a dense int
+ * id and stores edges as id -> weight maps of primitive ints.
+ *
+ * <p>Labels are held once, in the id table; edges hold no object
+ * references at all. freeze() compacts the graph into an immutable CsrGraph
+ * for read-only use, e.g. after a GraphPoet corpus has been loaded.
+ */
+public class InternedGraph<L> implements IncrementableGraph<L> {
+
+    private final ObjectIntMap<L> ids = new ObjectIntMap<>();
+    private final List<L> labels = new ArrayList<>();
+    private final List<IntIntMap> targetsOf = new ArrayList<>();
+    private final List<IntIntMap> sourcesOf = new ArrayList<>();
+    private int[] freeIds = new int[0];
+    private int freeCount = 0;
+    private int edgeCount = 0;
+
+    // Abstraction function:
+    //   represents the graph whose vertices are the non-null labels, with an
+    //   edge labels[s] -> labels[t] of weight w for every
+    //   targetsOf.get(s).get(t) == w
+    // Representation invariant:
+    //   labels, targetsOf and sourcesOf have the same size
+    //   ids.get(labels.get(v)) == v + 1 for every non-null label, and ids has
+    //     no other keys
+    //   freeIds[0 .. freeCount) are exactly the ids v with labels.get(v) == null,
+    //     and those ids have empty edge maps that no EdgesView holds
+    //   targetsOf.get(s).get(t) == sourcesOf.get(t).get(s) for every edge,
+    //     every weight is > 0
+    //   edgeCount is the number of edges
+    // Safety from rep exposure:
+    //   all fields are private; no map or array leaves this class, and
+    //   vertices(), sources() and targets() only return read-only views
+
+    public InternedGraph() {
+    }
+
+    private void checkRep() {
+        assert labels.size() == targetsOf.size();
+        assert labels.size() == sourcesOf.size();
+        assert ids.size() + freeCount == labels.size();
+        assert edgeCount >= 0;
+    }
+
+    /* id of label, or -1 if label is not a vertex */
+    private int id(Object label) {
+        return ids.get(label) - 1;
+    }
+
+    /* id of label, interning it as a new vertex if needed */
+    private int intern(L label) {
+        final int existing = id(label);
+        if (existing >= 0) {
+            return existing;
+        }
+        final int id;
+        if (freeCount > 0) {
+            id = freeIds[--freeCount];
+            labels.set(id, label);
+        } else {
+            id = labels.size();
+            labels.add(label);
+            targetsOf.add(new IntIntMap());
+            sourcesOf.add(new IntIntMap());
+        }
+        ids.put(label, id + 1);
+        return id;
+    }
+
+    @Override public boolean add(L vertex) {
+        if (ids.containsKey(vertex)) {
+            return false;
+        }
+        intern(vertex);
+        checkRep();
+        return true;
+    }
+
+    @Override public int set(L source, L target, int weight) {
+        assert weight >= 0;
+
+        final int previousWeight;
+        if (weight > 0) {
+            final int s = intern(source);
+            final int t = intern(target);
+            previousWeight = targetsOf.get(s).put(t, weight);
+            sourcesOf.get(t).put(s, weight);
+            if (previousWeight == 0) {
+                edgeCount++;
+            }
+        } else {
+            final int s = id(source);
+            final int t = id(target);
+            if (s < 0 || t < 0) {
+                return 0;
+            }
+            previousWeight = targetsOf.get(s).remove(t);
+            if (previousWeight > 0) {
+                sourcesOf.get(t).remove(s);
+                edgeCount--;
+            }
+        }
+        checkRep();
+        return previousWeight;
+    }
+
+    @Override public int increment(L source, L target, int delta) {
+        if (delta <= 0) {
+            final int previousWeight = targets(source).getOrDefault(target, 0);
+            assert previousWeight + delta >= 0;
+            return delta == 0 ? previousWeight : set(source, target, previousWeight + delta);
+        }
+        final int s = intern(source);
+        final int t = intern(target);
+        final int previousWeight = targetsOf.get(s).addTo(t, delta);
+        sourcesOf.get(t).addTo(s, delta);
+        if (previousWeight == 0) {
+            edgeCount++;
+        }
+        checkRep();
+        return previousWeight;
+    }
+
+    @Override public boolean remove(L vertex) {
+        final int v = id(vertex);
+        if (v < 0) {
+            return false;
+        }
+        final IntIntMap targets = targetsOf.get(v);
+        final IntIntMap sources = sourcesOf.get(v);
+        for (int i = 0; i < targets.capacity(); i++) {
+            final int t = targets.keyAt(i);
+            if (t != IntIntMap.EMPTY && t != v) {
+                sourcesOf.get(t).remove(v);
+            }
+        }
+        for (int i = 0; i < sources.capacity(); i++) {
+            final int s = sources.keyAt(i);
+            if (s != IntIntMap.EMPTY && s != v) {
+                targetsOf.get(s).remove(v);
+            }
+        }
+        edgeCount -= targets.size() + sources.size() - (targets.containsKey(v) ? 1 : 0);
+
+        ids.remove(vertex);
+        labels.set(v, null);
+        // views of the removed vertex hold its maps: empty them, and give the
+        // id fresh ones, so those views never see a vertex that reuses the id
+        targets.clear();
+        sources.clear();
+        targetsOf.set(v, new IntIntMap());
+        sourcesOf.set(v, new IntIntMap());
+        if (freeCount == freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, Math.max(4, freeCount * 2));
+        }
+        freeIds[freeCount++] = v;
+        checkRep();
+        return true;
+    }
+
+    /** Returns a read-only view of this graph's vertices */
+    @Override public Set<L> vertices() {
+        return new AbstractSet<L>() {
+            @Override public int size() {
+                return ids.size();
+            }
+
+            @Override public boolean contains(Object label) {
+                return ids.containsKey(label);
+            }
+
+            @Override public Iterator<L> iterator() {
+                return new Iterator<L>() {
+                    private int next = advance(0);
+
+                    private int advance(int from) {
+                        while (from < labels.size() && labels.get(from) == null) {
+                            from++;
+                        }
+                        return from;
+                    }
+
+                    @Override public boolean hasNext() {
+                        return next < labels.size();
+                    }
+
+                    @Override public L next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        final L label = labels.get(next);
+                        next = advance(next + 1);
+                        return label;
+                    }
+                };
+            }
+        };
+    }
+
+    /** Returns a read-only view of a target's sources; empty once target is removed */
+    @Override public Map<L, Integer> sources(L target) {
+        final int v = id(target);
+        if (v < 0) {
+            return Collections.emptyMap();
+        }
+        return new EdgesView(sourcesOf.get(v));
+    }
+
+    /** Returns a read-only view of a source's targets; empty once source is removed */
+    @Override public Map<L, Integer> targets(L source) {
+        final int v = id(source);
+        if (v < 0) {
+            return Collections.emptyMap();
+        }
+        return new EdgesView(targetsOf.get(v));
+    }
+
+    /** Returns the number of edges in this graph */
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Compact this graph into an immutable CSR snapshot. This graph is not
+     * modified, and later changes to it do not affect the snapshot.
+     *
+     * @return an immutable graph with the same vertices and edges as this one
+     */
+    public CsrGraph<L> freeze() {
+        // renumber live ids densely, in id order
+        final int[] dense = new int[labels.size()];
+        final Object[] frozenLabels = new Object[ids.size()];
+        int n = 0;
+        for (int v = 0; v < labels.size(); v++) {
+            if (labels.get(v) == null) {
+                dense[v] = -1;
+            } else {
+                dense[v] = n;
+                frozenLabels[n++] = labels.get(v);
+            }
+        }
+
+        final int[] outOffsets = new int[n + 1];
+        final int[] outNeighbors = new int[edgeCount];
+        final int[] outWeights = new int[edgeCount];
+        int e = 0;
+        for (int v = 0; v < labels.size(); v++) {
+            if (dense[v] < 0) {
+                continue;
+            }
+            final IntIntMap targets = targetsOf.get(v);
+            for (int i = 0; i < targets.capacity(); i++) {
+                if (targets.keyAt(i) != IntIntMap.EMPTY) {
+                    outNeighbors[e] = dense[targets.keyAt(i)];
+                    outWeights[e] = targets.valueAt(i);
+                    e++;
+                }
+            }
+            outOffsets[dense[v] + 1] = e;
+        }
+        assert e == edgeCount;
+        return CsrGraph.fromOutEdges(frozenLabels, outOffsets, outNeighbors, outWeights);
+    }
+
+    @Override public String toString() {
+        if (edgeCount == 0) {
+            return "Empty Graph";
+        }
+        final StringBuilder string = new StringBuilder();
+        for (int v = 0; v < labels.size(); v++) {
+            final IntIntMap targets = targetsOf.get(v);
+            for (int i = 0; i < targets.capacity(); i++) {
+                if (targets.keyAt(i) != IntIntMap.EMPTY) {
+                    if (string.length() > 0) {
+                        string.append('\n');
+                    }
+                    string.append(labels.get(v)).append(" -> ")
+                          .append(labels.get(targets.keyAt(i))).append(": ")
+                          .append(targets.valueAt(i));
+                }
+            }
+        }
+        return string.toString();
+    }
+
+    /*
+     * Read-only Map view translating one vertex's id -> weight map to labels.
+     * Tracks the vertex's later changes; once the vertex is removed, the view
+     * is empty for good.
+     */
+    private final class EdgesView extends AbstractMap<L, Integer> {
+
+        private final IntIntMap edges;
+
+        EdgesView(IntIntMap edges) {
+            this.edges = edges;
+        }
+
+        @Override public int size() {
+            return edges.size();
+        }
+
+        @Override public boolean containsKey(Object label) {
+            final int v = id(label);
+            return v >= 0 && edges.containsKey(v);
+        }
+
+        @Override public Integer get(Object label) {
+            final int v = id(label);
+            final int weight = v < 0 ? 0 : edges.get(v);
+            return weight == 0 ? null : weight;
+        }
+
+        @Override public Set<Map.Entry<L, Integer>> entrySet() {
+            return new AbstractSet<Map.Entry<L, Integer>>() {
+                @Override public int size() {
+                    return edges.size();
+                }
+
+                @Override public Iterator<Map.Entry<L, Integer>> iterator() {
+                    return new Iterator<Map.Entry<L, Integer>>() {
+                        private int next = advance(0);
+
+                        private int advance(int from) {
+                            while (from < edges.capacity() && edges.keyAt(from) == IntIntMap.EMPTY) {
+                                from++;
+                            }
+                            return from;
+                        }
+
+                        @Override public boolean hasNext() {
+                            return next < edges.capacity();
+                        }
+
+                        @Override public Map.Entry<L, Integer> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            final Map.Entry<L, Integer> entry = new AbstractMap.SimpleImmutableEntry<>(
+                                    labels.get(edges.keyAt(next)), edges.valueAt(next));
+                            next = advance(next + 1);
+                            return entry;
+                        }
+                    };
+                }
+            };
+        }
+    }
+
+}
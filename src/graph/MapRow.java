@@ -0,0 +1,76 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.Map;
+
+/**
+ * An ImmutableGraph.Row over a read-only map of neighbours to weights, for
+ * graphs not stored in flat arrays.
+ *
+ * <p>weightOf() is one map lookup. The first neighbor() or weight() copies
+ * the map's entries into arrays, in the map's iteration order, so walking a
+ * row costs one pass over the map however it is indexed. A MapRow is meant
+ * for one caller and is not thread-safe.
+ */
+final class MapRow<L> implements ImmutableGraph.Row<L> {
+
+    private final Map<L, Integer> edges;
+    private Object[] neighbors = null;
+    private int[] weights = null;
+
+    // Abstraction function:
+    //   represents the edges edges.get(n) of every key n of edges, in the
+    //   order of neighbors and weights once they are filled
+    // Representation invariant:
+    //   neighbors and weights are both null, or both have length
+    //     edges.size() and hold edges' entries in its iteration order
+    // Safety from rep exposure:
+    //   edges is the caller's read-only map; the arrays never leave this
+    //   class
+
+    /**
+     * @param edges read-only map of neighbours to positive weights; must not
+     *        change while this row is in use
+     */
+    MapRow(Map<L, Integer> edges) {
+        this.edges = edges;
+    }
+
+    /* copy the entries into the arrays, if not done yet */
+    private void fill() {
+        if (neighbors != null) {
+            return;
+        }
+        neighbors = new Object[edges.size()];
+        weights = new int[neighbors.length];
+        int i = 0;
+        for (Map.Entry<L, Integer> edge : edges.entrySet()) {
+            neighbors[i] = edge.getKey();
+            weights[i] = edge.getValue();
+            i++;
+        }
+    }
+
+    @Override public int size() {
+        return edges.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override public L neighbor(int i) {
+        fill();
+        return (L) neighbors[i];
+    }
+
+    @Override public int weight(int i) {
+        fill();
+        return weights[i];
+    }
+
+    @Override public int weightOf(L neighbor) {
+        final Integer weight = edges.get(neighbor);
+        return weight == null ? 0 : weight;
+    }
+
+}
@@ -0,0 +1,156 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * An implementation of Graph that keeps a Vertex per label, like
+ * ConcreteVerticesGraph, but looks vertices up by label in a map instead of
+ * scanning a list.
+ *
+ * <p>add(), set(), sources() and targets() are expected O(1), remove() is
+ * O(in-degree + out-degree), and vertices() returns the same read-only view
+ * on every call instead of copying the labels. Unlike ConcreteVerticesGraph,
+ * it allows self-loops.
+ */
+public class MapVerticesGraph<L> implements IncrementableGraph<L> {
+
+    private final Map<L, Vertex<L>> vertices = new HashMap<>();
+    private final Set<L> labels = Collections.unmodifiableSet(vertices.keySet());
+
+    // Abstraction function:
+    //   represents a directed weighted graph whose vertices are the keys of
+    //   vertices; vertices.get(s).getTargets().get(t) is the weight of the
+    //   edge s -> t
+    // Representation invariant:
+    //   vertices.get(label).getLabel().equals(label) for every key
+    //   every source and target of a Vertex is a key of vertices
+    //   s is a source of t iff t is a target of s, with the same weight;
+    //     a self-loop makes a vertex a source and a target of itself
+    //   labels is a view of vertices.keySet()
+    // Safety from rep exposure:
+    //   all fields are private and final; Vertex is mutable but never
+    //   leaves this class, and vertices(), sources() and targets() only
+    //   return unmodifiable views
+
+    public MapVerticesGraph() {
+    }
+
+    private void checkRep() {
+        assert labels.size() == vertices.size();
+    }
+
+    /* Returns the vertex for label, adding it to the graph if needed */
+    private Vertex<L> vertex(L label) {
+        Vertex<L> vertex = vertices.get(label);
+        if (vertex == null) {
+            vertex = new Vertex<>(label);
+            vertices.put(label, vertex);
+        }
+        return vertex;
+    }
+
+    @Override public boolean add(L vertex) {
+        if (vertices.containsKey(vertex)) {
+            return false;
+        }
+        vertices.put(vertex, new Vertex<>(vertex));
+        checkRep();
+        return true;
+    }
+
+    @Override public int set(L source, L target, int weight) {
+        assert weight >= 0;
+
+        final Vertex<L> sourceVertex;
+        final Vertex<L> targetVertex;
+        if (weight > 0) {
+            sourceVertex = vertex(source);
+            targetVertex = vertex(target);
+        } else {
+            sourceVertex = vertices.get(source);
+            targetVertex = vertices.get(target);
+            if (sourceVertex == null || targetVertex == null) {
+                return 0;
+            }
+        }
+
+        int sourcePrevWeight = sourceVertex.setTarget(target, weight);
+        int targetPrevWeight = targetVertex.setSource(source, weight);
+        assert sourcePrevWeight == targetPrevWeight;
+
+        checkRep();
+        return sourcePrevWeight;
+    }
+
+    @Override public int increment(L source, L target, int delta) {
+        if (delta <= 0) {
+            final int previousWeight = targets(source).getOrDefault(target, 0);
+            assert previousWeight + delta >= 0;
+            return delta == 0 ? previousWeight : set(source, target, previousWeight + delta);
+        }
+        int sourcePrevWeight = vertex(source).incrementTarget(target, delta);
+        int targetPrevWeight = vertex(target).incrementSource(source, delta);
+        assert sourcePrevWeight == targetPrevWeight;
+
+        checkRep();
+        return sourcePrevWeight;
+    }
+
+    @Override public boolean remove(L vertex) {
+        final Vertex<L> removedVertex = vertices.remove(vertex);
+        if (removedVertex == null) {
+            return false;
+        }
+        // a self-loop is only held by the removed vertex itself
+        for (L source : removedVertex.getSources().keySet()) {
+            if (!source.equals(vertex)) {
+                vertices.get(source).removeTarget(vertex);
+            }
+        }
+        for (L target : removedVertex.getTargets().keySet()) {
+            if (!target.equals(vertex)) {
+                vertices.get(target).removeSource(vertex);
+            }
+        }
+        checkRep();
+        return true;
+    }
+
+    /** Returns a read-only view of this graph's vertices */
+    @Override public Set<L> vertices() {
+        return labels;
+    }
+
+    /** Returns an immutable view of source vertices to a target */
+    @Override public Map<L, Integer> sources(L target) {
+        final Vertex<L> targetVertex = vertices.get(target);
+        if (targetVertex == null) {
+            return Collections.emptyMap();
+        }
+        return targetVertex.getSources();
+    }
+
+    /** Returns an immutable view of target vertices from a source */
+    @Override public Map<L, Integer> targets(L source) {
+        final Vertex<L> sourceVertex = vertices.get(source);
+        if (sourceVertex == null) {
+            return Collections.emptyMap();
+        }
+        return sourceVertex.getTargets();
+    }
+
+    @Override public String toString() {
+        return vertices.values().stream()
+                .filter(vertex -> vertex.getTargets().size() > 0)
+                .map(vertex -> vertex.getLabel().toString() + " -> " + vertex.getTargets())
+                .collect(Collectors.joining("\n"));
+    }
+
+}
@@ -0,0 +1,534 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * An immutable Graph of strings read straight from a memory-mapped file.
+ *
+ * <p>write() saves a graph in a binary format, and open() maps such a file
+ * and checks it without decoding it, so a large prebuilt graph opens in the
+ * time it takes to checksum the file. sources() and targets() return views
+ * that read one adjacency row straight from the mapped bytes; each view is
+ * made on first use and then shared, as are decoded labels. Rows are sorted
+ * by neighbor id, so get() on a view is a binary search and size() is O(1).
+ * sourceRow() and targetRow() return the same views, read by position.
+ *
+ * <p>The file holds a fixed-size header, then these sections, then a CRC32
+ * of every byte before it:
+ * <pre>
+ *   labels   int[n+1] offsets into the label bytes, then every label in UTF-8
+ *   out      int[n+1] offsets into the out rows, counted in edges, then
+ *            for each vertex an int (neighbor id, weight) pair per edge,
+ *            with neighbor ids ascending
+ *   in       the same for in-edges
+ *   index    an open-addressing table of vertex id + 1 (0 for empty) whose
+ *            size is a power of two, probed linearly from the hash of the
+ *            label
+ * </pre>
+ * <p>The header holds a magic number, the format version, the vertex and edge
+ * counts, and the position of every section. All ints are big-endian.
+ *
+ * <p>Files are limited to 2GB. The mapping is released only when this graph
+ * is garbage-collected.
+ */
+public final class MappedGraph implements ImmutableGraph<String> {
+
+    /* "GRPH" */
+    private static final int MAGIC = 0x47525048;
+    private static final int FORMAT_VERSION = 2;
+    private static final int SECTIONS = 7;
+    private static final int HEADER_SIZE = 4 * 4 + SECTIONS * 4;
+
+    private final ByteBuffer buffer;
+    private final int vertexCount;
+    private final int edgeCount;
+    private final int labelOffsets;
+    private final int labelBytes;
+    private final int outOffsets;
+    private final int outRows;
+    private final int inOffsets;
+    private final int inRows;
+    private final int index;
+    private final int indexMask;
+    private final String[] labels;
+    private final Set<String> vertices = new VertexView();
+    private final AtomicReferenceArray<RowView> sourceViews;
+    private final AtomicReferenceArray<RowView> targetViews;
+    private final RowView emptyRow = new RowView(0, 0, 0);
+
+    // Abstraction function:
+    //   represents the graph with vertices label(0 .. vertexCount) and an
+    //   edge label(v) -> label(u) of weight w for every pair (u, w) in out
+    //   row v of buffer
+    // Representation invariant:
+    //   buffer holds a file written by write() whose checksum matched, with
+    //     the section positions and counts in the other int fields
+    //   indexMask + 1 is the number of index slots, a power of two
+    //   labels has length vertexCount, and labels[v] is null or label(v)
+    //   sourceViews and targetViews have length vertexCount, and hold null
+    //     or the view of in-row or out-row v
+    //   emptyRow has no edges
+    // Safety from rep exposure:
+    //   all fields are private; buffer is only read with absolute gets and
+    //   never returned; every returned view is read-only
+    // Thread safety argument:
+    //   buffer is only read with absolute gets, which do not change it
+    //   labels is written racily, but only with the immutable String that
+    //     decoding label v always produces, so any thread that sees a
+    //     cached label sees a complete, correct one
+    //   a view is only set in sourceViews or targetViews by compareAndSet
+    //     from null, so every caller gets the same view of a row
+
+    private MappedGraph(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.limit() < HEADER_SIZE + 8 || buffer.getInt(0) != MAGIC) {
+            throw new IOException("not a graph file");
+        }
+        if (buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("unsupported graph file version " + buffer.getInt(4));
+        }
+        final int checksum = buffer.limit() - 8;
+        final CRC32 crc = new CRC32();
+        final ByteBuffer checked = buffer.duplicate();
+        checked.limit(checksum);
+        crc.update(checked);
+        if (crc.getValue() != buffer.getLong(checksum)) {
+            throw new IOException("corrupt graph file: checksum mismatch");
+        }
+        this.vertexCount = buffer.getInt(8);
+        this.edgeCount = buffer.getInt(12);
+        this.labelOffsets = buffer.getInt(16);
+        this.labelBytes = buffer.getInt(20);
+        this.outOffsets = buffer.getInt(24);
+        this.outRows = buffer.getInt(28);
+        this.inOffsets = buffer.getInt(32);
+        this.inRows = buffer.getInt(36);
+        this.index = buffer.getInt(40);
+        this.indexMask = (checksum - index) / 4 - 1;
+        this.labels = new String[vertexCount];
+        this.sourceViews = new AtomicReferenceArray<>(vertexCount);
+        this.targetViews = new AtomicReferenceArray<>(vertexCount);
+        checkRep();
+    }
+
+    private void checkRep() {
+        assert vertexCount >= 0 && edgeCount >= 0;
+        assert HEADER_SIZE <= labelOffsets && labelOffsets <= labelBytes && labelBytes <= outOffsets
+                && outOffsets <= outRows && outRows <= inOffsets && inOffsets <= inRows
+                && inRows <= index && index <= buffer.limit() - 8;
+        assert ((indexMask + 1) & indexMask) == 0;
+        assert labels.length == vertexCount;
+        assert sourceViews.length() == vertexCount && targetViews.length() == vertexCount;
+    }
+
+    /**
+     * Map a graph file written by write().
+     *
+     * @param file the file to map
+     * @return an immutable graph with the vertices and edges stored in file
+     * @throws IOException if the file cannot be read, is not a graph file,
+     *         or fails its checksum
+     */
+    public static MappedGraph open(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("graph file larger than 2GB");
+            }
+            return new MappedGraph(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Save a graph in the format open() reads.
+     *
+     * <p>The graph is written to a temporary file in the same directory, which
+     * then atomically replaces file, so graphs already mapped from file keep
+     * reading the old contents, and a failed write leaves file unchanged.
+     *
+     * @param graph the graph to save; not modified
+     * @param file the file to write, replaced if it exists
+     * @throws IOException if the file cannot be written, or would be larger
+     *         than 2GB
+     */
+    public static void write(Graph<String> graph, File file) throws IOException {
+        final String[] labels = graph.vertices().toArray(new String[0]);
+        final Map<String, Integer> ids = new HashMap<>();
+        for (int v = 0; v < labels.length; v++) {
+            ids.put(labels[v], v);
+        }
+
+        final ByteArrayOutputStream labelBytes = new ByteArrayOutputStream();
+        final int[] labelOffsets = new int[labels.length + 1];
+        for (int v = 0; v < labels.length; v++) {
+            final byte[] utf8 = labels[v].getBytes(StandardCharsets.UTF_8);
+            labelBytes.write(utf8, 0, utf8.length);
+            labelOffsets[v + 1] = labelBytes.size();
+        }
+        final int[] outOffsets = new int[labels.length + 1];
+        final ByteArrayOutputStream outRows = new ByteArrayOutputStream();
+        final int[] inOffsets = new int[labels.length + 1];
+        final ByteArrayOutputStream inRows = new ByteArrayOutputStream();
+        int edgeCount = 0;
+        for (int v = 0; v < labels.length; v++) {
+            edgeCount += writeRow(graph.targets(labels[v]), ids, outRows);
+            outOffsets[v + 1] = edgeCount;
+            inOffsets[v + 1] = inOffsets[v] + writeRow(graph.sources(labels[v]), ids, inRows);
+        }
+        final int[] table = new int[tableSize(labels.length)];
+        for (int v = 0; v < labels.length; v++) {
+            int slot = hash(labels[v]) & (table.length - 1);
+            while (table[slot] != 0) {
+                slot = (slot + 1) & (table.length - 1);
+            }
+            table[slot] = v + 1;
+        }
+
+        final int[] sections = new int[SECTIONS];
+        long position = HEADER_SIZE;
+        final long[] lengths = {
+            4L * labelOffsets.length, labelBytes.size(), 4L * outOffsets.length, outRows.size(),
+            4L * inOffsets.length, inRows.size(), 4L * table.length,
+        };
+        for (int i = 0; i < SECTIONS; i++) {
+            sections[i] = (int) position;
+            position += lengths[i];
+        }
+        if (position + 8 > Integer.MAX_VALUE) {
+            throw new IOException("graph file would be larger than 2GB");
+        }
+
+        final Path target = file.toPath().toAbsolutePath();
+        final Path temporary = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            final CRC32 crc = new CRC32();
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new CheckedOutputStream(Files.newOutputStream(temporary), crc)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(labels.length);
+                out.writeInt(edgeCount);
+                writeInts(sections, out);
+                writeInts(labelOffsets, out);
+                labelBytes.writeTo(out);
+                writeInts(outOffsets, out);
+                outRows.writeTo(out);
+                writeInts(inOffsets, out);
+                inRows.writeTo(out);
+                writeInts(table, out);
+                // the checksum covers only what has reached the CheckedOutputStream
+                out.flush();
+                out.writeLong(crc.getValue());
+            }
+            // renamed over file rather than written into it, since truncating
+            // a mapped file makes its readers fault
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /* write one adjacency row; returns its degree */
+    private static int writeRow(Map<String, Integer> row, Map<String, Integer> ids,
+            ByteArrayOutputStream out) {
+        final long[] edges = new long[row.size()];
+        int i = 0;
+        for (Map.Entry<String, Integer> edge : row.entrySet()) {
+            edges[i++] = ((long) ids.get(edge.getKey()) << 32) | edge.getValue();
+        }
+        Arrays.sort(edges);
+        for (long edge : edges) {
+            writeInt((int) (edge >>> 32), out);
+            writeInt((int) edge, out);
+        }
+        return edges.length;
+    }
+
+    private static void writeInt(int value, ByteArrayOutputStream out) {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    private static void writeInts(int[] values, DataOutputStream out) throws IOException {
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    /* index size: a power of two at least twice the number of vertices */
+    private static int tableSize(int vertexCount) {
+        return Integer.highestOneBit(Math.max(1, vertexCount) * 2 - 1) << 1;
+    }
+
+    private static int hash(String label) {
+        final int h = label.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /* label of vertex id, decoded on first use */
+    private String label(int id) {
+        String label = labels[id];
+        if (label == null) {
+            final int from = buffer.getInt(labelOffsets + 4 * id);
+            final int to = buffer.getInt(labelOffsets + 4 * id + 4);
+            final byte[] utf8 = new byte[to - from];
+            final ByteBuffer bytes = buffer.duplicate();
+            bytes.position(labelBytes + from);
+            bytes.get(utf8);
+            label = new String(utf8, StandardCharsets.UTF_8);
+            labels[id] = label;
+        }
+        return label;
+    }
+
+    /* id of label, or -1 if label is not a vertex */
+    private int id(Object label) {
+        if (!(label instanceof String)) {
+            return -1;
+        }
+        for (int slot = hash((String) label) & indexMask; ; slot = (slot + 1) & indexMask) {
+            final int id = buffer.getInt(index + 4 * slot) - 1;
+            if (id < 0 || label(id).equals(label)) {
+                return id;
+            }
+        }
+    }
+
+    /** @throws UnsupportedOperationException always; this graph is immutable */
+    @Override public boolean add(String vertex) {
+        throw new UnsupportedOperationException("MappedGraph is immutable");
+    }
+
+    /** @throws UnsupportedOperationException always; this graph is immutable */
+    @Override public int set(String source, String target, int weight) {
+        throw new UnsupportedOperationException("MappedGraph is immutable");
+    }
+
+    /** @throws UnsupportedOperationException always; this graph is immutable */
+    @Override public boolean remove(String vertex) {
+        throw new UnsupportedOperationException("MappedGraph is immutable");
+    }
+
+    /** Returns a shared read-only view of this graph's vertices */
+    @Override public Set<String> vertices() {
+        return vertices;
+    }
+
+    /** Returns a shared read-only view of a target's sources */
+    @Override public Map<String, Integer> sources(String target) {
+        final int v = id(target);
+        return v < 0 ? Collections.<String, Integer>emptyMap() : view(sourceViews, inOffsets, inRows, v);
+    }
+
+    /** Returns a shared read-only view of a source's targets */
+    @Override public Map<String, Integer> targets(String source) {
+        final int v = id(source);
+        return v < 0 ? Collections.<String, Integer>emptyMap() : view(targetViews, outOffsets, outRows, v);
+    }
+
+    /** Returns a shared row that reads a target's in-row from the mapped bytes */
+    @Override public Row<String> sourceRow(String target) {
+        final int v = id(target);
+        return v < 0 ? emptyRow : view(sourceViews, inOffsets, inRows, v);
+    }
+
+    /** Returns a shared row that reads a source's out-row from the mapped bytes */
+    @Override public Row<String> targetRow(String source) {
+        final int v = id(source);
+        return v < 0 ? emptyRow : view(targetViews, outOffsets, outRows, v);
+    }
+
+    /* the view of row v of the section at rows with offsets at offsets, made on first use */
+    private RowView view(AtomicReferenceArray<RowView> views, int offsets, int rows, int v) {
+        final RowView view = views.get(v);
+        if (view != null) {
+            return view;
+        }
+        views.compareAndSet(v, null, new RowView(rows,
+                buffer.getInt(offsets + 4 * v), buffer.getInt(offsets + 4 * v + 4)));
+        return views.get(v);
+    }
+
+    /** Returns the number of edges in this graph, in O(1) */
+    @Override public int edgeCount() {
+        return edgeCount;
+    }
+
+    @Override public String toString() {
+        if (edgeCount == 0) {
+            return "Empty Graph";
+        }
+        final StringBuilder string = new StringBuilder();
+        for (int v = 0; v < vertexCount; v++) {
+            for (Map.Entry<String, Integer> edge : targets(label(v)).entrySet()) {
+                if (string.length() > 0) {
+                    string.append('\n');
+                }
+                string.append(label(v)).append(" -> ")
+                      .append(edge.getKey()).append(": ").append(edge.getValue());
+            }
+        }
+        return string.toString();
+    }
+
+    /* Read-only Set view of the vertices */
+    private final class VertexView extends AbstractSet<String> {
+
+        @Override public int size() {
+            return vertexCount;
+        }
+
+        @Override public boolean contains(Object label) {
+            return id(label) >= 0;
+        }
+
+        @Override public Iterator<String> iterator() {
+            return new Iterator<String>() {
+                private int next = 0;
+
+                @Override public boolean hasNext() {
+                    return next < vertexCount;
+                }
+
+                @Override public String next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return label(next++);
+                }
+            };
+        }
+    }
+
+    /* Read-only Map view and Row of the edges from .. to of the row section at rows */
+    private final class RowView extends AbstractMap<String, Integer> implements Row<String> {
+
+        private final int rows;
+        private final int from;
+        private final int to;
+        private final Set<Map.Entry<String, Integer>> entries = new EntryView();
+
+        RowView(int rows, int from, int to) {
+            this.rows = rows;
+            this.from = from;
+            this.to = to;
+        }
+
+        /* neighbor id of edge i of the section, for from <= i < to */
+        private int neighborId(int i) {
+            return buffer.getInt(rows + 8 * i);
+        }
+
+        /* weight of edge i of the section, for from <= i < to */
+        private int weightAt(int i) {
+            return buffer.getInt(rows + 8 * i + 4);
+        }
+
+        /* index of the edge to label in this row, or -1 */
+        private int indexOf(Object label) {
+            final int target = id(label);
+            if (target < 0) {
+                return -1;
+            }
+            int low = from;
+            int high = to - 1;
+            while (low <= high) {
+                final int middle = (low + high) >>> 1;
+                final int neighbor = neighborId(middle);
+                if (neighbor < target) {
+                    low = middle + 1;
+                } else if (neighbor > target) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -1;
+        }
+
+        @Override public int size() {
+            return to - from;
+        }
+
+        @Override public boolean containsKey(Object label) {
+            return indexOf(label) >= 0;
+        }
+
+        @Override public Integer get(Object label) {
+            final int i = indexOf(label);
+            return i < 0 ? null : weightAt(i);
+        }
+
+        @Override public String neighbor(int i) {
+            return label(neighborId(from + i));
+        }
+
+        @Override public int weight(int i) {
+            return weightAt(from + i);
+        }
+
+        @Override public int weightOf(String label) {
+            final int i = indexOf(label);
+            return i < 0 ? 0 : weightAt(i);
+        }
+
+        @Override public Set<Map.Entry<String, Integer>> entrySet() {
+            return entries;
+        }
+
+        private final class EntryView extends AbstractSet<Map.Entry<String, Integer>> {
+
+            @Override public int size() {
+                return to - from;
+            }
+
+            @Override public Iterator<Map.Entry<String, Integer>> iterator() {
+                return new Iterator<Map.Entry<String, Integer>>() {
+                    private int next = from;
+
+                    @Override public boolean hasNext() {
+                        return next < to;
+                    }
+
+                    @Override public Map.Entry<String, Integer> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        final Map.Entry<String, Integer> entry = new AbstractMap.SimpleImmutableEntry<>(
+                                label(neighborId(next)), weightAt(next));
+                        next++;
+                        return entry;
+                    }
+                };
+            }
+        }
+    }
+
+}
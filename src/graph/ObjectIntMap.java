@@ -0,0 +1,287 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * A mutable map from non-null keys to primitive int values, using open
+ * addressing with linear probing so that no value is ever boxed.
+ *
+ * <p>Absent keys read as 0; since graph weights are positive, 0 is never a
+ * stored weight. asMap() gives a read-only {@code Map<K, Integer>} view for
+ * callers that need the collections API; values are only boxed when read
+ * through that view.
+ *
+ * @param <K> type of keys, must be immutable
+ */
+final class ObjectIntMap<K> {
+
+    private static final Object[] NO_KEYS = {};
+    private static final int[] NO_VALUES = {};
+    private static final int MIN_CAPACITY = 4;
+
+    private Object[] keys = NO_KEYS;
+    private int[] values = NO_VALUES;
+    private int size = 0;
+    private Map<K, Integer> view = null;
+
+    // Abstraction function:
+    //   represents the mapping keys[i] -> values[i] for every i with
+    //   keys[i] != null
+    // Representation invariant:
+    //   keys.length == values.length, and is 0 or a power of two >= MIN_CAPACITY
+    //   size is the number of non-null keys, and size < keys.length when
+    //     keys.length > 0
+    //   every key is reachable by linear probing from its home slot without
+    //     crossing a null slot, and no key appears twice
+    // Safety from rep exposure:
+    //   the arrays never leave this class; view is read-only
+
+    /** Create an empty map. */
+    public ObjectIntMap() {
+    }
+
+    /** Create an empty map sized to hold expectedSize keys without resizing. */
+    public ObjectIntMap(int expectedSize) {
+        assert expectedSize >= 0;
+        if (expectedSize > 0) {
+            allocate(capacityFor(expectedSize));
+        }
+    }
+
+    private void checkRep() {
+        assert keys.length == values.length;
+        assert keys.length == 0 || Integer.bitCount(keys.length) == 1;
+        assert keys.length == 0 || size < keys.length;
+    }
+
+    /* smallest power-of-two capacity holding n keys under a 3/4 load factor */
+    private static int capacityFor(int n) {
+        final int needed = Math.max(MIN_CAPACITY, (int) Math.min(1 << 30, (long) n * 4 / 3 + 1));
+        return Integer.highestOneBit(needed - 1) << 1;
+    }
+
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        values = new int[capacity];
+    }
+
+    /* home slot of key in a table of the current capacity */
+    private int home(Object key) {
+        final int h = key.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (keys.length - 1);
+    }
+
+    /* slot holding key, or -1 if absent */
+    private int indexOf(Object key) {
+        if (key == null || size == 0) {
+            return -1;
+        }
+        final int mask = keys.length - 1;
+        for (int i = home(key); keys[i] != null; i = (i + 1) & mask) {
+            if (keys[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void grow() {
+        final Object[] oldKeys = keys;
+        final int[] oldValues = values;
+        allocate(oldKeys.length == 0 ? MIN_CAPACITY : oldKeys.length * 2);
+        final int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != null) {
+                int i = home(oldKeys[j]);
+                while (keys[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    /** Returns the number of keys in this map */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    /** Returns the value for key, or 0 if key is absent */
+    public int get(Object key) {
+        final int i = indexOf(key);
+        return i < 0 ? 0 : values[i];
+    }
+
+    /**
+     * Associate key with value.
+     *
+     * @return the previous value for key, or 0 if key was absent
+     */
+    public int put(K key, int value) {
+        assert key != null;
+        if ((size + 1) * 4L > keys.length * 3L) {
+            grow();
+        }
+        final int mask = keys.length - 1;
+        int i = home(key);
+        while (keys[i] != null) {
+            if (keys[i].equals(key)) {
+                final int previous = values[i];
+                values[i] = value;
+                return previous;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        size++;
+        checkRep();
+        return 0;
+    }
+
+    /**
+     * Add delta to the value for key, treating an absent key as 0.
+     *
+     * @return the previous value for key, or 0 if key was absent
+     */
+    public int addTo(K key, int delta) {
+        final int i = indexOf(key);
+        if (i < 0) {
+            put(key, delta);
+            return 0;
+        }
+        final int previous = values[i];
+        values[i] = previous + delta;
+        return previous;
+    }
+
+    /**
+     * Remove key from this map.
+     *
+     * @return the previous value for key, or 0 if key was absent
+     */
+    public int remove(Object key) {
+        int i = indexOf(key);
+        if (i < 0) {
+            return 0;
+        }
+        final int previous = values[i];
+        final int mask = keys.length - 1;
+        keys[i] = null;
+        size--;
+        // shift later members of the probe run back so lookups never stop
+        // early at the hole just made
+        for (int j = (i + 1) & mask; keys[j] != null; j = (j + 1) & mask) {
+            final int h = home(keys[j]);
+            final boolean homeInHole = i <= j ? (h <= i || h > j) : (h <= i && h > j);
+            if (homeInHole) {
+                keys[i] = keys[j];
+                values[i] = values[j];
+                keys[j] = null;
+                i = j;
+            }
+        }
+        checkRep();
+        return previous;
+    }
+
+    /** Call action on every key and value, without boxing */
+    @SuppressWarnings("unchecked")
+    public void forEach(ObjIntConsumer<? super K> action) {
+        final Object[] keys = this.keys;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                action.accept((K) keys[i], values[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns a read-only live view of this map. The view is created on the
+     * first call and shared afterwards.
+     */
+    public Map<K, Integer> asMap() {
+        if (view == null) {
+            view = new MapView();
+        }
+        return view;
+    }
+
+    @Override public String toString() {
+        return asMap().toString();
+    }
+
+    /* Read-only Map view backed by the enclosing map's arrays */
+    private final class MapView extends AbstractMap<K, Integer> {
+
+        private final Set<Map.Entry<K, Integer>> entries = new AbstractSet<Map.Entry<K, Integer>>() {
+            @Override public int size() {
+                return size;
+            }
+
+            @Override public Iterator<Map.Entry<K, Integer>> iterator() {
+                return new Iterator<Map.Entry<K, Integer>>() {
+                    private int next = advance(0);
+
+                    private int advance(int from) {
+                        while (from < keys.length && keys[from] == null) {
+                            from++;
+                        }
+                        return from;
+                    }
+
+                    @Override public boolean hasNext() {
+                        return next < keys.length;
+                    }
+
+                    @SuppressWarnings("unchecked")
+                    @Override public Map.Entry<K, Integer> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        final Map.Entry<K, Integer> entry =
+                                new AbstractMap.SimpleImmutableEntry<>((K) keys[next], values[next]);
+                        next = advance(next + 1);
+                        return entry;
+                    }
+                };
+            }
+        };
+
+        @Override public Set<Map.Entry<K, Integer>> entrySet() {
+            return entries;
+        }
+
+        @Override public int size() {
+            return size;
+        }
+
+        @Override public boolean containsKey(Object key) {
+            return indexOf(key) >= 0;
+        }
+
+        @Override public Integer get(Object key) {
+            final int i = indexOf(key);
+            return i < 0 ? null : values[i];
+        }
+    }
+
+}
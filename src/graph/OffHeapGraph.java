@@ -0,0 +1,684 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An implementation of Graph whose vertices, edges and label bytes live in
+ * direct (off-heap) ByteBuffers, so that a graph of hundreds of millions of
+ * edges adds only a handful of objects for the garbage collector to trace.
+ *
+ * <p>Each vertex is a fixed-size record holding its label's position in a
+ * byte arena and the heads of doubly linked lists of its out- and in-edges;
+ * each edge is a fixed-size record on both lists. An off-heap hash table
+ * finds the edge between two vertices, and the only per-vertex on-heap
+ * structure is an int[] hash index from label to vertex. set(), increment()
+ * and the label lookups are expected O(1) and remove() is O(in-degree +
+ * out-degree).
+ *
+ * <p>vertices(), sources() and targets() return read-only views. A sources()
+ * or targets() view walks its vertex's edge list on each use, decoding only
+ * the labels it returns, and get() is one probe of the edge index; the view
+ * is empty once its vertex is removed. The bytes of a removed vertex's label
+ * are not reclaimed, and the off-heap memory is released only when this
+ * graph is garbage-collected.
+ */
+public class OffHeapGraph implements IncrementableGraph<String> {
+
+    /* vertex record fields, in ints */
+    private static final int V_LABEL_HIGH = 0;
+    private static final int V_LABEL_LOW = 1;
+    private static final int V_LABEL_LENGTH = 2;
+    private static final int V_HASH = 3;
+    private static final int V_FIRST_OUT = 4;
+    private static final int V_FIRST_IN = 5;
+    private static final int V_OUT_DEGREE = 6;
+    private static final int V_IN_DEGREE = 7;
+    private static final int VERTEX_INTS = 8;
+
+    /* edge record fields, in ints */
+    private static final int E_SOURCE = 0;
+    private static final int E_TARGET = 1;
+    private static final int E_WEIGHT = 2;
+    private static final int E_PREV_OUT = 3;
+    private static final int E_NEXT_OUT = 4;
+    private static final int E_PREV_IN = 5;
+    private static final int E_NEXT_IN = 6;
+    private static final int EDGE_INTS = 7;
+
+    /* end of a list, or no free record */
+    private static final int NONE = -1;
+
+    private final Region vertexRecords = new Region();
+    private final Region edgeRecords = new Region();
+    private final Region labelBytes = new Region();
+    private Region edgeIndex = new Region();
+    private int edgeIndexMask;
+    private int[] labelIndex = new int[16];
+    private long labelEnd = 0;
+    private int vertexEnd = 0;
+    private int vertexCount = 0;
+    private int freeVertex = NONE;
+    private int edgeEnd = 0;
+    private int edgeCount = 0;
+    private int freeEdge = NONE;
+    private long removals = 0;
+    private final Set<String> vertices = new VertexView();
+
+    // Abstraction function:
+    //   represents the graph whose vertices are the labels of the live
+    //   vertex records v < vertexEnd, and whose edges are the live edge
+    //   records e < edgeEnd, labels(source(e)) -> labels(target(e)) of
+    //   weight(e)
+    // Representation invariant:
+    //   a vertex record is live iff its label length is >= 0; a dead one is
+    //     on the free list through V_FIRST_OUT, starting at freeVertex
+    //   an edge record is live iff its weight is > 0; a dead one is on the
+    //     free list through E_NEXT_OUT, starting at freeEdge
+    //   vertexCount and edgeCount count the live records
+    //   no two live vertices have the same label; V_HASH is the hash of it
+    //   every live edge joins two live vertices, is on exactly its source's
+    //     out-list and its target's in-list, and no two live edges join the
+    //     same source and target
+    //   V_OUT_DEGREE and V_IN_DEGREE are the lengths of a vertex's lists
+    //   labelIndex and edgeIndex are linear-probing tables, of size a power
+    //     of two and at most 3/4 full, holding id + 1 (0 for empty) of every
+    //     live vertex and edge respectively
+    //   removals counts the vertices ever removed, so it changes before any
+    //     vertex id is reused
+    // Safety from rep exposure:
+    //   all fields are private; no region or array is returned; vertices(),
+    //   sources() and targets() return read-only views
+
+    /** Create an empty graph. */
+    public OffHeapGraph() {
+        edgeIndex.ensure(4L * 16);
+        edgeIndexMask = 15;
+    }
+
+    private void checkRep() {
+        assert 0 <= vertexCount && vertexCount <= vertexEnd;
+        assert 0 <= edgeCount && edgeCount <= edgeEnd;
+        assert (long) vertexCount * 4 <= (long) labelIndex.length * 3;
+        assert (long) edgeCount * 4 <= (edgeIndexMask + 1L) * 3;
+    }
+
+    /* field of a vertex or edge record */
+    private int vertex(int v, int field) {
+        return vertexRecords.getInt(4L * ((long) v * VERTEX_INTS + field));
+    }
+
+    private void setVertex(int v, int field, int value) {
+        vertexRecords.putInt(4L * ((long) v * VERTEX_INTS + field), value);
+    }
+
+    private int edge(int e, int field) {
+        return edgeRecords.getInt(4L * ((long) e * EDGE_INTS + field));
+    }
+
+    private void setEdge(int e, int field, int value) {
+        edgeRecords.putInt(4L * ((long) e * EDGE_INTS + field), value);
+    }
+
+    private static int hash(String label) {
+        final int h = label.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int hash(int source, int target) {
+        final long h = (((long) source << 32) | (target & 0xFFFFFFFFL)) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /* label of live vertex v */
+    private String label(int v) {
+        final long offset = ((long) vertex(v, V_LABEL_HIGH) << 32) | (vertex(v, V_LABEL_LOW) & 0xFFFFFFFFL);
+        final byte[] utf8 = new byte[vertex(v, V_LABEL_LENGTH)];
+        for (int i = 0; i < utf8.length; i++) {
+            utf8[i] = labelBytes.getByte(offset + i);
+        }
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    private boolean hasLabel(int v, int hash, byte[] utf8) {
+        if (vertex(v, V_HASH) != hash || vertex(v, V_LABEL_LENGTH) != utf8.length) {
+            return false;
+        }
+        final long offset = ((long) vertex(v, V_LABEL_HIGH) << 32) | (vertex(v, V_LABEL_LOW) & 0xFFFFFFFFL);
+        for (int i = 0; i < utf8.length; i++) {
+            if (labelBytes.getByte(offset + i) != utf8[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /* id of the vertex labelled label, or -1 */
+    private int id(Object label) {
+        if (!(label instanceof String)) {
+            return -1;
+        }
+        final int hash = hash((String) label);
+        final byte[] utf8 = ((String) label).getBytes(StandardCharsets.UTF_8);
+        final int mask = labelIndex.length - 1;
+        for (int slot = hash & mask; labelIndex[slot] != 0; slot = (slot + 1) & mask) {
+            final int v = labelIndex[slot] - 1;
+            if (hasLabel(v, hash, utf8)) {
+                return v;
+            }
+        }
+        return -1;
+    }
+
+    /* id of the edge source -> target, or -1 */
+    private int edgeId(int source, int target) {
+        for (int slot = hash(source, target) & edgeIndexMask; ; slot = (slot + 1) & edgeIndexMask) {
+            final int e = edgeIndex.getInt(4L * slot) - 1;
+            if (e < 0 || (edge(e, E_SOURCE) == source && edge(e, E_TARGET) == target)) {
+                return e;
+            }
+        }
+    }
+
+    @Override public boolean add(String vertex) {
+        if (id(vertex) >= 0) {
+            return false;
+        }
+        insertVertex(vertex);
+        checkRep();
+        return true;
+    }
+
+    /* add a vertex known to be absent; returns its id */
+    private int insertVertex(String label) {
+        final int v;
+        if (freeVertex != NONE) {
+            v = freeVertex;
+            freeVertex = vertex(v, V_FIRST_OUT);
+        } else {
+            v = vertexEnd++;
+            vertexRecords.ensure(4L * vertexEnd * VERTEX_INTS);
+        }
+        final byte[] utf8 = label.getBytes(StandardCharsets.UTF_8);
+        labelBytes.ensure(labelEnd + utf8.length);
+        for (int i = 0; i < utf8.length; i++) {
+            labelBytes.putByte(labelEnd + i, utf8[i]);
+        }
+        setVertex(v, V_LABEL_HIGH, (int) (labelEnd >>> 32));
+        setVertex(v, V_LABEL_LOW, (int) labelEnd);
+        setVertex(v, V_LABEL_LENGTH, utf8.length);
+        setVertex(v, V_HASH, hash(label));
+        setVertex(v, V_FIRST_OUT, NONE);
+        setVertex(v, V_FIRST_IN, NONE);
+        setVertex(v, V_OUT_DEGREE, 0);
+        setVertex(v, V_IN_DEGREE, 0);
+        labelEnd += utf8.length;
+
+        vertexCount++;
+        if ((long) vertexCount * 4 > (long) labelIndex.length * 3) {
+            final int[] old = labelIndex;
+            labelIndex = new int[old.length * 2];
+            for (int slot : old) {
+                if (slot != 0) {
+                    indexVertex(slot - 1);
+                }
+            }
+        }
+        indexVertex(v);
+        return v;
+    }
+
+    private void indexVertex(int v) {
+        final int mask = labelIndex.length - 1;
+        int slot = vertex(v, V_HASH) & mask;
+        while (labelIndex[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        labelIndex[slot] = v + 1;
+    }
+
+    /* backward-shift deletion of vertex v from labelIndex */
+    private void unindexVertex(int v) {
+        final int mask = labelIndex.length - 1;
+        int hole = vertex(v, V_HASH) & mask;
+        while (labelIndex[hole] != v + 1) {
+            hole = (hole + 1) & mask;
+        }
+        for (int slot = (hole + 1) & mask; labelIndex[slot] != 0; slot = (slot + 1) & mask) {
+            final int home = vertex(labelIndex[slot] - 1, V_HASH) & mask;
+            // move the entry back if the hole lies cyclically in [home, slot)
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                labelIndex[hole] = labelIndex[slot];
+                hole = slot;
+            }
+        }
+        labelIndex[hole] = 0;
+    }
+
+    private void indexEdge(int e) {
+        int slot = hash(edge(e, E_SOURCE), edge(e, E_TARGET)) & edgeIndexMask;
+        while (edgeIndex.getInt(4L * slot) != 0) {
+            slot = (slot + 1) & edgeIndexMask;
+        }
+        edgeIndex.putInt(4L * slot, e + 1);
+    }
+
+    /* backward-shift deletion of edge e from edgeIndex */
+    private void unindexEdge(int e) {
+        int hole = hash(edge(e, E_SOURCE), edge(e, E_TARGET)) & edgeIndexMask;
+        while (edgeIndex.getInt(4L * hole) != e + 1) {
+            hole = (hole + 1) & edgeIndexMask;
+        }
+        for (int slot = (hole + 1) & edgeIndexMask; ; slot = (slot + 1) & edgeIndexMask) {
+            final int entry = edgeIndex.getInt(4L * slot);
+            if (entry == 0) {
+                break;
+            }
+            final int home = hash(edge(entry - 1, E_SOURCE), edge(entry - 1, E_TARGET)) & edgeIndexMask;
+            if (((slot - home) & edgeIndexMask) >= ((slot - hole) & edgeIndexMask)) {
+                edgeIndex.putInt(4L * hole, entry);
+                hole = slot;
+            }
+        }
+        edgeIndex.putInt(4L * hole, 0);
+    }
+
+    @Override public int set(String source, String target, int weight) {
+        assert weight >= 0;
+        int s = id(source);
+        int t = id(target);
+        final int e = s < 0 || t < 0 ? -1 : edgeId(s, t);
+        if (e >= 0) {
+            final int previous = edge(e, E_WEIGHT);
+            if (weight > 0) {
+                setEdge(e, E_WEIGHT, weight);
+            } else {
+                deleteEdge(e);
+            }
+            checkRep();
+            return previous;
+        }
+        if (weight > 0) {
+            insertEdge(source, s, target, t, weight);
+            checkRep();
+        }
+        return 0;
+    }
+
+    @Override public int increment(String source, String target, int delta) {
+        final int s = id(source);
+        final int t = id(target);
+        final int e = s < 0 || t < 0 ? -1 : edgeId(s, t);
+        if (e >= 0) {
+            final int previous = edge(e, E_WEIGHT);
+            assert previous + delta >= 0;
+            if (previous + delta > 0) {
+                setEdge(e, E_WEIGHT, previous + delta);
+            } else {
+                deleteEdge(e);
+            }
+            checkRep();
+            return previous;
+        }
+        assert delta >= 0;
+        if (delta > 0) {
+            insertEdge(source, s, target, t, delta);
+            checkRep();
+        }
+        return 0;
+    }
+
+    /* add an edge known to be absent, and whichever of its vertices are absent (id -1) */
+    private void insertEdge(String source, int s, String target, int t, int weight) {
+        if (s < 0) {
+            s = insertVertex(source);
+        }
+        if (t < 0) {
+            t = source.equals(target) ? s : insertVertex(target);
+        }
+        insertEdge(s, t, weight);
+    }
+
+    private void insertEdge(int s, int t, int weight) {
+        final int e;
+        if (freeEdge != NONE) {
+            e = freeEdge;
+            freeEdge = edge(e, E_NEXT_OUT);
+        } else {
+            e = edgeEnd++;
+            edgeRecords.ensure(4L * edgeEnd * EDGE_INTS);
+        }
+        final int nextOut = vertex(s, V_FIRST_OUT);
+        final int nextIn = vertex(t, V_FIRST_IN);
+        setEdge(e, E_SOURCE, s);
+        setEdge(e, E_TARGET, t);
+        setEdge(e, E_WEIGHT, weight);
+        setEdge(e, E_PREV_OUT, NONE);
+        setEdge(e, E_NEXT_OUT, nextOut);
+        setEdge(e, E_PREV_IN, NONE);
+        setEdge(e, E_NEXT_IN, nextIn);
+        if (nextOut != NONE) {
+            setEdge(nextOut, E_PREV_OUT, e);
+        }
+        if (nextIn != NONE) {
+            setEdge(nextIn, E_PREV_IN, e);
+        }
+        setVertex(s, V_FIRST_OUT, e);
+        setVertex(t, V_FIRST_IN, e);
+        setVertex(s, V_OUT_DEGREE, vertex(s, V_OUT_DEGREE) + 1);
+        setVertex(t, V_IN_DEGREE, vertex(t, V_IN_DEGREE) + 1);
+
+        edgeCount++;
+        if ((long) edgeCount * 4 > (edgeIndexMask + 1L) * 3) {
+            final Region old = edgeIndex;
+            final int oldSlots = edgeIndexMask + 1;
+            edgeIndex = new Region();
+            edgeIndex.ensure(4L * oldSlots * 2);
+            edgeIndexMask = oldSlots * 2 - 1;
+            for (int slot = 0; slot < oldSlots; slot++) {
+                final int entry = old.getInt(4L * slot);
+                if (entry != 0) {
+                    indexEdge(entry - 1);
+                }
+            }
+        }
+        indexEdge(e);
+    }
+
+    /* unlink live edge e from both lists and the index, and free it */
+    private void deleteEdge(int e) {
+        final int s = edge(e, E_SOURCE);
+        final int t = edge(e, E_TARGET);
+        unindexEdge(e);
+
+        final int prevOut = edge(e, E_PREV_OUT);
+        final int nextOut = edge(e, E_NEXT_OUT);
+        if (prevOut == NONE) {
+            setVertex(s, V_FIRST_OUT, nextOut);
+        } else {
+            setEdge(prevOut, E_NEXT_OUT, nextOut);
+        }
+        if (nextOut != NONE) {
+            setEdge(nextOut, E_PREV_OUT, prevOut);
+        }
+        final int prevIn = edge(e, E_PREV_IN);
+        final int nextIn = edge(e, E_NEXT_IN);
+        if (prevIn == NONE) {
+            setVertex(t, V_FIRST_IN, nextIn);
+        } else {
+            setEdge(prevIn, E_NEXT_IN, nextIn);
+        }
+        if (nextIn != NONE) {
+            setEdge(nextIn, E_PREV_IN, prevIn);
+        }
+        setVertex(s, V_OUT_DEGREE, vertex(s, V_OUT_DEGREE) - 1);
+        setVertex(t, V_IN_DEGREE, vertex(t, V_IN_DEGREE) - 1);
+
+        setEdge(e, E_WEIGHT, 0);
+        setEdge(e, E_NEXT_OUT, freeEdge);
+        freeEdge = e;
+        edgeCount--;
+    }
+
+    @Override public boolean remove(String vertex) {
+        final int v = id(vertex);
+        if (v < 0) {
+            return false;
+        }
+        // a self-loop leaves both lists when it is deleted from the first
+        while (vertex(v, V_FIRST_OUT) != NONE) {
+            deleteEdge(vertex(v, V_FIRST_OUT));
+        }
+        while (vertex(v, V_FIRST_IN) != NONE) {
+            deleteEdge(vertex(v, V_FIRST_IN));
+        }
+        unindexVertex(v);
+        removals++;
+        setVertex(v, V_LABEL_LENGTH, -1);
+        setVertex(v, V_FIRST_OUT, freeVertex);
+        freeVertex = v;
+        vertexCount--;
+        checkRep();
+        return true;
+    }
+
+    /** Returns a read-only view of this graph's vertices */
+    @Override public Set<String> vertices() {
+        return vertices;
+    }
+
+    /** Returns a read-only view of a target's sources; empty once target is removed */
+    @Override public Map<String, Integer> sources(String target) {
+        final int t = id(target);
+        if (t < 0) {
+            return Collections.emptyMap();
+        }
+        return new EdgeListView(target, t, false);
+    }
+
+    /** Returns a read-only view of a source's targets; empty once source is removed */
+    @Override public Map<String, Integer> targets(String source) {
+        final int s = id(source);
+        if (s < 0) {
+            return Collections.emptyMap();
+        }
+        return new EdgeListView(source, s, true);
+    }
+
+    /** Returns the number of edges in this graph */
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    @Override public String toString() {
+        if (edgeCount == 0) {
+            return "Empty Graph";
+        }
+        final StringBuilder string = new StringBuilder();
+        for (int e = 0; e < edgeEnd; e++) {
+            if (edge(e, E_WEIGHT) > 0) {
+                if (string.length() > 0) {
+                    string.append('\n');
+                }
+                string.append(label(edge(e, E_SOURCE))).append(" -> ")
+                      .append(label(edge(e, E_TARGET))).append(": ").append(edge(e, E_WEIGHT));
+            }
+        }
+        return string.toString();
+    }
+
+    /* Read-only Set view of the live vertices */
+    private final class VertexView extends AbstractSet<String> {
+
+        @Override public int size() {
+            return vertexCount;
+        }
+
+        @Override public boolean contains(Object label) {
+            return id(label) >= 0;
+        }
+
+        @Override public Iterator<String> iterator() {
+            return new Iterator<String>() {
+                private int next = skipDead(0);
+
+                private int skipDead(int v) {
+                    while (v < vertexEnd && vertex(v, V_LABEL_LENGTH) < 0) {
+                        v++;
+                    }
+                    return v;
+                }
+
+                @Override public boolean hasNext() {
+                    return next < vertexEnd;
+                }
+
+                @Override public String next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    final String label = label(next);
+                    next = skipDead(next + 1);
+                    return label;
+                }
+            };
+        }
+    }
+
+    /*
+     * Read-only Map view of the out-edges (if out) or in-edges of the vertex
+     * labelled label, read from its edge list on each use.
+     */
+    private final class EdgeListView extends AbstractMap<String, Integer> {
+
+        private final String label;
+        private final boolean out;
+        private int v;
+        private long removalsSeen;
+
+        // Abstraction function:
+        //   represents targets(label) if out, sources(label) otherwise
+        // Representation invariant:
+        //   if removalsSeen == removals, v == id(label)
+
+        EdgeListView(String label, int v, boolean out) {
+            this.label = label;
+            this.out = out;
+            this.v = v;
+            this.removalsSeen = removals;
+        }
+
+        /* id of the viewed vertex, or -1 if it has been removed */
+        private int vertexId() {
+            if (removalsSeen != removals) {
+                // only a removal can free the id, or hand it to another label
+                v = id(label);
+                removalsSeen = removals;
+            }
+            return v;
+        }
+
+        @Override public int size() {
+            final int v = vertexId();
+            return v < 0 ? 0 : vertex(v, out ? V_OUT_DEGREE : V_IN_DEGREE);
+        }
+
+        @Override public boolean containsKey(Object neighbor) {
+            return get(neighbor) != null;
+        }
+
+        @Override public Integer get(Object neighbor) {
+            final int v = vertexId();
+            final int n = v < 0 ? -1 : id(neighbor);
+            if (n < 0) {
+                return null;
+            }
+            final int e = out ? edgeId(v, n) : edgeId(n, v);
+            return e < 0 ? null : edge(e, E_WEIGHT);
+        }
+
+        @Override public Set<Map.Entry<String, Integer>> entrySet() {
+            return new AbstractSet<Map.Entry<String, Integer>>() {
+                @Override public int size() {
+                    return EdgeListView.this.size();
+                }
+
+                @Override public Iterator<Map.Entry<String, Integer>> iterator() {
+                    final int v = vertexId();
+                    return new Iterator<Map.Entry<String, Integer>>() {
+                        private int next = v < 0 ? NONE : vertex(v, out ? V_FIRST_OUT : V_FIRST_IN);
+
+                        @Override public boolean hasNext() {
+                            return next != NONE;
+                        }
+
+                        @Override public Map.Entry<String, Integer> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            final int e = next;
+                            next = edge(e, out ? E_NEXT_OUT : E_NEXT_IN);
+                            return new AbstractMap.SimpleImmutableEntry<>(
+                                    label(edge(e, out ? E_TARGET : E_SOURCE)), edge(e, E_WEIGHT));
+                        }
+                    };
+                }
+            };
+        }
+    }
+
+    /*
+     * Growable off-heap memory addressed by long byte offsets. Small regions
+     * live in one buffer that doubles as needed; once that reaches PAGE_SIZE,
+     * the region grows a page at a time, so it can exceed 2GB without ever
+     * copying more than one page.
+     */
+    private static final class Region {
+
+        private static final int PAGE_SHIFT = 24;
+        private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+        private static final int INITIAL_SIZE = 256;
+
+        private ByteBuffer[] pages = { allocate(INITIAL_SIZE) };
+
+        private static ByteBuffer allocate(int size) {
+            return ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder());
+        }
+
+        /* make bytes [0, size) addressable */
+        void ensure(long size) {
+            if (pages.length == 1 && pages[0].capacity() < PAGE_SIZE) {
+                final ByteBuffer small = pages[0];
+                if (size <= small.capacity()) {
+                    return;
+                }
+                int capacity = small.capacity();
+                while (capacity < size && capacity < PAGE_SIZE) {
+                    capacity *= 2;
+                }
+                final ByteBuffer grown = allocate(capacity);
+                final ByteBuffer copy = small.duplicate();
+                copy.clear();
+                grown.put(copy);
+                pages[0] = grown;
+            }
+            final long needed = (size + PAGE_SIZE - 1) >>> PAGE_SHIFT;
+            if (needed > pages.length) {
+                final int old = pages.length;
+                pages = Arrays.copyOf(pages, (int) needed);
+                for (int i = old; i < pages.length; i++) {
+                    pages[i] = allocate(PAGE_SIZE);
+                }
+            }
+        }
+
+        int getInt(long offset) {
+            return pages[(int) (offset >>> PAGE_SHIFT)].getInt((int) (offset & (PAGE_SIZE - 1)));
+        }
+
+        void putInt(long offset, int value) {
+            pages[(int) (offset >>> PAGE_SHIFT)].putInt((int) (offset & (PAGE_SIZE - 1)), value);
+        }
+
+        byte getByte(long offset) {
+            return pages[(int) (offset >>> PAGE_SHIFT)].get((int) (offset & (PAGE_SIZE - 1)));
+        }
+
+        void putByte(long offset, byte value) {
+            pages[(int) (offset >>> PAGE_SHIFT)].put((int) (offset & (PAGE_SIZE - 1)), value);
+        }
+    }
+
+}
@@ -0,0 +1,404 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * An immutable Map with non-null keys and values, stored as a hash array
+ * mapped trie.
+ *
+ * <p>plus() and minus() return a new map and leave this one unchanged. The
+ * new map shares every trie node off the path to the changed key with this
+ * one, so an update copies O(log32 n) small arrays rather than the whole map.
+ * The Map mutators throw UnsupportedOperationException. Instances are safe
+ * to share between threads.
+ */
+final class PersistentMap<K, V> extends AbstractMap<K, V> {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    /* enough for one array per trie level, plus a collision node */
+    private static final int MAX_DEPTH = 32 / BITS + 2;
+
+    private static final PersistentMap<Object, Object> EMPTY = new PersistentMap<>(null, 0);
+
+    private final Node root;
+    private final int size;
+
+    // Abstraction function:
+    //   represents the map holding every key-value pair stored in the trie
+    //   rooted at root, or the empty map if root is null
+    // Representation invariant:
+    //   size is the number of pairs in the trie
+    //   root is null iff size == 0
+    //   in a BitmapNode, bit i of bitmap is set iff some key stored below
+    //     it has bits [shift, shift + BITS) of its hash equal to i, and
+    //     array holds one slot pair per set bit, in bit order
+    //   a slot pair is (key, value) for a key, or (null, child node)
+    //   every key in a CollisionNode has the node's hash; it holds >= 2 keys
+    //   no key appears twice; no key or value is null
+    // Safety from rep exposure:
+    //   all fields are private and final, and no node or array is ever
+    //   mutated after construction or returned
+
+    @SuppressWarnings("unchecked")
+    static <K, V> PersistentMap<K, V> empty() {
+        return (PersistentMap<K, V>) EMPTY;
+    }
+
+    private PersistentMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /* spread the high bits of the hash code into the low ones */
+    private static int hash(Object key) {
+        final int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static int bit(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    @Override public int size() {
+        return size;
+    }
+
+    @Override public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override public V get(Object key) {
+        if (root == null || key == null) {
+            return null;
+        }
+        return (V) root.find(key, hash(key), 0);
+    }
+
+    /**
+     * @param key key to map, not null
+     * @param value value to map key to, not null
+     * @return a map with the same pairs as this one, except that key maps to
+     *         value; this map if key already maps to value itself (values are
+     *         compared by identity, so that plus() never calls equals() on a
+     *         possibly large value)
+     */
+    PersistentMap<K, V> plus(K key, V value) {
+        assert key != null && value != null;
+        final boolean[] added = new boolean[1];
+        final int hash = hash(key);
+        final Node newRoot = root == null
+                ? new BitmapNode(bit(hash, 0), new Object[] {key, value})
+                : root.plus(key, hash, value, 0, added);
+        if (root == null) {
+            added[0] = true;
+        }
+        if (newRoot == root) {
+            return this;
+        }
+        return new PersistentMap<>(newRoot, added[0] ? size + 1 : size);
+    }
+
+    /**
+     * @param key key to unmap
+     * @return a map with the same pairs as this one, except none for key;
+     *         this map if key was not mapped
+     */
+    PersistentMap<K, V> minus(Object key) {
+        if (root == null || key == null) {
+            return this;
+        }
+        final Node newRoot = root.minus(key, hash(key), 0);
+        if (newRoot == root) {
+            return this;
+        }
+        return newRoot == null ? empty() : new PersistentMap<>(newRoot, size - 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override public void forEach(BiConsumer<? super K, ? super V> action) {
+        if (root != null) {
+            root.forEach((BiConsumer<Object, Object>) action);
+        }
+    }
+
+    @Override public Set<Map.Entry<K, V>> entrySet() {
+        return new AbstractSet<Map.Entry<K, V>>() {
+            @Override public int size() {
+                return size;
+            }
+
+            @Override public Iterator<Map.Entry<K, V>> iterator() {
+                return new EntryIterator();
+            }
+        };
+    }
+
+    /* Depth-first walk over the slot arrays of the trie */
+    private final class EntryIterator implements Iterator<Map.Entry<K, V>> {
+
+        private final Object[][] arrays = new Object[MAX_DEPTH][];
+        private final int[] positions = new int[MAX_DEPTH];
+        private int depth = -1;
+
+        EntryIterator() {
+            if (root != null) {
+                push(root.array);
+                advance();
+            }
+        }
+
+        private void push(Object[] array) {
+            depth++;
+            arrays[depth] = array;
+            positions[depth] = 0;
+        }
+
+        /* move to the next key slot, or make depth -1 if there is none */
+        private void advance() {
+            while (depth >= 0) {
+                final Object[] array = arrays[depth];
+                final int position = positions[depth];
+                if (position >= array.length) {
+                    arrays[depth] = null;
+                    depth--;
+                    if (depth >= 0) {
+                        positions[depth] += 2;
+                    }
+                } else if (array[position] == null) {
+                    push(((Node) array[position + 1]).array);
+                } else {
+                    return;
+                }
+            }
+        }
+
+        @Override public boolean hasNext() {
+            return depth >= 0;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override public Map.Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final Object[] array = arrays[depth];
+            final int position = positions[depth];
+            final Map.Entry<K, V> entry = new AbstractMap.SimpleImmutableEntry<>(
+                    (K) array[position], (V) array[position + 1]);
+            positions[depth] += 2;
+            advance();
+            return entry;
+        }
+    }
+
+    /* A trie node; array holds slot pairs */
+    private abstract static class Node {
+
+        final Object[] array;
+
+        Node(Object[] array) {
+            this.array = array;
+        }
+
+        /* value of key, or null */
+        abstract Object find(Object key, int hash, int shift);
+
+        /* node with key mapped to value; this if unchanged; sets added[0] if key is new */
+        abstract Node plus(Object key, int hash, Object value, int shift, boolean[] added);
+
+        /* node without key; this if unchanged; null if empty */
+        abstract Node minus(Object key, int hash, int shift);
+
+        final void forEach(BiConsumer<Object, Object> action) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (array[i] == null) {
+                    ((Node) array[i + 1]).forEach(action);
+                } else {
+                    action.accept(array[i], array[i + 1]);
+                }
+            }
+        }
+    }
+
+    /* Interior node: one slot pair per set bit of bitmap */
+    private static final class BitmapNode extends Node {
+
+        private final int bitmap;
+
+        BitmapNode(int bitmap, Object[] array) {
+            super(array);
+            this.bitmap = bitmap;
+        }
+
+        private int index(int bit) {
+            return 2 * Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        @Override Object find(Object key, int hash, int shift) {
+            final int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+            final int i = index(bit);
+            final Object slotKey = array[i];
+            if (slotKey == null) {
+                return ((Node) array[i + 1]).find(key, hash, shift + BITS);
+            }
+            return key.equals(slotKey) ? array[i + 1] : null;
+        }
+
+        @Override Node plus(Object key, int hash, Object value, int shift, boolean[] added) {
+            final int bit = bit(hash, shift);
+            final int i = index(bit);
+            if ((bitmap & bit) == 0) {
+                final Object[] inserted = new Object[array.length + 2];
+                System.arraycopy(array, 0, inserted, 0, i);
+                inserted[i] = key;
+                inserted[i + 1] = value;
+                System.arraycopy(array, i, inserted, i + 2, array.length - i);
+                added[0] = true;
+                return new BitmapNode(bitmap | bit, inserted);
+            }
+            final Object slotKey = array[i];
+            final Object slotValue = array[i + 1];
+            if (slotKey == null) {
+                final Node child = ((Node) slotValue).plus(key, hash, value, shift + BITS, added);
+                return child == slotValue ? this : with(i, null, child);
+            }
+            if (key.equals(slotKey)) {
+                return value == slotValue ? this : with(i, slotKey, value);
+            }
+            added[0] = true;
+            return with(i, null, pair(slotKey, slotValue, key, hash, value, shift + BITS));
+        }
+
+        @Override Node minus(Object key, int hash, int shift) {
+            final int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            final int i = index(bit);
+            final Object slotKey = array[i];
+            if (slotKey == null) {
+                final Node child = ((Node) array[i + 1]).minus(key, hash, shift + BITS);
+                if (child == array[i + 1]) {
+                    return this;
+                }
+                return child == null ? without(bit, i) : with(i, null, child);
+            }
+            return key.equals(slotKey) ? without(bit, i) : this;
+        }
+
+        /* copy with slot pair i replaced */
+        private Node with(int i, Object key, Object value) {
+            final Object[] copy = array.clone();
+            copy[i] = key;
+            copy[i + 1] = value;
+            return new BitmapNode(bitmap, copy);
+        }
+
+        /* copy without slot pair i, or null if it is the only one */
+        private Node without(int bit, int i) {
+            if (bitmap == bit) {
+                return null;
+            }
+            final Object[] removed = new Object[array.length - 2];
+            System.arraycopy(array, 0, removed, 0, i);
+            System.arraycopy(array, i + 2, removed, i, array.length - i - 2);
+            return new BitmapNode(bitmap ^ bit, removed);
+        }
+
+        /* node holding two distinct keys, starting at shift */
+        private static Node pair(Object key1, Object value1,
+                Object key2, int hash2, Object value2, int shift) {
+            final int hash1 = hash(key1);
+            if (hash1 == hash2) {
+                return new CollisionNode(hash1, new Object[] {key1, value1, key2, value2});
+            }
+            final boolean[] added = new boolean[1];
+            return new BitmapNode(bit(hash1, shift), new Object[] {key1, value1})
+                    .plus(key2, hash2, value2, shift, added);
+        }
+    }
+
+    /* Leaf for keys whose whole hashes are equal */
+    private static final class CollisionNode extends Node {
+
+        private final int hash;
+
+        CollisionNode(int hash, Object[] array) {
+            super(array);
+            this.hash = hash;
+        }
+
+        private int indexOf(Object key) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override Object find(Object key, int hash, int shift) {
+            if (hash != this.hash) {
+                return null;
+            }
+            final int i = indexOf(key);
+            return i < 0 ? null : array[i + 1];
+        }
+
+        @Override Node plus(Object key, int hash, Object value, int shift, boolean[] added) {
+            if (hash != this.hash) {
+                return new BitmapNode(bit(this.hash, shift), new Object[] {null, this})
+                        .plus(key, hash, value, shift, added);
+            }
+            final int i = indexOf(key);
+            if (i >= 0) {
+                if (value == array[i + 1]) {
+                    return this;
+                }
+                final Object[] copy = array.clone();
+                copy[i + 1] = value;
+                return new CollisionNode(hash, copy);
+            }
+            final Object[] appended = Arrays.copyOf(array, array.length + 2);
+            appended[array.length] = key;
+            appended[array.length + 1] = value;
+            added[0] = true;
+            return new CollisionNode(hash, appended);
+        }
+
+        @Override Node minus(Object key, int hash, int shift) {
+            if (hash != this.hash) {
+                return this;
+            }
+            final int i = indexOf(key);
+            if (i < 0) {
+                return this;
+            }
+            if (array.length == 4) {
+                final int other = 2 - i;
+                return new BitmapNode(bit(hash, shift), new Object[] {array[other], array[other + 1]});
+            }
+            final Object[] removed = new Object[array.length - 2];
+            System.arraycopy(array, 0, removed, 0, i);
+            System.arraycopy(array, i + 2, removed, i, array.length - i - 2);
+            return new CollisionNode(hash, removed);
+        }
+    }
+
+}
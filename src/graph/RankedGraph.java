@@ -0,0 +1,258 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * An implementation of Graph that also keeps the edges of every vertex
+ * ordered by weight, so that the heaviest few neighbours of a vertex can be
+ * found without looking at the rest.
+ *
+ * <p>Each vertex ranks its targets and its sources in a tree of weight
+ * buckets, each bucket a tree of neighbours, updated on every set(),
+ * increment() and remove(). Changing an edge costs O(log b + log t), where b
+ * is the number of distinct weights among the edges of its endpoints and t
+ * the number of their edges tied at its old and new weights. topTargets()
+ * and topSources() take O(log b + k) time whatever the degree of the vertex.
+ * Edges of equal weight are ranked in the natural order of their
+ * neighbours' labels, the same rule GraphPoet.topSuccessors() uses for
+ * words, so both rank a graph's ties alike however its weights were reached.
+ *
+ * <p>This is a mutable graph, for callers that keep changing weights while
+ * querying them. GraphPoet's affinity graph is an immutable snapshot instead,
+ * and answers the same query with GraphPoet.topSuccessors(), which ranks a
+ * word's successors once per snapshot.
+ *
+ * @param <L> type of vertex labels, must be immutable and Comparable, with
+ *        an ordering consistent with equals
+ */
+public class RankedGraph<L extends Comparable<? super L>> implements IncrementableGraph<L> {
+
+    private final Map<L, Node<L>> nodes = new HashMap<>();
+    private int edgeCount = 0;
+
+    // Abstraction function:
+    //   represents a directed weighted graph whose vertices are the keys of
+    //   nodes, with an edge source -> target of weight w for every
+    //   nodes.get(source).targets.get(target) == w
+    // Representation invariant:
+    //   every weight is > 0
+    //   nodes.get(s).targets.get(t) == nodes.get(t).sources.get(s) for every
+    //     edge, and neither side holds an edge the other does not
+    //   every Node's rankings hold exactly the entries of its maps, each in
+    //     the bucket of its weight
+    //   edgeCount is the number of edges
+    // Safety from rep exposure:
+    //   all fields are private and final or immutable; vertices(),
+    //   sources() and targets() only return unmodifiable views, and
+    //   topSources() and topTargets() return unmodifiable copies
+
+    /** Create an empty graph. */
+    public RankedGraph() {
+    }
+
+    /*checkRep*/
+    private void checkRep() {
+        assert edgeCount >= 0;
+    }
+
+    @Override public boolean add(L vertex) {
+        if (nodes.containsKey(vertex)) {
+            return false;
+        }
+        nodes.put(vertex, new Node<>());
+        checkRep();
+        return true;
+    }
+
+    @Override public int set(L source, L target, int weight) {
+        assert weight >= 0;
+        final Node<L> from = nodes.get(source);
+        final Integer previous = from == null ? null : from.targets.get(target);
+        final int previousWeight = previous == null ? 0 : previous;
+        if (previousWeight == weight || (weight == 0 && from == null)) {
+            return previousWeight;
+        }
+        add(source);
+        add(target);
+        link(source, target, previousWeight, weight);
+        checkRep();
+        return previousWeight;
+    }
+
+    @Override public int increment(L source, L target, int delta) {
+        final int previousWeight = targets(source).getOrDefault(target, 0);
+        assert previousWeight + delta >= 0;
+        return set(source, target, previousWeight + delta);
+    }
+
+    /*
+     * Change the weight of source -> target, whose vertices exist, from
+     * previousWeight to weight, in both maps and both rankings; a weight of
+     * 0 means no edge
+     */
+    private void link(L source, L target, int previousWeight, int weight) {
+        final Node<L> from = nodes.get(source);
+        final Node<L> to = nodes.get(target);
+        if (weight > 0) {
+            from.targets.put(target, weight);
+            to.sources.put(source, weight);
+        } else {
+            from.targets.remove(target);
+            to.sources.remove(source);
+        }
+        from.targetRanking.move(target, previousWeight, weight);
+        to.sourceRanking.move(source, previousWeight, weight);
+        if (previousWeight == 0) {
+            edgeCount++;
+        } else if (weight == 0) {
+            edgeCount--;
+        }
+    }
+
+    @Override public boolean remove(L vertex) {
+        final Node<L> node = nodes.get(vertex);
+        if (node == null) {
+            return false;
+        }
+        // copied, since link() changes the maps; a self-loop is unlinked once
+        for (Map.Entry<L, Integer> edge : new HashMap<>(node.targets).entrySet()) {
+            link(vertex, edge.getKey(), edge.getValue(), 0);
+        }
+        for (Map.Entry<L, Integer> edge : new HashMap<>(node.sources).entrySet()) {
+            link(edge.getKey(), vertex, edge.getValue(), 0);
+        }
+        nodes.remove(vertex);
+        checkRep();
+        return true;
+    }
+
+    /** Returns a read-only view of this graph's vertices */
+    @Override public Set<L> vertices() {
+        return Collections.unmodifiableSet(nodes.keySet());
+    }
+
+    /** Returns a read-only view of a target's sources */
+    @Override public Map<L, Integer> sources(L target) {
+        final Node<L> node = nodes.get(target);
+        if (node == null) {
+            return Collections.emptyMap();
+        }
+        return Collections.unmodifiableMap(node.sources);
+    }
+
+    /** Returns a read-only view of a source's targets */
+    @Override public Map<L, Integer> targets(L source) {
+        final Node<L> node = nodes.get(source);
+        if (node == null) {
+            return Collections.emptyMap();
+        }
+        return Collections.unmodifiableMap(node.targets);
+    }
+
+    /**
+     * Get the heaviest edges out of a vertex.
+     *
+     * @param source a label
+     * @param k greatest number of targets wanted, >= 0
+     * @return a read-only map of the min(k, out-degree) targets of source
+     *         whose edges from source are heaviest, to those edges' weights,
+     *         iterating from heaviest to lightest; ties in the natural order
+     *         of the targets
+     */
+    public Map<L, Integer> topTargets(L source, int k) {
+        assert k >= 0;
+        final Node<L> node = nodes.get(source);
+        return node == null ? Collections.<L, Integer>emptyMap() : node.targetRanking.top(k);
+    }
+
+    /**
+     * Get the heaviest edges into a vertex.
+     *
+     * @param target a label
+     * @param k greatest number of sources wanted, >= 0
+     * @return a read-only map of the min(k, in-degree) sources of target
+     *         whose edges to target are heaviest, to those edges' weights,
+     *         iterating from heaviest to lightest; ties in the natural order
+     *         of the sources
+     */
+    public Map<L, Integer> topSources(L target, int k) {
+        assert k >= 0;
+        final Node<L> node = nodes.get(target);
+        return node == null ? Collections.<L, Integer>emptyMap() : node.sourceRanking.top(k);
+    }
+
+    /** Returns the number of edges in this graph */
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    @Override public String toString() {
+        if (edgeCount == 0) {
+            return "Empty Graph";
+        }
+        return nodes.entrySet().stream()
+                .flatMap(source -> source.getValue().targets.entrySet().stream()
+                        .map(edge -> source.getKey() + " -> " + edge.getKey() + ": " + edge.getValue()))
+                .collect(Collectors.joining("\n"));
+    }
+
+    /* The edges of one vertex, by neighbour and by weight */
+    private static final class Node<L extends Comparable<? super L>> {
+        final Map<L, Integer> targets = new HashMap<>();
+        final Map<L, Integer> sources = new HashMap<>();
+        final Ranking<L> targetRanking = new Ranking<>();
+        final Ranking<L> sourceRanking = new Ranking<>();
+    }
+
+    /* Neighbours grouped by the weight of their edge, heaviest first */
+    private static final class Ranking<L extends Comparable<? super L>> {
+
+        private final TreeMap<Integer, Set<L>> byWeight = new TreeMap<>(Collections.reverseOrder());
+
+        // Abstraction function:
+        //   represents the neighbours in byWeight.get(w) as having edges of
+        //   weight w, ranked in their natural order
+        // Representation invariant:
+        //   every key is > 0, no bucket is empty, and no neighbour is in two
+        //   buckets
+
+        /* move neighbour from the bucket of previousWeight to that of weight; 0 is none */
+        void move(L neighbor, int previousWeight, int weight) {
+            if (previousWeight > 0) {
+                final Set<L> bucket = byWeight.get(previousWeight);
+                bucket.remove(neighbor);
+                if (bucket.isEmpty()) {
+                    byWeight.remove(previousWeight);
+                }
+            }
+            if (weight > 0) {
+                byWeight.computeIfAbsent(weight, w -> new TreeSet<>()).add(neighbor);
+            }
+        }
+
+        /* read-only map of the first k neighbours to their weights, in rank order */
+        Map<L, Integer> top(int k) {
+            final Map<L, Integer> top = new LinkedHashMap<>();
+            for (Map.Entry<Integer, Set<L>> bucket : byWeight.entrySet()) {
+                for (L neighbor : bucket.getValue()) {
+                    if (top.size() == k) {
+                        return Collections.unmodifiableMap(top);
+                    }
+                    top.put(neighbor, bucket.getKey());
+                }
+            }
+            return Collections.unmodifiableMap(top);
+        }
+    }
+
+}
@@ -0,0 +1,640 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * A mutable Graph that keeps every version it passes through as a cheap
+ * immutable snapshot.
+ *
+ * <p>Each version is a base ImmutableGraph, such as a CsrGraph or a
+ * MappedGraph, overlaid with persistent maps of the vertices and edges that
+ * differ from it. A change makes a new version that shares the base and all
+ * but O(log n) of the overlay with the old one, so wrapping a large compact
+ * graph takes O(1) time and memory, and rows that no change touched are read
+ * straight from the base. Once the overlay holds more than 1/COMPACT_RATIO
+ * as many entries as the base has edges (and at least COMPACT_MIN), the next
+ * version is compacted: copied into a new CsrGraph base with an empty
+ * overlay, in time linear in the size of the graph.
+ *
+ * <p>snapshot() pins the current version in O(1); readers of a snapshot
+ * never lock and never see later changes. Writers are serialized, and each
+ * new version is published with a single volatile write, so apply() can make
+ * a whole batch of changes visible at once.
+ *
+ * <p>vertices(), sources() and targets() read the current version; each
+ * result is immutable.
+ */
+public class VersionedGraph<L> implements IncrementableGraph<L> {
+
+    /* the overlay is compacted once it holds more than base edges / COMPACT_RATIO entries */
+    static final int COMPACT_RATIO = 8;
+
+    /* ... and more than this many */
+    static final int COMPACT_MIN = 1 << 12;
+
+    private volatile Version<L> current;
+
+    // Abstraction function:
+    //   represents the graph current represents, with history: every
+    //   snapshot() taken earlier represents the graph as it was then
+    // Representation invariant:
+    //   current satisfies the Version rep invariant
+    // Safety from rep exposure:
+    //   current is private; Versions are immutable, so handing them out as
+    //   snapshots is safe
+    // Thread safety argument:
+    //   current is volatile and only ever refers to an immutable Version, so
+    //     readers always see a whole version
+    //   every write holds this object's lock from reading current to
+    //     publishing its successor, so no write is lost
+
+    /** Create an empty graph. */
+    public VersionedGraph() {
+        this(CsrGraph.copyOf(new AdjacencyMapGraph<L>()));
+    }
+
+    /**
+     * Create a graph that starts out with the vertices and edges of base,
+     * without copying them.
+     *
+     * @param base graph to start from; kept, not copied, until the first
+     *        compaction
+     */
+    public VersionedGraph(ImmutableGraph<L> base) {
+        this.current = Version.over(base);
+    }
+
+    /**
+     * Make a batch of changes and publish them as one new version. Readers
+     * see either none of the changes or all of them; if changes throws,
+     * none are published.
+     *
+     * @param changes applies the changes to the graph it is given, which is
+     *        only valid during this call; it must not retain the graph or
+     *        use this VersionedGraph
+     */
+    public synchronized void apply(Consumer<? super IncrementableGraph<L>> changes) {
+        final Editor<L> editor = new Editor<>(current);
+        changes.accept(editor);
+        publish(editor.version);
+    }
+
+    /* make edited the next version, compacted if its overlay is large, unless nothing changed */
+    private void publish(Version<L> edited) {
+        final Version<L> base = current;
+        if (edited == base) {
+            return;
+        }
+        final Version<L> next = edited.numbered(base.number + 1);
+        current = next.overlaySize() > Math.max(COMPACT_MIN, next.baseEdges / COMPACT_RATIO)
+                ? next.compacted() : next;
+    }
+
+    /**
+     * Copy the current version into a new compact base with an empty
+     * overlay, as happens automatically once the overlay grows large. The
+     * graph, its version number and earlier snapshots are unchanged.
+     */
+    public synchronized void compact() {
+        current = current.compacted();
+    }
+
+    /**
+     * @return an immutable snapshot of this graph as it is now, unaffected by
+     *         later changes
+     */
+    public ImmutableGraph<L> snapshot() {
+        return current;
+    }
+
+    /**
+     * @return the number of the current version: 0 for the graph this one
+     *         starts as, and one more for every later change or apply()
+     *         that changed the graph
+     */
+    public long version() {
+        return current.number;
+    }
+
+    @Override public synchronized boolean add(L vertex) {
+        final Editor<L> editor = new Editor<>(current);
+        final boolean added = editor.add(vertex);
+        publish(editor.version);
+        return added;
+    }
+
+    @Override public synchronized int set(L source, L target, int weight) {
+        final Editor<L> editor = new Editor<>(current);
+        final int previousWeight = editor.set(source, target, weight);
+        publish(editor.version);
+        return previousWeight;
+    }
+
+    @Override public synchronized int increment(L source, L target, int delta) {
+        final Editor<L> editor = new Editor<>(current);
+        final int previousWeight = editor.increment(source, target, delta);
+        publish(editor.version);
+        return previousWeight;
+    }
+
+    @Override public synchronized boolean remove(L vertex) {
+        final Editor<L> editor = new Editor<>(current);
+        final boolean removed = editor.remove(vertex);
+        publish(editor.version);
+        return removed;
+    }
+
+    /** Returns an immutable set of the vertices in the current version */
+    @Override public Set<L> vertices() {
+        return current.vertices();
+    }
+
+    /** Returns an immutable map of a target's sources in the current version */
+    @Override public Map<L, Integer> sources(L target) {
+        return current.sources(target);
+    }
+
+    /** Returns an immutable map of a source's targets in the current version */
+    @Override public Map<L, Integer> targets(L source) {
+        return current.targets(source);
+    }
+
+    /** Returns the number of edges in the current version */
+    public int edgeCount() {
+        return current.edgeCount;
+    }
+
+    /* number of vertices and edges the current version overlays on its base */
+    int overlaySize() {
+        return current.overlaySize();
+    }
+
+    @Override public String toString() {
+        return current.toString();
+    }
+
+    /*
+     * Applies changes one at a time, each making a new unnumbered Version
+     * from the last. Confined to the writing thread.
+     */
+    private static final class Editor<L> implements IncrementableGraph<L> {
+
+        private Version<L> version;
+
+        Editor(Version<L> base) {
+            this.version = base;
+        }
+
+        @Override public boolean add(L vertex) {
+            final Version<L> edited = version.withVertex(vertex);
+            final boolean added = edited != version;
+            version = edited;
+            return added;
+        }
+
+        @Override public int set(L source, L target, int weight) {
+            assert weight >= 0;
+            final int previous = version.weight(source, target);
+            version = version.withEdge(source, target, weight);
+            return previous;
+        }
+
+        @Override public int increment(L source, L target, int delta) {
+            final int previous = version.weight(source, target);
+            assert previous + delta >= 0;
+            if (delta != 0) {
+                version = version.withEdge(source, target, previous + delta);
+            }
+            return previous;
+        }
+
+        @Override public boolean remove(L vertex) {
+            final Version<L> edited = version.without(vertex);
+            final boolean removed = edited != version;
+            version = edited;
+            return removed;
+        }
+
+        @Override public Set<L> vertices() {
+            return version.vertices();
+        }
+
+        @Override public Map<L, Integer> sources(L target) {
+            return version.sources(target);
+        }
+
+        @Override public Map<L, Integer> targets(L source) {
+            return version.targets(source);
+        }
+    }
+
+    /* One immutable version of the graph: a base graph and an overlay of the differences from it */
+    private static final class Version<L> implements ImmutableGraph<L> {
+
+        private final long number;
+        private final ImmutableGraph<L> base;
+        private final int baseEdges;
+        private final PersistentMap<L, Boolean> vertexOverlay;
+        private final PersistentMap<L, Delta<L>> targetsOf;
+        private final PersistentMap<L, Delta<L>> sourcesOf;
+        private final int vertexCount;
+        private final int edgeCount;
+        private final int overlayEdges;
+        private final Set<L> vertices = new VertexView();
+
+        // Abstraction function:
+        //   represents version number of a directed weighted graph whose
+        //   vertices are those of base, less every v with
+        //   vertexOverlay.get(v) == false, plus every v with
+        //   vertexOverlay.get(v) == true; the edges out of v are
+        //   targetsOf.get(v) if present, otherwise base.targets(v), and
+        //   sourcesOf likewise gives the edges into v
+        // Representation invariant:
+        //   number >= 0
+        //   vertexOverlay maps v to true only if v is not a vertex of base or
+        //     was removed and added again, and to false only if v is a vertex
+        //     of base
+        //   a vertex of base with vertexOverlay.get(v) != null has rows in
+        //     targetsOf and sourcesOf that replace its base rows
+        //   targetsOf.get(s).get(t) == sourcesOf.get(t).get(s) for every
+        //     edge, and neither side holds an edge the other does not
+        //   baseEdges == base.edgeCount(); vertexCount and edgeCount count
+        //     the vertices and edges represented
+        //   overlayEdges is the total overlay().size() of the rows in
+        //     targetsOf
+        // Safety from rep exposure:
+        //   all fields are private and final; base, persistent maps and Deltas
+        //   are immutable
+        // Thread safety argument:
+        //   all fields are final and refer to immutable values
+
+        private Version(long number, ImmutableGraph<L> base, int baseEdges,
+                PersistentMap<L, Boolean> vertexOverlay,
+                PersistentMap<L, Delta<L>> targetsOf, PersistentMap<L, Delta<L>> sourcesOf,
+                int vertexCount, int edgeCount, int overlayEdges) {
+            this.number = number;
+            this.base = base;
+            this.baseEdges = baseEdges;
+            this.vertexOverlay = vertexOverlay;
+            this.targetsOf = targetsOf;
+            this.sourcesOf = sourcesOf;
+            this.vertexCount = vertexCount;
+            this.edgeCount = edgeCount;
+            this.overlayEdges = overlayEdges;
+            checkRep();
+        }
+
+        /* version 0, with base's vertices and edges and an empty overlay */
+        static <L> Version<L> over(ImmutableGraph<L> base) {
+            final int edges = base.edgeCount();
+            return new Version<>(0, base, edges, PersistentMap.<L, Boolean>empty(),
+                    PersistentMap.<L, Delta<L>>empty(), PersistentMap.<L, Delta<L>>empty(),
+                    base.vertices().size(), edges, 0);
+        }
+
+        private void checkRep() {
+            assert number >= 0;
+            assert vertexCount >= 0 && edgeCount >= 0 && overlayEdges >= 0;
+        }
+
+        /* this version numbered number */
+        Version<L> numbered(long number) {
+            return new Version<>(number, base, baseEdges, vertexOverlay, targetsOf, sourcesOf,
+                    vertexCount, edgeCount, overlayEdges);
+        }
+
+        /* this version copied into a CsrGraph base with an empty overlay */
+        Version<L> compacted() {
+            final CsrGraph<L> compact = CsrGraph.copyOf(this);
+            return over(compact).numbered(number);
+        }
+
+        /* number of vertices and edges in the overlay */
+        int overlaySize() {
+            return vertexOverlay.size() + overlayEdges;
+        }
+
+        private boolean contains(Object vertex) {
+            final Boolean overlaid = vertexOverlay.get(vertex);
+            return overlaid != null ? overlaid : base.vertices().contains(vertex);
+        }
+
+        /* weight of the edge source -> target, or 0 if there is none */
+        int weight(L source, L target) {
+            final Delta<L> row = targetsOf.get(source);
+            return row != null ? row.weightOf(target) : base.targetRow(source).weightOf(target);
+        }
+
+        /* the overlaid row out of or into vertex, made from its base row if not yet overlaid */
+        private Delta<L> row(PersistentMap<L, Delta<L>> rows, L vertex, boolean out) {
+            final Delta<L> row = rows.get(vertex);
+            if (row != null) {
+                return row;
+            }
+            return out ? new Delta<>(base.targets(vertex), base.targetRow(vertex))
+                    : new Delta<>(base.sources(vertex), base.sourceRow(vertex));
+        }
+
+        /* this version with vertex added; this version if it is already there */
+        Version<L> withVertex(L vertex) {
+            if (contains(vertex)) {
+                return this;
+            }
+            return new Version<>(number, base, baseEdges, vertexOverlay.plus(vertex, true),
+                    targetsOf, sourcesOf, vertexCount + 1, edgeCount, overlayEdges);
+        }
+
+        /* this version with the edge source -> target set to weight as by Graph.set() */
+        Version<L> withEdge(L source, L target, int weight) {
+            assert weight >= 0;
+            final int previous = weight(source, target);
+            if (previous == weight) {
+                return this;
+            }
+            final Version<L> withVertices = weight > 0 ? withVertex(source).withVertex(target) : this;
+            final Delta<L> targets = withVertices.row(withVertices.targetsOf, source, true);
+            final Delta<L> newTargets = targets.with(target, weight);
+            final Delta<L> sources = withVertices.row(withVertices.sourcesOf, target, false);
+            return new Version<>(number, base, baseEdges, withVertices.vertexOverlay,
+                    withVertices.targetsOf.plus(source, newTargets),
+                    withVertices.sourcesOf.plus(target, sources.with(source, weight)),
+                    withVertices.vertexCount,
+                    edgeCount + (weight > 0 ? 1 : 0) - (previous > 0 ? 1 : 0),
+                    overlayEdges + newTargets.overlay.size() - targets.overlay.size());
+        }
+
+        /* this version with vertex and its edges removed; this version if it is not there */
+        Version<L> without(L vertex) {
+            if (!contains(vertex)) {
+                return this;
+            }
+            final Map<L, Integer> targets = targets(vertex);
+            final Map<L, Integer> sources = sources(vertex);
+            Version<L> edited = this;
+            // a self-loop shows up on both sides but is a single edge
+            for (L target : targets.keySet()) {
+                if (!target.equals(vertex)) {
+                    edited = edited.withEdge(vertex, target, 0);
+                }
+            }
+            for (L source : sources.keySet()) {
+                if (!source.equals(vertex)) {
+                    edited = edited.withEdge(source, vertex, 0);
+                }
+            }
+            if (targets.containsKey(vertex)) {
+                edited = edited.withEdge(vertex, vertex, 0);
+            }
+            final Delta<L> ownTargets = edited.targetsOf.get(vertex);
+            final int overlayEdges = edited.overlayEdges - (ownTargets == null ? 0 : ownTargets.overlay.size());
+            if (base.vertices().contains(vertex)) {
+                // its base rows stay hidden even if it is added again
+                final Delta<L> none = new Delta<>(Collections.<L, Integer>emptyMap(),
+                        new MapRow<>(Collections.<L, Integer>emptyMap()));
+                return new Version<>(number, base, baseEdges, edited.vertexOverlay.plus(vertex, false),
+                        edited.targetsOf.plus(vertex, none), edited.sourcesOf.plus(vertex, none),
+                        vertexCount - 1, edited.edgeCount, overlayEdges);
+            }
+            return new Version<>(number, base, baseEdges, edited.vertexOverlay.minus(vertex),
+                    edited.targetsOf.minus(vertex), edited.sourcesOf.minus(vertex),
+                    vertexCount - 1, edited.edgeCount, overlayEdges);
+        }
+
+        /** @throws UnsupportedOperationException always; this graph is immutable */
+        @Override public boolean add(L vertex) {
+            throw new UnsupportedOperationException("VersionedGraph snapshots are immutable");
+        }
+
+        /** @throws UnsupportedOperationException always; this graph is immutable */
+        @Override public int set(L source, L target, int weight) {
+            throw new UnsupportedOperationException("VersionedGraph snapshots are immutable");
+        }
+
+        /** @throws UnsupportedOperationException always; this graph is immutable */
+        @Override public boolean remove(L vertex) {
+            throw new UnsupportedOperationException("VersionedGraph snapshots are immutable");
+        }
+
+        @Override public Set<L> vertices() {
+            return vertices;
+        }
+
+        @Override public Map<L, Integer> sources(L target) {
+            final Delta<L> row = sourcesOf.get(target);
+            return row != null ? row : base.sources(target);
+        }
+
+        @Override public Map<L, Integer> targets(L source) {
+            final Delta<L> row = targetsOf.get(source);
+            return row != null ? row : base.targets(source);
+        }
+
+        /** Returns the base graph's row if no change touched it, otherwise a row over the overlay */
+        @Override public ImmutableGraph.Row<L> sourceRow(L target) {
+            final Delta<L> row = sourcesOf.get(target);
+            return row != null ? new MapRow<>(row) : base.sourceRow(target);
+        }
+
+        /** Returns the base graph's row if no change touched it, otherwise a row over the overlay */
+        @Override public ImmutableGraph.Row<L> targetRow(L source) {
+            final Delta<L> row = targetsOf.get(source);
+            return row != null ? new MapRow<>(row) : base.targetRow(source);
+        }
+
+        @Override public int edgeCount() {
+            return edgeCount;
+        }
+
+        @Override public String toString() {
+            if (edgeCount == 0) {
+                return "Empty Graph";
+            }
+            return vertices.stream()
+                    .flatMap(source -> targets(source).entrySet().stream()
+                            .map(edge -> source + " -> " + edge.getKey() + ": " + edge.getValue()))
+                    .collect(Collectors.joining("\n"));
+        }
+
+        /* Read-only Set view of the vertices of this version */
+        private final class VertexView extends AbstractSet<L> {
+
+            @Override public int size() {
+                return vertexCount;
+            }
+
+            @Override public boolean contains(Object vertex) {
+                return Version.this.contains(vertex);
+            }
+
+            /* base vertices not in the overlay, then vertices the overlay adds */
+            @Override public Iterator<L> iterator() {
+                final Iterator<L> fromBase = base.vertices().iterator();
+                final Iterator<Map.Entry<L, Boolean>> fromOverlay = vertexOverlay.entrySet().iterator();
+                return new Iterator<L>() {
+                    private L next = advance();
+
+                    private L advance() {
+                        while (fromBase.hasNext()) {
+                            final L vertex = fromBase.next();
+                            if (!vertexOverlay.containsKey(vertex)) {
+                                return vertex;
+                            }
+                        }
+                        while (fromOverlay.hasNext()) {
+                            final Map.Entry<L, Boolean> vertex = fromOverlay.next();
+                            if (vertex.getValue()) {
+                                return vertex.getKey();
+                            }
+                        }
+                        return null;
+                    }
+
+                    @Override public boolean hasNext() {
+                        return next != null;
+                    }
+
+                    @Override public L next() {
+                        if (next == null) {
+                            throw new NoSuchElementException();
+                        }
+                        final L vertex = next;
+                        next = advance();
+                        return vertex;
+                    }
+                };
+            }
+        }
+    }
+
+    /*
+     * The edges out of or into one vertex in some Version: the vertex's base
+     * row with some edges overridden. Immutable.
+     */
+    private static final class Delta<L> extends AbstractMap<L, Integer> {
+
+        private final Map<L, Integer> base;
+        private final ImmutableGraph.Row<L> baseRow;
+        private final PersistentMap<L, Integer> overlay;
+        private final int size;
+
+        // Abstraction function:
+        //   represents the edge to or from n of weight overlay.get(n) if
+        //   overlay has n and that is > 0, otherwise of weight base.get(n)
+        //   if overlay does not have n
+        // Representation invariant:
+        //   baseRow holds the same edges as base
+        //   overlay.get(n) == 0 only if base has n, and overlay.get(n) never
+        //     equals base.get(n)
+        //   size is the number of edges represented
+        // Safety from rep exposure:
+        //   all fields are private and final and refer to immutable values
+
+        Delta(Map<L, Integer> base, ImmutableGraph.Row<L> baseRow) {
+            this(base, baseRow, PersistentMap.<L, Integer>empty(), base.size());
+        }
+
+        private Delta(Map<L, Integer> base, ImmutableGraph.Row<L> baseRow,
+                PersistentMap<L, Integer> overlay, int size) {
+            this.base = base;
+            this.baseRow = baseRow;
+            this.overlay = overlay;
+            this.size = size;
+        }
+
+        /* weight of the edge to or from neighbor, or 0 if there is none */
+        int weightOf(Object neighbor) {
+            final Integer overlaid = overlay.get(neighbor);
+            if (overlaid != null) {
+                return overlaid;
+            }
+            final Integer weight = base.get(neighbor);
+            return weight == null ? 0 : weight;
+        }
+
+        /* this row with the edge to or from neighbor set to weight, 0 for none */
+        Delta<L> with(L neighbor, int weight) {
+            final int previous = weightOf(neighbor);
+            final Integer baseWeight = base.get(neighbor);
+            final PersistentMap<L, Integer> newOverlay = (baseWeight == null ? weight == 0 : baseWeight == weight)
+                    ? overlay.minus(neighbor) : overlay.plus(neighbor, weight);
+            return new Delta<>(base, baseRow, newOverlay,
+                    size + (weight > 0 ? 1 : 0) - (previous > 0 ? 1 : 0));
+        }
+
+        @Override public int size() {
+            return size;
+        }
+
+        @Override public boolean containsKey(Object neighbor) {
+            return weightOf(neighbor) > 0;
+        }
+
+        @Override public Integer get(Object neighbor) {
+            final Integer overlaid = overlay.get(neighbor);
+            if (overlaid != null) {
+                return overlaid == 0 ? null : overlaid;
+            }
+            return base.get(neighbor);
+        }
+
+        @Override public Set<Map.Entry<L, Integer>> entrySet() {
+            return new AbstractSet<Map.Entry<L, Integer>>() {
+                @Override public int size() {
+                    return size;
+                }
+
+                /* base edges the overlay does not override, then overlay edges with weight > 0 */
+                @Override public Iterator<Map.Entry<L, Integer>> iterator() {
+                    final Iterator<Map.Entry<L, Integer>> fromOverlay = overlay.entrySet().iterator();
+                    return new Iterator<Map.Entry<L, Integer>>() {
+                        private int nextBase = 0;
+                        private Map.Entry<L, Integer> next = advance();
+
+                        private Map.Entry<L, Integer> advance() {
+                            while (nextBase < baseRow.size()) {
+                                final L neighbor = baseRow.neighbor(nextBase);
+                                final int weight = baseRow.weight(nextBase);
+                                nextBase++;
+                                if (!overlay.containsKey(neighbor)) {
+                                    return new AbstractMap.SimpleImmutableEntry<>(neighbor, weight);
+                                }
+                            }
+                            while (fromOverlay.hasNext()) {
+                                final Map.Entry<L, Integer> edge = fromOverlay.next();
+                                if (edge.getValue() > 0) {
+                                    return edge;
+                                }
+                            }
+                            return null;
+                        }
+
+                        @Override public boolean hasNext() {
+                            return next != null;
+                        }
+
+                        @Override public Map.Entry<L, Integer> next() {
+                            if (next == null) {
+                                throw new NoSuchElementException();
+                            }
+                            final Map.Entry<L, Integer> edge = next;
+                            next = advance();
+                            return edge;
+                        }
+                    };
+                }
+            };
+        }
+    }
+
+}
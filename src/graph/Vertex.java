@@ -0,0 +1,226 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.Map;
+
+/**
+ * A labelled vertex of a directed weighted graph, together with the weighted
+ * edges into it and out of it. Mutable.
+ *
+ * <p>A vertex only records its own side of each edge: the graph holding it
+ * must keep the edge s -> t on both s's targets and t's sources, with the
+ * same weight. An edge from a vertex to itself is both one of its sources
+ * and one of its targets. Weights are positive; an edge of weight 0 is
+ * absent.
+ *
+ * <p>This class is internal to the reps of ConcreteVerticesGraph and
+ * MapVerticesGraph.
+ *
+ * <p>PS2 instructions: the specification and implementation of this class is
+ * up to you.
+ *
+ * @param <L> type of vertex labels, must be immutable
+ */
+class Vertex<L> {
+
+    private final L label;
+    private final ObjectIntMap<L> sources = new ObjectIntMap<>();
+    private final ObjectIntMap<L> targets = new ObjectIntMap<>();
+
+    // Abstraction function:
+    //   represents the vertex labelled label, with an edge s -> label of
+    //   weight w for every sources.get(s) == w, and an edge label -> t of
+    //   weight w for every targets.get(t) == w
+    // Representation invariant:
+    //   label != null
+    //   every weight in sources and targets is > 0
+    // Safety from rep exposure:
+    //   all fields are private and final; label is immutable; getSources()
+    //   and getTargets() return unmodifiable views
+
+    /**
+     * Create a vertex with no edges.
+     *
+     * @param label label of the vertex, not null
+     */
+    public Vertex(final L label) {
+        this.label = label;
+        checkRep();
+    }
+
+    private void checkRep() {
+        assert label != null;
+    }
+
+    /** Returns the label of this vertex */
+    public L getLabel() {
+        return this.label;
+    }
+
+    /**
+     * Add an edge into this vertex, unless there already is one.
+     *
+     * @param source label of the edge's source
+     * @param weight weight of the edge, > 0
+     * @return true iff there was no edge from source before
+     */
+    public boolean addSource(final L source, final int weight) {
+        assert weight > 0;
+        if (sources.containsKey(source)) {
+            return false;
+        }
+        sources.put(source, weight);
+        checkRep();
+        return true;
+    }
+
+    /**
+     * Add an edge out of this vertex, unless there already is one.
+     *
+     * @param target label of the edge's target
+     * @param weight weight of the edge, > 0
+     * @return true iff there was no edge to target before
+     */
+    public boolean addTarget(final L target, final int weight) {
+        assert weight > 0;
+        if (targets.containsKey(target)) {
+            return false;
+        }
+        targets.put(target, weight);
+        checkRep();
+        return true;
+    }
+
+    /**
+     * Remove the edges between this vertex and another, in either direction.
+     *
+     * @param vertex label of the other vertex
+     * @return the weight of the removed edge from vertex, or if there was
+     *         none, of the removed edge to vertex, or 0 if there was neither
+     */
+    public int remove(final L vertex) {
+        // the two edges are separate, and may differ in weight
+        final int sourcePrevWeight = removeSource(vertex);
+        final int targetPrevWeight = removeTarget(vertex);
+        return sourcePrevWeight == 0 ? targetPrevWeight : sourcePrevWeight;
+    }
+
+    /**
+     * Remove the edge from source into this vertex, if there is one.
+     *
+     * @param source label of the edge's source
+     * @return the weight of the removed edge, or 0 if there was none
+     */
+    public int removeSource(final L source) {
+        final int previousWeight = sources.remove(source);
+        checkRep();
+        return previousWeight;
+    }
+
+    /**
+     * Remove the edge out of this vertex to target, if there is one.
+     *
+     * @param target label of the edge's target
+     * @return the weight of the removed edge, or 0 if there was none
+     */
+    public int removeTarget(final L target) {
+        final int previousWeight = targets.remove(target);
+        checkRep();
+        return previousWeight;
+    }
+
+    /**
+     * Add, change, or remove the edge from source into this vertex.
+     *
+     * @param source label of the edge's source
+     * @param weight new weight of the edge, >= 0; 0 removes it
+     * @return the previous weight of the edge, or 0 if there was none
+     */
+    public int setSource(final L source, final int weight) {
+        assert weight >= 0;
+        final int previousWeight = weight == 0 ? sources.remove(source) : sources.put(source, weight);
+        checkRep();
+        return previousWeight;
+    }
+
+    /**
+     * Add, change, or remove the edge out of this vertex to target.
+     *
+     * @param target label of the edge's target
+     * @param weight new weight of the edge, >= 0; 0 removes it
+     * @return the previous weight of the edge, or 0 if there was none
+     */
+    public int setTarget(final L target, final int weight) {
+        assert weight >= 0;
+        final int previousWeight = weight == 0 ? targets.remove(target) : targets.put(target, weight);
+        checkRep();
+        return previousWeight;
+    }
+
+    /**
+     * Add to the weight of the edge from source into this vertex, where an
+     * absent edge has weight 0, removing the edge if its weight becomes 0.
+     *
+     * @param source label of the edge's source
+     * @param delta amount to add; the new weight must be >= 0
+     * @return the previous weight of the edge, or 0 if there was none
+     */
+    public int incrementSource(final L source, final int delta) {
+        final int previousWeight = sources.addTo(source, delta);
+        assert previousWeight + delta >= 0;
+        if (previousWeight + delta == 0) {
+            sources.remove(source);
+        }
+        checkRep();
+        return previousWeight;
+    }
+
+    /**
+     * Add to the weight of the edge out of this vertex to target, where an
+     * absent edge has weight 0, removing the edge if its weight becomes 0.
+     *
+     * @param target label of the edge's target
+     * @param delta amount to add; the new weight must be >= 0
+     * @return the previous weight of the edge, or 0 if there was none
+     */
+    public int incrementTarget(final L target, final int delta) {
+        final int previousWeight = targets.addTo(target, delta);
+        assert previousWeight + delta >= 0;
+        if (previousWeight + delta == 0) {
+            targets.remove(target);
+        }
+        checkRep();
+        return previousWeight;
+    }
+
+    /** Returns an unmodifiable view of the sources of the edges into this vertex, to their weights */
+    public Map<L, Integer> getSources() {
+        return sources.asMap();
+    }
+
+    /** Returns an unmodifiable view of the targets of the edges out of this vertex, to their weights */
+    public Map<L, Integer> getTargets() {
+        return targets.asMap();
+    }
+
+    /** Returns true iff there is an edge out of this vertex to vertex */
+    public boolean isTarget(final L vertex) {
+        return targets.containsKey(vertex);
+    }
+
+    /** Returns true iff there is an edge from vertex into this vertex */
+    public boolean isSource(final L vertex) {
+        return sources.containsKey(vertex);
+    }
+
+    @Override public String toString() {
+        return String.format(
+                "%s -> %s \n" +
+                "%s <- %s",
+                this.label.toString(), this.targets,
+                this.label.toString(), this.sources);
+    }
+
+}
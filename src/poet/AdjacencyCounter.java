@@ -0,0 +1,85 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package poet;
+
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import graph.GraphBuilder;
+
+/**
+ * Counts each pair of consecutive words it is given as an edge of an
+ * affinity graph, and remembers the first and last word seen so that counts
+ * from neighbouring stretches of a corpus can be joined up.
+ */
+final class AdjacencyCounter implements Consumer<String> {
+    
+    private final Consumer<String> vertices;
+    private final BiConsumer<String, String> adjacencies;
+    private String first = null;
+    private String previous = null;
+    private long words = 0;
+    
+    // Abstraction function:
+    //   represents the words seen so far, first to previous, counted into
+    //   the graph or builder that vertices and adjacencies write to
+    // Representation invariant:
+    //   previous == null implies first == null
+    //   words >= 0, and words == 0 iff first == null
+    // Safety from rep exposure:
+    //   the graph or builder written to is shared with the caller on
+    //   purpose; words are immutable
+    
+    /**
+     * @param builder builder to count adjacencies into; every word is added
+     *        as a vertex
+     */
+    AdjacencyCounter(GraphBuilder<String> builder) {
+        this(builder::add, (source, target) -> builder.increment(source, target, 1), null);
+    }
+    
+    /**
+     * @param vertices adds a word that is the very first seen as a vertex
+     * @param adjacencies counts one adjacency from its first word to its
+     *        second, adding both as vertices
+     * @param previous word that precedes the words to be seen, already a
+     *        vertex, so that the adjacency from it to the first word is
+     *        counted too; null if there is none
+     */
+    AdjacencyCounter(Consumer<String> vertices, BiConsumer<String, String> adjacencies,
+            String previous) {
+        this.vertices = vertices;
+        this.adjacencies = adjacencies;
+        this.previous = previous;
+    }
+    
+    @Override public void accept(String word) {
+        if (first == null) {
+            first = word;
+        }
+        words++;
+        if (previous == null) {
+            vertices.accept(word);
+        } else {
+            adjacencies.accept(previous, word);
+        }
+        previous = word;
+    }
+    
+    /** Returns the first word seen, or null if none */
+    String first() {
+        return first;
+    }
+    
+    /** Returns the number of words seen */
+    long words() {
+        return words;
+    }
+    
+    /** Returns the last word seen, or the preceding word if none */
+    String last() {
+        return previous;
+    }
+    
+}
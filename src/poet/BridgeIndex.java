@@ -0,0 +1,552 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package poet;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import graph.ImmutableGraph;
+import graph.ImmutableGraph.Row;
+
+/**
+ * A lazily filled index of the bridge words between pairs of words in an
+ * affinity graph.
+ *
+ * <p>The first lookup of a pair (w1, w2) intersects targetRow(w1) with
+ * sourceRow(w2) and remembers the result; later lookups of the same pair are
+ * two hash lookups, one per word, and allocate nothing. best() remembers only
+ * the max-weight bridge and finds it without building any collection; get()
+ * remembers every bridge and its weight.
+ *
+ * <p>Each kind of lookup remembers at most capacity pairs, in two
+ * generations that approximate least-recently-used eviction. New pairs go
+ * into the current generation; when it is full, it becomes the old one and
+ * the previous old generation is dropped. A hit in the old generation moves
+ * the pair back into the current one. So a pair stays remembered as long as
+ * it is looked up again before about capacity / 2 other new pairs arrive,
+ * and under a skewed load the hot pairs stay remembered however many
+ * distinct pairs are asked for, while memory stays bounded.
+ *
+ * <p>An index made by next() for a changed graph takes over the pairs its
+ * predecessor remembered, except those whose bridges the change may have
+ * altered: the pairs (w1, w2) where an edge out of w1 or an edge into w2
+ * changed. It consults them on a miss, until its own current generation
+ * first fills, so adding text to a poet recomputes only the pairs it
+ * touched and memory stays within twice capacity.
+ *
+ * <p>The graph is immutable, so lookups may run concurrently from any number
+ * of threads.
+ */
+final class BridgeIndex {
+
+    /** Default number of pairs remembered */
+    static final int DEFAULT_CAPACITY = 1 << 20;
+
+    /* bestMemo value for a pair without bridges; never a word */
+    private static final String NO_BRIDGE = "";
+
+    private final ImmutableGraph<String> graph;
+    private final PairMemo<Bridges> memo;
+    private final PairMemo<String> bestMemo;
+
+    // Abstraction function:
+    //   represents the bridges of every pair of words in graph; memo and
+    //   bestMemo cache those of the pairs looked up so far
+    // Representation invariant:
+    //   memo.get(w1, w2) equals Bridges.between(graph, w1, w2)
+    //   bestMemo.get(w1, w2) is maxWeightBridge(graph, w1, w2), or NO_BRIDGE
+    //     if that is null
+    // Safety from rep exposure:
+    //   all fields are private and final; Bridges is immutable
+
+    /**
+     * @param graph affinity graph whose vertices are lowercase words
+     * @param capacity greatest number of pairs to remember, >= 0
+     */
+    BridgeIndex(ImmutableGraph<String> graph, int capacity) {
+        assert capacity >= 0;
+        this.graph = graph;
+        this.memo = new PairMemo<>(capacity);
+        this.bestMemo = new PairMemo<>(capacity);
+    }
+
+    private BridgeIndex(ImmutableGraph<String> graph, PairMemo<Bridges> memo, PairMemo<String> bestMemo) {
+        this.graph = graph;
+        this.memo = memo;
+        this.bestMemo = bestMemo;
+    }
+
+    /**
+     * Make the index of a graph that differs from this index's graph only in
+     * edges out of changedTargets and edges into changedSources, with the
+     * same capacity. The new index reuses the pairs this one remembers that
+     * the change cannot have altered; this index is unaffected.
+     *
+     * @param graph affinity graph whose vertices are lowercase words
+     * @param changedTargets every word whose targets differ between this
+     *        index's graph and graph; must not change afterwards
+     * @param changedSources every word whose sources differ between this
+     *        index's graph and graph; must not change afterwards
+     * @return an index of graph
+     */
+    BridgeIndex next(ImmutableGraph<String> graph, Set<String> changedTargets, Set<String> changedSources) {
+        return new BridgeIndex(graph, memo.next(changedTargets, changedSources),
+                bestMemo.next(changedTargets, changedSources));
+    }
+
+    /**
+     * Returns the bridges from w1 to w2.
+     *
+     * @param w1 lowercase word
+     * @param w2 lowercase word
+     * @return every b such that w1 -> b -> w2 is a path in the graph
+     */
+    Bridges get(String w1, String w2) {
+        return get(w1, w2, null);
+    }
+
+    /**
+     * Returns the bridges from w1 to w2, as get(w1, w2) does, and reports
+     * the lookup to a listener.
+     *
+     * @param w1 lowercase word
+     * @param w2 lowercase word
+     * @param listener receives bridgeLookup(); null for none, in which case
+     *        nothing is timed
+     * @return get(w1, w2)
+     */
+    Bridges get(String w1, String w2, PoetListener listener) {
+        final long start = listener == null ? 0 : System.nanoTime();
+        final Bridges cached = memo.get(w1, w2);
+        final Bridges bridges;
+        if (cached != null) {
+            bridges = cached;
+        } else {
+            bridges = Bridges.between(graph, w1, w2);
+            memo.put(w1, w2, bridges);
+        }
+        if (listener != null) {
+            listener.bridgeLookup(cached != null, bridges.size() > 0, System.nanoTime() - start);
+        }
+        return bridges;
+    }
+
+    /**
+     * Returns the bridge from w1 to w2 on the maximum-weight two-edge path.
+     *
+     * @param w1 lowercase word
+     * @param w2 lowercase word
+     * @return maxWeightBridge(graph, w1, w2)
+     */
+    String best(String w1, String w2) {
+        return best(w1, w2, null);
+    }
+
+    /**
+     * Returns the bridge from w1 to w2 on the maximum-weight two-edge path,
+     * as best(w1, w2) does, and reports the lookup to a listener.
+     *
+     * @param w1 lowercase word
+     * @param w2 lowercase word
+     * @param listener receives bridgeLookup(); null for none, in which case
+     *        nothing is timed
+     * @return maxWeightBridge(graph, w1, w2)
+     */
+    String best(String w1, String w2, PoetListener listener) {
+        final long start = listener == null ? 0 : System.nanoTime();
+        final String cached = bestMemo.get(w1, w2);
+        final String best;
+        if (cached != null) {
+            best = cached == NO_BRIDGE ? null : cached;
+        } else {
+            best = maxWeightBridge(graph, w1, w2);
+            bestMemo.put(w1, w2, best == null ? NO_BRIDGE : best);
+        }
+        if (listener != null) {
+            listener.bridgeLookup(cached != null, best != null, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    /**
+     * Returns the number of pairs currently remembered by get(), counting a
+     * pair twice while it is in both generations; at most capacity
+     */
+    int size() {
+        return memo.size();
+    }
+
+    /**
+     * Find the bridge from w1 to w2 on the maximum-weight two-edge path.
+     * Walks the smaller of targetRow(w1) and sourceRow(w2) by position and
+     * probes the other, without building any intermediate collection.
+     *
+     * @param graph affinity graph
+     * @param w1 lowercase word
+     * @param w2 lowercase word
+     * @return the b maximizing weight(w1 -> b) + weight(b -> w2), the least
+     *         such b if there is a tie, or null if there is no such path
+     */
+    static String maxWeightBridge(ImmutableGraph<String> graph, String w1, String w2) {
+        final Row<String> targets = graph.targetRow(w1);
+        final Row<String> sources = graph.sourceRow(w2);
+        final boolean walkTargets = targets.size() <= sources.size();
+        final Row<String> walked = walkTargets ? targets : sources;
+        final Row<String> probed = walkTargets ? sources : targets;
+
+        String best = null;
+        long bestWeight = 0;
+        for (int i = 0; i < walked.size(); i++) {
+            final String bridge = walked.neighbor(i);
+            final int other = probed.weightOf(bridge);
+            if (other == 0) {
+                continue;
+            }
+            final long weight = (long) walked.weight(i) + other;
+            if (weight > bestWeight || (weight == bestWeight && bridge.compareTo(best) < 0)) {
+                best = bridge;
+                bestWeight = weight;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * The bridge words from one word to another, with the weight of each
+     * two-edge path. Immutable.
+     */
+    static final class Bridges {
+
+        private static final Bridges NONE = new Bridges(new String[0], new long[0]);
+
+        private final String[] words;
+        private final long[] weights;
+        private final int best;
+        private final long totalWeight;
+
+        // Abstraction function:
+        //   represents the paths w1 -> words[i] -> w2 of weight weights[i]
+        // Representation invariant:
+        //   words.length == weights.length, every weight > 0
+        //   best == -1 iff words is empty; otherwise weights[best] is the
+        //     maximum weight, and words[best] is the least such word
+        //   totalWeight is the sum of weights; both are longs, since a path
+        //     weight is the sum of two int edge weights
+        // Safety from rep exposure:
+        //   the arrays never leave this class
+
+        private Bridges(String[] words, long[] weights) {
+            this.words = words;
+            this.weights = weights;
+            int best = -1;
+            long totalWeight = 0;
+            for (int i = 0; i < words.length; i++) {
+                if (best < 0 || weights[i] > weights[best]
+                        || (weights[i] == weights[best] && words[i].compareTo(words[best]) < 0)) {
+                    best = i;
+                }
+                totalWeight += weights[i];
+            }
+            this.best = best;
+            this.totalWeight = totalWeight;
+        }
+
+        /* intersect targetRow(w1) with sourceRow(w2), walking the smaller one */
+        static Bridges between(ImmutableGraph<String> graph, String w1, String w2) {
+            final Row<String> targets = graph.targetRow(w1);
+            final Row<String> sources = graph.sourceRow(w2);
+            final boolean walkTargets = targets.size() <= sources.size();
+            final Row<String> walked = walkTargets ? targets : sources;
+            final Row<String> probed = walkTargets ? sources : targets;
+            if (walked.size() == 0) {
+                return NONE;
+            }
+            final String[] words = new String[walked.size()];
+            final long[] weights = new long[walked.size()];
+            int n = 0;
+            for (int i = 0; i < walked.size(); i++) {
+                final String bridge = walked.neighbor(i);
+                final int other = probed.weightOf(bridge);
+                if (other != 0) {
+                    words[n] = bridge;
+                    weights[n] = (long) walked.weight(i) + other;
+                    n++;
+                }
+            }
+            if (n == 0) {
+                return NONE;
+            }
+            return n == words.length ? new Bridges(words, weights)
+                    : new Bridges(Arrays.copyOf(words, n), Arrays.copyOf(weights, n));
+        }
+
+        /** Returns the number of bridges */
+        int size() {
+            return words.length;
+        }
+
+        /** Returns bridge i, for 0 <= i < size() */
+        String word(int i) {
+            return words[i];
+        }
+
+        /** Returns the weight of the path through bridge i, for 0 <= i < size() */
+        long weight(int i) {
+            return weights[i];
+        }
+
+        /**
+         * Returns the bridge on the maximum-weight path, the least such word
+         * if there is a tie, or null if there are no bridges
+         */
+        String best() {
+            return best < 0 ? null : words[best];
+        }
+
+        /**
+         * Pick a bridge at random, each with probability proportional to the
+         * weight of its path.
+         *
+         * @param random source of randomness
+         * @return a bridge, or null if there are no bridges
+         */
+        String weightedRandom(Random random) {
+            if (words.length == 0) {
+                return null;
+            }
+            long r = nextLong(random, totalWeight);
+            int i = 0;
+            while (r >= weights[i]) {
+                r -= weights[i];
+                i++;
+            }
+            return words[i];
+        }
+
+        /* uniform in [0, bound); the same draws as nextInt(bound) when bound fits an int */
+        private static long nextLong(Random random, long bound) {
+            assert bound > 0;
+            if (bound <= Integer.MAX_VALUE) {
+                return random.nextInt((int) bound);
+            }
+            // reject the top partial range of 63-bit draws, so every value is equally likely
+            long bits;
+            long r;
+            do {
+                bits = random.nextLong() >>> 1;
+                r = bits % bound;
+            } while (bits - r + (bound - 1) < 0);
+            return r;
+        }
+    }
+
+    /*
+     * A map from pairs of words to values that holds at most capacity pairs
+     * in two generations, as described above, and may take over pairs from
+     * the memo of an earlier graph. Thread-safe.
+     */
+    private static final class PairMemo<V> {
+
+        private final int capacity;
+        private final int generationCapacity;
+        private volatile Generations<V> generations;
+        private volatile Inherited<V> inherited;
+
+        // Abstraction function:
+        //   represents the pairs of generations.current and
+        //   generations.previous, with the current value of a pair in both,
+        //   plus the pairs inherited reuses if it is not null
+        // Representation invariant:
+        //   generationCapacity == ceil(capacity / 2)
+        //   generations.current.size() <= generations.limit
+        //     <= min(generationCapacity, capacity - generations.previous.size())
+        //   inherited is null once generations has been rotated
+        // Thread safety argument:
+        //   Generation is thread-safe, and generations is volatile and only
+        //   replaced inside synchronized rotate(), at most once per full
+        //   current generation; a put() that races with a rotation may still
+        //   land in the generation just made old, so the total can exceed
+        //   capacity by at most the number of puts under way
+        //   inherited is volatile and refers to an Inherited, which is
+        //   thread-safe; it only ever changes to null
+
+        PairMemo(int capacity) {
+            this(capacity, null);
+        }
+
+        private PairMemo(int capacity, Inherited<V> inherited) {
+            this.capacity = capacity;
+            this.generationCapacity = capacity - capacity / 2;
+            this.generations = new Generations<>(new Generation<>(), new Generation<>(), generationCapacity);
+            this.inherited = inherited;
+        }
+
+        /**
+         * Returns an empty memo of the same capacity that takes over this
+         * one's pairs, except any (w1, w2) with w1 in changedTargets or w2 in
+         * changedSources, until its current generation first fills
+         */
+        PairMemo<V> next(Set<String> changedTargets, Set<String> changedSources) {
+            // hold only this memo's generations, so successive memos never form a chain
+            return new PairMemo<>(capacity, new Inherited<>(generations, changedTargets, changedSources));
+        }
+
+        /** Returns the value of (w1, w2), or null if it is not remembered */
+        V get(String w1, String w2) {
+            final Generations<V> generations = this.generations;
+            final V value = generations.current.get(w1, w2);
+            if (value != null) {
+                return value;
+            }
+            V old = generations.previous.get(w1, w2);
+            if (old == null) {
+                final Inherited<V> inherited = this.inherited;
+                old = inherited == null ? null : inherited.get(w1, w2);
+            }
+            if (old != null) {
+                put(w1, w2, old);
+            }
+            return old;
+        }
+
+        /** Remember value for (w1, w2) in the current generation, unless it is already there */
+        void put(String w1, String w2, V value) {
+            if (capacity == 0) {
+                return;
+            }
+            while (true) {
+                final Generations<V> generations = this.generations;
+                if (generations.current.putIfRoom(w1, w2, value, generations.limit)) {
+                    return;
+                }
+                rotate(generations);
+            }
+        }
+
+        /* make the full current generation of full the old one, unless another thread already has */
+        private synchronized void rotate(Generations<V> full) {
+            if (generations == full) {
+                inherited = null;
+                final int limit = Math.min(generationCapacity, capacity - full.current.size());
+                generations = new Generations<>(new Generation<>(), full.current, limit);
+            }
+        }
+
+        /** Returns the number of pairs remembered, counting a pair in both generations twice */
+        int size() {
+            final Generations<V> generations = this.generations;
+            return generations.current.size() + generations.previous.size();
+        }
+    }
+
+    /*
+     * The pairs of an earlier graph's PairMemo that are still valid: those
+     * whose first word's targets and second word's sources did not change.
+     * Thread-safe.
+     */
+    private static final class Inherited<V> {
+
+        private final Generations<V> generations;
+        private final Set<String> changedTargets;
+        private final Set<String> changedSources;
+
+        // Abstraction function:
+        //   represents the pairs (w1, w2) of generations.current and
+        //   generations.previous with w1 not in changedTargets and w2 not in
+        //   changedSources
+        // Thread safety argument:
+        //   all fields are final; Generation is thread-safe, and the sets are
+        //   never changed after construction
+
+        Inherited(Generations<V> generations, Set<String> changedTargets, Set<String> changedSources) {
+            this.generations = generations;
+            this.changedTargets = changedTargets;
+            this.changedSources = changedSources;
+        }
+
+        /** Returns the value of (w1, w2), or null if it is not remembered or may have changed */
+        V get(String w1, String w2) {
+            if (changedTargets.contains(w1) || changedSources.contains(w2)) {
+                return null;
+            }
+            final V value = generations.current.get(w1, w2);
+            return value != null ? value : generations.previous.get(w1, w2);
+        }
+    }
+
+    /* The current and old generations of a PairMemo, and how many pairs the current one may take. Immutable. */
+    private static final class Generations<V> {
+
+        private final Generation<V> current;
+        private final Generation<V> previous;
+        private final int limit;
+
+        Generations(Generation<V> current, Generation<V> previous, int limit) {
+            this.current = current;
+            this.previous = previous;
+            this.limit = limit;
+        }
+    }
+
+    /*
+     * The pairs of one generation, keyed by one map per first word so that
+     * no lookup builds a pair key. Thread-safe.
+     */
+    private static final class Generation<V> {
+
+        private final Map<String, Map<String, V>> rows = new ConcurrentHashMap<>();
+        private final AtomicInteger size = new AtomicInteger();
+
+        // Abstraction function:
+        //   represents the pairs (w1, w2) mapped to rows.get(w1).get(w2)
+        // Representation invariant:
+        //   size is at least the number of pairs; it exceeds that only while
+        //     a putIfRoom() is under way
+        // Thread safety argument:
+        //   rows and its values are ConcurrentHashMaps; putIfRoom() reserves
+        //   its slot in size before adding the pair, so concurrent puts never
+        //   take a generation past its limit
+
+        /** Returns the value of (w1, w2), or null if it is not in this generation */
+        V get(String w1, String w2) {
+            final Map<String, V> row = rows.get(w1);
+            return row == null ? null : row.get(w2);
+        }
+
+        /**
+         * Add (w1, w2) with value, unless it is already in this generation.
+         *
+         * @return false iff the pair was not added because this generation
+         *         already holds limit pairs
+         */
+        boolean putIfRoom(String w1, String w2, V value, int limit) {
+            if (size.incrementAndGet() > limit) {
+                size.decrementAndGet();
+                return false;
+            }
+            Map<String, V> row = rows.get(w1);
+            if (row == null) {
+                final Map<String, V> newRow = new ConcurrentHashMap<>();
+                row = rows.putIfAbsent(w1, newRow);
+                if (row == null) {
+                    row = newRow;
+                }
+            }
+            if (row.putIfAbsent(w2, value) != null) {
+                size.decrementAndGet();
+            }
+            return true;
+        }
+
+        /** Returns the number of pairs in this generation */
+        int size() {
+            return size.get();
+        }
+    }
+
+}
@@ -0,0 +1,271 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package poet;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * Splits a UTF-8 corpus file into lowercase words, as GraphPoet defines them,
+ * without reading the whole file onto the heap.
+ *
+ * <p>The file is memory-mapped in chunks and scanned byte by byte. Words made
+ * only of ASCII bytes are lowercased in a reusable scratch buffer; any other
+ * word is decoded first and then split and lowercased with the same rules
+ * as {@link Character#isWhitespace(int)} and {@link String#toLowerCase(Locale)}.
+ * Each word is passed to a sink as soon as it ends, so the caller decides what
+ * to keep.
+ */
+final class CorpusTokenizer {
+
+    /* largest region mapped at once */
+    private static final int CHUNK_SIZE = 1 << 28;
+
+    /* characters read from a Reader at once */
+    private static final int BUFFER_SIZE = 8192;
+
+    private CorpusTokenizer() {
+    }
+
+    /**
+     * Pass every word of a corpus file, in order, to a sink.
+     *
+     * @param corpus UTF-8 text file
+     * @param sink receives each word in lowercase
+     * @throws IOException if the file cannot be found or read
+     */
+    static void tokenize(File corpus, Consumer<String> sink) throws IOException {
+        tokenize(corpus, CHUNK_SIZE, sink);
+    }
+
+    /**
+     * Pass every word of a corpus file, in order, to a sink, mapping at most
+     * chunkSize bytes at a time. Words may span chunks.
+     *
+     * @param corpus UTF-8 text file
+     * @param chunkSize largest region to map at once, > 0
+     * @param sink receives each word in lowercase
+     * @throws IOException if the file cannot be found or read
+     */
+    static void tokenize(File corpus, int chunkSize, Consumer<String> sink) throws IOException {
+        tokenize(corpus, 0, Long.MAX_VALUE, chunkSize, sink);
+    }
+
+    /**
+     * Pass every word that starts in a byte range of a corpus file, in order,
+     * to a sink. A word that starts in the range is read to its end even if
+     * that lies past the range, and a word that started before the range is
+     * skipped, so adjacent ranges together yield every word exactly once.
+     *
+     * @param corpus UTF-8 text file
+     * @param from first byte of the range, >= 0
+     * @param to end of the range (exclusive), >= from; may be past the end
+     *        of the file
+     * @param chunkSize largest region to map at once, > 0
+     * @param sink receives each word in lowercase
+     * @throws IOException if the file cannot be found or read
+     */
+    static void tokenize(File corpus, long from, long to, int chunkSize,
+            Consumer<String> sink) throws IOException {
+        assert 0 <= from && from <= to;
+        assert chunkSize > 0;
+        try (FileChannel channel = FileChannel.open(corpus.toPath(), StandardOpenOption.READ)) {
+            final long size = channel.size();
+            final WordBuffer word = new WordBuffer(sink);
+            // a word already in progress at from belongs to the previous range
+            boolean skipping = from > 0 && from < size && !isWhitespace(byteAt(channel, from - 1));
+            for (long position = from; position < size; position += chunkSize) {
+                final int length = (int) Math.min(chunkSize, size - position);
+                final MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                for (int i = 0; i < length; i++) {
+                    final byte b = chunk.get(i);
+                    if (skipping) {
+                        skipping = !isWhitespace(b);
+                    } else if (isWhitespace(b)) {
+                        word.endWord();
+                        if (position + i >= to) {
+                            return;
+                        }
+                    } else if (word.isEmpty() && position + i >= to) {
+                        return;
+                    } else {
+                        word.append(b);
+                    }
+                }
+            }
+            word.endWord();
+        }
+    }
+
+    /**
+     * Split a corpus file into byte ranges for tokenize(), each starting at a
+     * whitespace byte so that no word crosses a boundary.
+     *
+     * @param corpus the file to split
+     * @param ranges number of ranges wanted, > 0
+     * @return ascending offsets b[0] = 0 <= b[1] <= ... <= b[ranges] = size of
+     *         the file; range i is [b[i], b[i+1]) and may be empty
+     * @throws IOException if the file cannot be found or read
+     */
+    static long[] splitAtWhitespace(File corpus, int ranges) throws IOException {
+        assert ranges > 0;
+        try (FileChannel channel = FileChannel.open(corpus.toPath(), StandardOpenOption.READ)) {
+            final long size = channel.size();
+            final long[] bounds = new long[ranges + 1];
+            bounds[ranges] = size;
+            for (int i = 1; i < ranges; i++) {
+                long position = Math.max(bounds[i - 1], size / ranges * i);
+                while (position < size && !isWhitespace(byteAt(channel, position))) {
+                    position++;
+                }
+                bounds[i] = position;
+            }
+            return bounds;
+        }
+    }
+
+    /**
+     * Pass every word read from in, in order, to a sink, splitting and
+     * lowercasing with the same rules as for a corpus file. Reads in
+     * fixed-size blocks and keeps only the word in progress. Does not close
+     * in.
+     *
+     * @param in text to split
+     * @param sink receives each word in lowercase
+     * @throws IOException if in cannot be read
+     */
+    static void tokenize(Reader in, Consumer<String> sink) throws IOException {
+        final char[] buffer = new char[BUFFER_SIZE];
+        final StringBuilder word = new StringBuilder();
+        for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+            for (int i = 0; i < read; i++) {
+                // every whitespace character is in the BMP, so surrogates
+                // are never whitespace and can be copied one char at a time
+                if (Character.isWhitespace(buffer[i])) {
+                    emit(word, sink);
+                } else {
+                    word.append(buffer[i]);
+                }
+            }
+        }
+        emit(word, sink);
+    }
+
+    private static void emit(StringBuilder word, Consumer<String> sink) {
+        if (word.length() > 0) {
+            sink.accept(word.toString().toLowerCase(Locale.ROOT));
+            word.setLength(0);
+        }
+    }
+
+    /**
+     * Find the last word of a corpus file without reading the rest of it.
+     *
+     * @param corpus UTF-8 text file
+     * @return the last word tokenize() would pass to its sink, or null if
+     *         the file has no words
+     * @throws IOException if the file cannot be found or read
+     */
+    static String lastWord(File corpus) throws IOException {
+        final long size;
+        long start;
+        try (FileChannel channel = FileChannel.open(corpus.toPath(), StandardOpenOption.READ)) {
+            size = channel.size();
+            long end = size;
+            while (end > 0 && isWhitespace(byteAt(channel, end - 1))) {
+                end--;
+            }
+            start = end;
+            while (start > 0 && !isWhitespace(byteAt(channel, start - 1))) {
+                start--;
+            }
+        }
+        // the run may still hold non-ASCII whitespace; keep the last piece
+        final String[] last = new String[1];
+        tokenize(corpus, start, size, CHUNK_SIZE, word -> last[0] = word);
+        return last[0];
+    }
+
+    private static byte byteAt(FileChannel channel, long position) throws IOException {
+        final ByteBuffer one = ByteBuffer.allocate(1);
+        channel.read(one, position);
+        return one.get(0);
+    }
+
+    /* ASCII whitespace as defined by Character.isWhitespace */
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || (b >= 0x09 && b <= 0x0D) || (b >= 0x1C && b <= 0x1F);
+    }
+
+    /* Accumulates the bytes of the current word and emits it when it ends */
+    private static final class WordBuffer {
+
+        private final Consumer<String> sink;
+        private byte[] word = new byte[64];
+        private int length = 0;
+        private boolean ascii = true;
+
+        WordBuffer(Consumer<String> sink) {
+            this.sink = sink;
+        }
+
+        boolean isEmpty() {
+            return length == 0;
+        }
+
+        void append(byte b) {
+            if (length == word.length) {
+                word = Arrays.copyOf(word, length * 2);
+            }
+            if (b < 0) {
+                ascii = false;
+            } else if (b >= 'A' && b <= 'Z') {
+                b += 'a' - 'A';
+            }
+            word[length++] = b;
+        }
+
+        void endWord() {
+            if (length == 0) {
+                return;
+            }
+            if (ascii) {
+                sink.accept(new String(word, 0, length, StandardCharsets.ISO_8859_1));
+            } else {
+                emitDecoded(new String(word, 0, length, StandardCharsets.UTF_8));
+            }
+            length = 0;
+            ascii = true;
+        }
+
+        /* split a decoded word on non-ASCII whitespace, then lowercase it */
+        private void emitDecoded(String text) {
+            int start = 0;
+            for (int i = 0; i < text.length(); ) {
+                final int codePoint = text.codePointAt(i);
+                final int next = i + Character.charCount(codePoint);
+                if (Character.isWhitespace(codePoint)) {
+                    if (i > start) {
+                        sink.accept(text.substring(start, i).toLowerCase(Locale.ROOT));
+                    }
+                    start = next;
+                }
+                i = next;
+            }
+            if (start < text.length()) {
+                sink.accept(text.substring(start).toLowerCase(Locale.ROOT));
+            }
+        }
+    }
+
+}
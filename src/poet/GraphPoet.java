@@ -3,20 +3,29 @@
  */
 package poet;
 
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Random;
-import java.util.Scanner;
 import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
-import java.io.BufferedReader;
 
-import graph.Graph;
+import graph.GraphBuilder;
+import graph.ImmutableGraph;
+import graph.MappedGraph;
+import graph.VersionedGraph;
 
 /**
  * A graph-based poetry generator.
@@ -59,19 +68,59 @@ import graph.Graph;
  * and you MAY add additional methods.
  * You MUST use Graph in your rep, but otherwise the implementation of this
  * class is up to you.
+ * 
+ * <p>More text can be added to the corpus later with addCorpus() and
+ * appendText(), which count its adjacencies into the affinity graph as if
+ * the text had been in the corpus all along. The new text may either start a
+ * separate document or continue from the last word of the text before it.
+ * 
+ * <p>GraphPoet is thread-safe. Poems are generated from an immutable version
+ * of the affinity graph, read once per poem, so any number of threads may
+ * generate poems from one poet at once, even while text is being added;
+ * each poem sees the graph either wholly before or wholly after each
+ * addition.
  */
 public class GraphPoet {
     
-    private final Graph<String> graph = Graph.empty();
-    private final Graph<String> affinityGraph;
-    private final List<String> corpusWords;
+    private final File corpus;
+    private final PoetListener listener;
+    private volatile Affinity affinity;
+    private VersionedGraph<String> updatableGraph = null;
+    private String tail = null;
+    private boolean tailKnown = false;
+    private long labelChars = 0;
+    private volatile List<String> corpusWords = null;
     
     // Abstraction function:
-    //   TODO
+    //   represents the poet whose affinity graph is affinity.graph, derived
+    //   from the text of corpus followed by every text added since, which
+    //   ends with the word tail if tailKnown
     // Representation invariant:
-    //   TODO
+    //   affinity.graph's vertices are non-empty
+    //     lowercase words without whitespace
+    //   updatableGraph is null until text is first added; afterwards
+    //     affinity.graph has the vertices and edges of its current snapshot,
+    //     and is that snapshot once any addition has changed the graph
+    //   if tailKnown, tail is the last word of all the text so far, or null
+    //     if there is none
+    //   if listener != null, labelChars is the total length of the vertices
+    //     of affinity.graph; otherwise it is 0
+    //   corpusWords is null or an unmodifiable list of the words of corpus
     // Safety from rep exposure:
-    //   TODO
+    //   all fields are private; affinity and updatableGraph never leave this
+    //   class; corpusWords is unmodifiable; listener is shared with the
+    //   caller by design, and only receives counts and times
+    // Thread safety argument:
+    //   corpus and listener are final, and listeners must be thread-safe
+    //   affinity is volatile and only ever refers to an Affinity whose graph
+    //     is immutable and whose indexes are thread-safe; a poem reads it
+    //     once, so it uses one version throughout
+    //   updatableGraph, tail, tailKnown and labelChars are guarded by this
+    //     object's lock, which every addition holds until it has published
+    //     its Affinity
+    //   corpusWords is volatile and only ever set to an unmodifiable list of
+    //     the words of corpus; two threads may both compute it, but they
+    //     compute equal lists
     
     /**
      * Create a new poet with the graph from corpus (as described above).
@@ -80,85 +129,369 @@ public class GraphPoet {
      * @throws IOException if the corpus file cannot be found or read
      */
     public GraphPoet(File corpus) throws IOException {
-        corpusWords = extractWordsFromFile(corpus);
-        affinityGraph = generateAffinityGraph(corpusWords);
-        checkRep();
+        this(corpus, 1);
     }
-    /** Returns a list of words in lowercase, separation done at whitespace */
-    private List<String> extractWordsFromFile(File corpus) throws IOException {
-        List<String> words = new ArrayList<>();
-        try (Scanner s = new Scanner(new BufferedReader(new FileReader(corpus)))) {
-            while (s.hasNext()) {
-                words.add(s.next().toLowerCase());
-            }
-        }
-        assert words != Collections.EMPTY_LIST;
-        return words;
-    }
-    // TODO checkRep
-    private void checkRep() {
-        assert affinityGraph != null;
+    
+    /**
+     * Create a new poet with the graph from corpus (as described above),
+     * reading the corpus on several threads. The graph is the same as the one
+     * built by GraphPoet(corpus).
+     * 
+     * @param corpus text file from which to derive the poet's affinity graph
+     * @param threads number of threads to read the corpus with, > 0
+     * @throws IOException if the corpus file cannot be found or read
+     */
+    public GraphPoet(File corpus, int threads) throws IOException {
+        this(corpus, threads, null);
     }
+    
     /**
-     * Generates a word affinity graph
+     * Create a new poet with the graph from corpus (as described above),
+     * reading the corpus on several threads, and report how it loads the
+     * corpus and writes poems to a listener. The poet is otherwise the same
+     * as the one built by GraphPoet(corpus, threads).
      * 
-     * @return a graph whose vertices are lowercase words
-     *         and edges are the counts of adjacencies
+     * @param corpus text file from which to derive the poet's affinity graph
+     * @param threads number of threads to read the corpus with, > 0
+     * @param listener receives the poet's events from any thread; null for
+     *        none, in which case the poet does no timing at all
+     * @throws IOException if the corpus file cannot be found or read
      */
-    private Graph<String> generateAffinityGraph(List<String> words){
-        Graph<String> graph = Graph.empty();
-        
-        for (int i = 0; i < words.size(); i++) {
-            String source = words.get(i);
-            graph.add(source);
-            if ((i + 1) >= words.size()) {
-                break;
+    public GraphPoet(File corpus, int threads, PoetListener listener) throws IOException {
+        this.corpus = corpus;
+        this.listener = listener;
+        final long start = System.nanoTime();
+        final GraphBuilder<String> counts = ParallelCorpusLoader.load(corpus, threads);
+        final long loadedAt = System.nanoTime();
+        // the counts release their maps as they are copied, so they are
+        // never all alive together with the whole frozen graph
+        final ImmutableGraph<String> graph = counts.freeze();
+        affinity = new Affinity(graph);
+        if (listener != null) {
+            final long builtAt = System.nanoTime();
+            // the only walk over the graph; additions keep labelChars up to date
+            int edges = 0;
+            long adjacencies = 0;
+            for (String vertex : graph.vertices()) {
+                for (int weight : graph.targets(vertex).values()) {
+                    edges++;
+                    adjacencies += weight;
+                }
+                labelChars += vertex.length();
             }
-            String target = words.get(i + 1);
-            int prev = graph.set(source, target, 1);
-            graph.set(source, target, prev + 1);
+            // every word but the first is the target of one adjacency
+            listener.corpusLoaded(graph.vertices().isEmpty() ? 0 : adjacencies + 1, loadedAt - start);
+            reportBuilt(graph.vertices().size(), edges, builtAt - loadedAt);
         }
-        return graph;
+        checkRep();
+    }
+    
+    /**
+     * Create a new poet from a graph file written by save(), without reading
+     * the corpus. The graph is memory-mapped rather than rebuilt, so this
+     * takes time proportional only to checksumming the file.
+     * 
+     * @param corpus text file from which the graph file was derived; read
+     *        only by getCorpusWords() and by the first addition that
+     *        continues from the last word
+     * @param graphFile file written by save() for a poet of corpus
+     * @throws IOException if the graph file cannot be read or is corrupt
+     */
+    public GraphPoet(File corpus, File graphFile) throws IOException {
+        this.corpus = corpus;
+        this.listener = null;
+        affinity = new Affinity(MappedGraph.open(graphFile));
+        checkRep();
+    }
+    
+    private void checkRep() {
+        assert affinity != null;
+        assert corpus != null;
     }
+    
     /**
      * Generate a poem.
      * 
+     * <p>Each bridge is the one on the maximum-weight two-edge path; if
+     * several paths tie, the bridge that comes first in String order is used,
+     * so the same input always gives the same poem.
+     * 
      * @param input string from which to create the poem
      * @return poem (as described above)
      */
     public String poem(String input) {
-    	String[] inputWords = input.split("\\s");
-        StringBuilder poem = new StringBuilder(input);
-        int fromIndex = 0;
-        
-        for (int i = 0; i < inputWords.length; i++) {
-            if (i + 1 >= inputWords.length) {
-                break;
-            }
-            Map<String, Integer> word1Targets = 
-                    affinityGraph.targets(inputWords[i].toLowerCase());
-            Map<String, Integer> word2Sources =
-                    affinityGraph.sources(inputWords[i+1].toLowerCase());
-            Set<String> probableBridges = word1Targets.keySet();
-            
-            List<String> allBridges = probableBridges.stream()
-                    .filter(possibleBridge -> word2Sources.containsKey(possibleBridge))
-                    .collect(Collectors.toList());
-            
-            if (!allBridges.isEmpty()) {
-                Random rand = new Random();
-                int  n = rand.nextInt(allBridges.size());
-                String bridge = allBridges.get(n);
-                // get the index of word 2 from the poem
-                int insertAt = poem.indexOf(inputWords[i+1], fromIndex);
-                // insert the bridge word before that word
-                poem.insert(insertAt, bridge + " ");
-            }
+        return compose(input, null);
+    }
+    
+    /**
+     * Generate a poem, choosing each bridge at random from all the two-edge
+     * paths between its neighbours, with probability proportional to the
+     * weight of the path. Otherwise as described above.
+     * 
+     * @param input string from which to create the poem
+     * @param random source of randomness; a Random with the same seed gives
+     *        the same poem
+     * @return poem with weighted-random bridges
+     */
+    public String poem(String input, Random random) {
+        assert random != null;
+        return compose(input, random);
+    }
+    
+    /**
+     * Generate a poem for each of several inputs, in parallel on the common
+     * fork-join pool.
+     * 
+     * @param inputs strings from which to create poems
+     * @return list whose i-th element is poem(inputs.get(i))
+     */
+    public List<String> poems(List<String> inputs) {
+        return inputs.parallelStream()
+                .map(this::poem)
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Write a poem to out, as poem(input) would return it. Takes time linear
+     * in the length of the poem.
+     * 
+     * @param input string from which to create the poem
+     * @param out receives the poem
+     * @throws IOException if out cannot be written
+     */
+    public void poem(CharSequence input, Appendable out) throws IOException {
+        final long start = listener == null ? 0 : System.nanoTime();
+        new PoemWriter(out, bridges(null)).write(input);
+        written(start);
+    }
+    
+    /**
+     * Write a poem to out, as poem(input) would return it for all of the text
+     * read from in. Reads and writes incrementally, keeping only the previous
+     * word, so inputs of any length can be turned into poems. Flushes but
+     * does not close out, and does not close in.
+     * 
+     * @param in text from which to create the poem
+     * @param out receives the poem
+     * @throws IOException if in cannot be read or out cannot be written
+     */
+    public void poem(Reader in, Writer out) throws IOException {
+        final long start = listener == null ? 0 : System.nanoTime();
+        final Writer buffered = new BufferedWriter(out);
+        new PoemWriter(buffered, bridges(null)).write(in);
+        buffered.flush();
+        written(start);
+    }
+    
+    /* poem with max-weight bridges if random is null, weighted-random ones otherwise */
+    private String compose(String input, Random random) {
+        final long start = listener == null ? 0 : System.nanoTime();
+        // bridges add roughly one word per input word; capped at the largest array size
+        final StringBuilder poem = new StringBuilder((int) Math.min(Integer.MAX_VALUE - 8, 2L * input.length()));
+        try {
+            new PoemWriter(poem, bridges(random)).write(input);
+        } catch (IOException e) {
+            throw new AssertionError("StringBuilder does not throw", e);
         }
+        written(start);
         checkRep();
         return poem.toString();
     }
-
+    
+    /**
+     * Get the words that most often follow a word in the text so far.
+     * Takes O(k) time once the word has been looked up, however many
+     * different words follow it.
+     * 
+     * @param word a word, matched case-insensitively
+     * @param k greatest number of words wanted, >= 0
+     * @return a read-only map of the min(k, n) lowercase words that most
+     *         often follow word, where n is the number of different words
+     *         that do, to the number of times each does, iterating from most
+     *         to least frequent; words that follow equally often are in
+     *         String order
+     */
+    public Map<String, Integer> topSuccessors(String word, int k) {
+        assert k >= 0;
+        return affinity.successors.top(word.toLowerCase(Locale.ROOT), k);
+    }
+    
+    /* bridge chooser: max-weight if random is null, weighted-random otherwise */
+    private BiFunction<String, String, String> bridges(Random random) {
+        final BridgeIndex bridgeIndex = affinity.bridges;
+        final PoetListener listener = this.listener;
+        if (random == null) {
+            if (listener == null) {
+                return bridgeIndex::best;
+            }
+            return (word1, word2) -> bridgeIndex.best(word1, word2, listener);
+        }
+        return (word1, word2) -> bridgeIndex.get(word1, word2, listener).weightedRandom(random);
+    }
+    
+    /* report a poem started at start, if there is a listener */
+    private void written(long start) {
+        if (listener != null) {
+            listener.poemWritten(System.nanoTime() - start);
+        }
+    }
+    
+    /* report a graph of vertices vertices, whose labels total labelChars, built in nanos */
+    private void reportBuilt(int vertices, int edges, long nanos) {
+        // per vertex a String with its char array, then offsets into the edge
+        // arrays; per edge a neighbor and weight, indexed by source and by target
+        final long bytes = 48L * vertices + 2 * labelChars + 16L * edges;
+        listener.graphBuilt(vertices, edges, bytes, nanos);
+    }
+    
+    /**
+     * Add the words of a text file to the corpus, as a separate document.
+     * Equivalent to addCorpus(file, false).
+     * 
+     * @param file UTF-8 text file
+     * @throws IOException if the file cannot be found or read
+     */
+    public void addCorpus(File file) throws IOException {
+        addCorpus(file, false);
+    }
+    
+    /**
+     * Add the words of a text file to the corpus: count every adjacency
+     * between its words into the affinity graph. Poems generated afterwards
+     * use the new graph. Takes time linear in the length of the file.
+     * 
+     * @param file UTF-8 text file
+     * @param continueFromLast if true, the text continues from the last word
+     *        of the text before it, so the adjacency from that word to the
+     *        first word of the file is counted too; if false, the file is a
+     *        separate document
+     * @throws IOException if the file cannot be found or read; the graph is
+     *         then unchanged
+     */
+    public void addCorpus(File file, boolean continueFromLast) throws IOException {
+        add(sink -> CorpusTokenizer.tokenize(file, sink), continueFromLast);
+    }
+    
+    /**
+     * Add all of the text read from in to the corpus, as a separate document.
+     * Equivalent to addCorpus(in, false).
+     * 
+     * @param in text to add; not closed
+     * @throws IOException if in cannot be read
+     */
+    public void addCorpus(Reader in) throws IOException {
+        addCorpus(in, false);
+    }
+    
+    /**
+     * Add all of the text read from in to the corpus, as addCorpus(File,
+     * boolean) does for a file. Reads incrementally and does not close in.
+     * 
+     * @param in text to add
+     * @param continueFromLast whether the text continues from the last word
+     *        of the text before it, as for addCorpus(File, boolean)
+     * @throws IOException if in cannot be read; the graph is then unchanged
+     */
+    public void addCorpus(Reader in, boolean continueFromLast) throws IOException {
+        add(sink -> CorpusTokenizer.tokenize(in, sink), continueFromLast);
+    }
+    
+    /**
+     * Add some text to the corpus, as a separate document. Equivalent to
+     * appendText(text, false).
+     * 
+     * @param text text to add
+     */
+    public void appendText(String text) {
+        appendText(text, false);
+    }
+    
+    /**
+     * Add some text to the corpus, as addCorpus(File, boolean) does for a
+     * file.
+     * 
+     * @param text text to add
+     * @param continueFromLast whether the text continues from the last word
+     *        of the text before it, as for addCorpus(File, boolean)
+     * @throws UncheckedIOException if continueFromLast is true, this is the
+     *         first addition to continue, and the last word of the corpus
+     *         file cannot be read
+     */
+    public void appendText(String text, boolean continueFromLast) {
+        try {
+            addCorpus(new StringReader(text), continueFromLast);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /* A source of lowercase words */
+    private interface Words {
+        void tokenize(Consumer<String> sink) throws IOException;
+    }
+    
+    /*
+     * Count words into the affinity graph as one new version, then publish it
+     * with new indexes that keep the bridges and rankings the words did not
+     * touch; the old indexes stay with the old version, so poems already
+     * under way keep using bridges consistent with their graph.
+     */
+    private synchronized void add(Words words, boolean continueFromLast) throws IOException {
+        final long start = listener == null ? 0 : System.nanoTime();
+        if (updatableGraph == null) {
+            updatableGraph = new VersionedGraph<>(affinity.graph);
+        }
+        if (continueFromLast && !tailKnown) {
+            tail = CorpusTokenizer.lastWord(corpus);
+            tailKnown = true;
+        }
+        final String previous = continueFromLast ? tail : null;
+        final long countingAt = listener == null ? 0 : System.nanoTime();
+        final AdjacencyCounter[] counter = new AdjacencyCounter[1];
+        final long[] newLabelChars = { 0 };
+        final long version = updatableGraph.version();
+        final Set<String> changedTargets = new HashSet<>();
+        final Set<String> changedSources = new HashSet<>();
+        try {
+            updatableGraph.apply(graph -> {
+                counter[0] = new AdjacencyCounter(graph::add, (source, target) -> {
+                    graph.increment(source, target, 1);
+                    changedTargets.add(source);
+                    changedSources.add(target);
+                }, previous);
+                final Consumer<String> sink = listener == null ? counter[0] : word -> {
+                    if (!graph.vertices().contains(word)) {
+                        newLabelChars[0] += word.length();
+                    }
+                    counter[0].accept(word);
+                };
+                try {
+                    words.tokenize(sink);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        final long countedAt = listener == null ? 0 : System.nanoTime();
+        if (counter[0].first() != null) {
+            tail = counter[0].last();
+            tailKnown = true;
+        }
+        final ImmutableGraph<String> updated = updatableGraph.snapshot();
+        if (updatableGraph.version() != version) {
+            affinity = new Affinity(updated, affinity, changedTargets, changedSources);
+        }
+        if (listener != null) {
+            labelChars += newLabelChars[0];
+            listener.corpusLoaded(counter[0].words(), countedAt - countingAt);
+            reportBuilt(updated.vertices().size(), updatableGraph.edgeCount(),
+                    (countingAt - start) + (System.nanoTime() - countedAt));
+        }
+        checkRep();
+    }
+    
     /** 
      * Returns the words in the affinity graph generated from the corpus
      * 
@@ -166,15 +499,75 @@ public class GraphPoet {
      * non-newline characters. They are delimited in the corpus by spaces, newlines, 
      * or the ends of the file.
      * 
+     * <p>The poet does not keep the corpus words after building its graph, so
+     * the first call reads the corpus file again and keeps the result. Text
+     * added with addCorpus() or appendText() is not included.
+     * 
      * @return list of words in the order they appear in the corpus. All words are
      *         in lowercase
+     * @throws UncheckedIOException if the corpus file can no longer be read
      */
     public List<String> getCorpusWords() {
-        return Collections.unmodifiableList(corpusWords);
+        List<String> cached = corpusWords;
+        if (cached == null) {
+            final List<String> words = new ArrayList<>();
+            try {
+                CorpusTokenizer.tokenize(corpus, words::add);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            cached = Collections.unmodifiableList(words);
+            corpusWords = cached;
+        }
+        return cached;
+    }
+    
+    /**
+     * Save this poet's affinity graph, so that GraphPoet(corpus, graphFile)
+     * can recreate the poet without rebuilding the graph.
+     * 
+     * @param graphFile file to write, replaced if it exists
+     * @throws IOException if the file cannot be written
+     */
+    public void save(File graphFile) throws IOException {
+        MappedGraph.write(affinity.graph, graphFile);
     }
     
     @Override public String toString() {
-        return affinityGraph.toString();
+        return affinity.graph.toString();
+    }
+    
+    /* One version of the affinity graph, with the indexes of its bridges and successors */
+    private static final class Affinity {
+        
+        private final ImmutableGraph<String> graph;
+        private final BridgeIndex bridges;
+        private final SuccessorIndex successors;
+        
+        // Abstraction function:
+        //   represents affinity graph graph, with bridges and successors
+        //   indexing it
+        // Representation invariant:
+        //   bridges and successors index graph
+        // Safety from rep exposure:
+        //   fields are only read by GraphPoet; graph is immutable
+        // Thread safety argument:
+        //   all fields are final; graph is immutable, and BridgeIndex and
+        //   SuccessorIndex are thread-safe
+        
+        Affinity(ImmutableGraph<String> graph) {
+            this.graph = graph;
+            this.bridges = new BridgeIndex(graph, BridgeIndex.DEFAULT_CAPACITY);
+            this.successors = new SuccessorIndex(graph, SuccessorIndex.DEFAULT_CAPACITY);
+        }
+        
+        /* the affinity of graph, which differs from previous.graph only in edges out of changedTargets and into changedSources */
+        Affinity(ImmutableGraph<String> graph, Affinity previous,
+                Set<String> changedTargets, Set<String> changedSources) {
+            this.graph = graph;
+            this.bridges = previous.bridges.next(graph, changedTargets, changedSources);
+            this.successors = previous.successors.next(graph, changedTargets);
+        }
     }
     
 }
@@ -0,0 +1,156 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package poet;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import graph.Graph;
+import graph.GraphBuilder;
+
+/**
+ * Builds a corpus affinity graph on several threads.
+ * 
+ * <p>The corpus is split into byte ranges that start at whitespace. Each
+ * range is tokenized and counted into its own GraphBuilder on a separate
+ * thread, and the shard graphs are then merged in order into one more
+ * builder. The one adjacency that crosses each boundary (last word of a
+ * shard, first word of the next non-empty shard) is added during the merge,
+ * so the result has the same vertices and edge weights as counting the
+ * corpus sequentially.
+ *
+ * <p>Before merging, every vertex of the merged builder is added with its
+ * adjacency maps sized for the sum of its degrees over the shards, an upper
+ * bound on its merged degree, so the merge never rehashes a row.
+ */
+final class ParallelCorpusLoader {
+    
+    /* bytes mapped at once by each shard */
+    private static final int CHUNK_SIZE = 1 << 26;
+    
+    private ParallelCorpusLoader() {
+    }
+    
+    /**
+     * Count the affinity graph of a corpus file.
+     * 
+     * @param corpus UTF-8 text file
+     * @param shards number of ranges to count concurrently, > 0
+     * @return a builder whose vertices are the lowercase words of corpus and
+     *         whose edges count their adjacencies
+     * @throws IOException if the corpus file cannot be found or read
+     */
+    static GraphBuilder<String> load(File corpus, int shards) throws IOException {
+        assert shards > 0;
+        if (shards == 1) {
+            final GraphBuilder<String> builder = new GraphBuilder<>();
+            CorpusTokenizer.tokenize(corpus, new AdjacencyCounter(builder));
+            return builder;
+        }
+        
+        final long[] bounds = CorpusTokenizer.splitAtWhitespace(corpus, shards);
+        final ExecutorService executor = Executors.newFixedThreadPool(shards);
+        try {
+            final List<Future<Shard>> futures = new ArrayList<>(shards);
+            for (int i = 0; i < shards; i++) {
+                final long from = bounds[i];
+                final long to = bounds[i + 1];
+                futures.add(executor.submit(() -> Shard.count(corpus, from, to)));
+            }
+            final List<Shard> counted = new ArrayList<>(shards);
+            for (Future<Shard> future : futures) {
+                final Shard shard = future.get();
+                if (shard.first != null) {
+                    counted.add(shard);
+                }
+            }
+            return merge(counted);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while loading " + corpus);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    /*
+     * Merge non-empty shards, in corpus order, into a builder with pre-sized
+     * rows; each shard is dropped from the list once merged.
+     */
+    private static GraphBuilder<String> merge(List<Shard> shards) {
+        final Map<String, int[]> degrees = new HashMap<>();
+        for (int i = 0; i < shards.size(); i++) {
+            final Graph<String> graph = shards.get(i).graph;
+            for (String vertex : graph.vertices()) {
+                final int[] degree = degrees.computeIfAbsent(vertex, v -> new int[2]);
+                degree[0] += graph.targets(vertex).size();
+                degree[1] += graph.sources(vertex).size();
+            }
+            if (i > 0) {
+                degrees.get(shards.get(i - 1).last)[0]++;
+                degrees.get(shards.get(i).first)[1]++;
+            }
+        }
+        final GraphBuilder<String> merged = new GraphBuilder<>(degrees.size());
+        for (Map.Entry<String, int[]> vertex : degrees.entrySet()) {
+            merged.add(vertex.getKey(), vertex.getValue()[0], vertex.getValue()[1]);
+        }
+        
+        String last = null;
+        for (int i = 0; i < shards.size(); i++) {
+            final Shard shard = shards.set(i, null);
+            for (String source : shard.graph.vertices()) {
+                for (Map.Entry<String, Integer> edge : shard.graph.targets(source).entrySet()) {
+                    merged.increment(source, edge.getKey(), edge.getValue());
+                }
+            }
+            if (last != null) {
+                merged.increment(last, shard.first, 1);
+            }
+            last = shard.last;
+        }
+        return merged;
+    }
+    
+    /* The counts of one byte range */
+    private static final class Shard {
+        
+        private final Graph<String> graph;
+        private final String first;
+        private final String last;
+        
+        private Shard(Graph<String> graph, String first, String last) {
+            this.graph = graph;
+            this.first = first;
+            this.last = last;
+        }
+        
+        static Shard count(File corpus, long from, long to) throws IOException {
+            final GraphBuilder<String> builder = new GraphBuilder<>();
+            final AdjacencyCounter counter = new AdjacencyCounter(builder);
+            CorpusTokenizer.tokenize(corpus, from, to, CHUNK_SIZE, counter);
+            return new Shard(builder.build(), counter.first(), counter.last());
+        }
+    }
+    
+}
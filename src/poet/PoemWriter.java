@@ -0,0 +1,129 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package poet;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Locale;
+import java.util.function.BiFunction;
+
+/**
+ * Writes a poem word by word to an Appendable in a single pass.
+ *
+ * <p>Each input word is appended as given, preceded by the bridge (if any)
+ * between it and the word before, and words are separated by single spaces.
+ * Only the previous word is kept, so the time taken is linear in the length
+ * of the poem and the memory used does not depend on it.
+ */
+final class PoemWriter {
+
+    /* characters read from a Reader at once */
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Appendable out;
+    private final BiFunction<String, String, String> bridges;
+    private String previous = null;
+
+    // Abstraction function:
+    //   represents a poem being written to out, whose last input word, in
+    //   lowercase, is previous, or which is empty if previous is null
+    // Representation invariant:
+    //   previous is null or a non-empty string without whitespace
+    // Safety from rep exposure:
+    //   all fields are private; out and bridges are shared with the caller
+    //   by design
+
+    /**
+     * @param out receives the poem
+     * @param bridges maps lowercase words (w1, w2) to the lowercase bridge to
+     *        insert between them, or null for none
+     */
+    PoemWriter(Appendable out, BiFunction<String, String, String> bridges) {
+        this.out = out;
+        this.bridges = bridges;
+    }
+
+    /**
+     * Append every word of some text, in order, to the poem. Words are
+     * delimited by runs of whitespace, as defined by
+     * {@link Character#isWhitespace(int)}, and by the ends of the text.
+     *
+     * @param text text to append
+     * @throws IOException if out cannot be written
+     */
+    void write(CharSequence text) throws IOException {
+        int start = -1;
+        for (int i = 0; i < text.length(); ) {
+            final int codePoint = Character.codePointAt(text, i);
+            final int next = i + Character.charCount(codePoint);
+            if (Character.isWhitespace(codePoint)) {
+                if (start >= 0) {
+                    word(text, start, i);
+                    start = -1;
+                }
+            } else if (start < 0) {
+                start = i;
+            }
+            i = next;
+        }
+        if (start >= 0) {
+            word(text, start, text.length());
+        }
+    }
+
+    /**
+     * Append every word read from in, in order, to the poem, as
+     * write(CharSequence) would for the whole text. Reads in fixed-size
+     * blocks and keeps only the word in progress, so memory does not grow
+     * with the length of the text. Does not close in.
+     *
+     * @param in text to append
+     * @throws IOException if in cannot be read or out cannot be written
+     */
+    void write(Reader in) throws IOException {
+        final char[] buffer = new char[BUFFER_SIZE];
+        final StringBuilder word = new StringBuilder();
+        for (int n = in.read(buffer); n != -1; n = in.read(buffer)) {
+            for (int i = 0; i < n; i++) {
+                // every whitespace character is in the BMP, so a surrogate
+                // is never whitespace and pairs stay together
+                if (!Character.isWhitespace(buffer[i])) {
+                    word.append(buffer[i]);
+                } else if (word.length() > 0) {
+                    word(word, 0, word.length());
+                    word.setLength(0);
+                }
+            }
+        }
+        if (word.length() > 0) {
+            word(word, 0, word.length());
+        }
+    }
+
+    /**
+     * Append one word to the poem.
+     *
+     * @param word non-empty word without whitespace
+     * @throws IOException if out cannot be written
+     */
+    void word(String word) throws IOException {
+        word(word, 0, word.length());
+    }
+
+    /* append text[start, end) as the next word */
+    private void word(CharSequence text, int start, int end) throws IOException {
+        assert start < end;
+        final String lower = text.subSequence(start, end).toString().toLowerCase(Locale.ROOT);
+        if (previous != null) {
+            out.append(' ');
+            final String bridge = bridges.apply(previous, lower);
+            if (bridge != null) {
+                out.append(bridge).append(' ');
+            }
+        }
+        out.append(text, start, end);
+        previous = lower;
+    }
+
+}
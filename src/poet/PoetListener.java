@@ -0,0 +1,56 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package poet;
+
+/**
+ * Receives events from a GraphPoet as it loads its corpus and writes poems.
+ *
+ * <p>Every method does nothing by default, so a listener need only
+ * override the events it wants. Methods may be called from several threads
+ * at once, and are called on the poet's hot paths, so they should be
+ * thread-safe and quick. A poet without a listener does no timing at all.
+ */
+public interface PoetListener {
+
+    /**
+     * Called when text has been read into the affinity graph, by the
+     * constructor or by an addition.
+     * 
+     * @param words number of words read
+     * @param nanos time taken to read and count them
+     */
+    default void corpusLoaded(long words, long nanos) {
+    }
+
+    /**
+     * Called when a new version of the affinity graph is ready for poems.
+     * 
+     * @param vertices number of vertices in the graph
+     * @param edges number of edges in the graph
+     * @param estimatedBytes rough size of the graph in a compact layout: the
+     *        label strings, plus two ints per vertex and four per edge
+     * @param nanos time taken to build the graph after its text was counted
+     */
+    default void graphBuilt(int vertices, int edges, long estimatedBytes, long nanos) {
+    }
+
+    /**
+     * Called after each lookup of the bridge between a pair of words.
+     * 
+     * @param cached whether the result was already in the bridge cache
+     * @param found whether there is a bridge
+     * @param nanos time taken by the lookup
+     */
+    default void bridgeLookup(boolean cached, boolean found, long nanos) {
+    }
+
+    /**
+     * Called after each poem is written.
+     * 
+     * @param nanos time taken to write the poem
+     */
+    default void poemWritten(long nanos) {
+    }
+
+}
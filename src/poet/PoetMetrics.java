@@ -0,0 +1,185 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package poet;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A PoetListener that aggregates the events of one or more poets into
+ * counts, rates and a poem latency histogram.
+ *
+ * <p>Every event is recorded with a few LongAdder or atomic updates, so many
+ * threads can write poems at once without contending. Can be registered
+ * with an MBeanServer, e.g. the platform one, as an MXBean.
+ */
+public final class PoetMetrics implements PoetListener, PoetMetricsMXBean {
+
+    /* one bucket per power of two of nanoseconds */
+    private static final int BUCKETS = 64;
+
+    private final LongAdder corpusWords = new LongAdder();
+    private final LongAdder corpusNanos = new LongAdder();
+    private volatile Build build = new Build(0, 0, 0, 0);
+    private final LongAdder poems = new LongAdder();
+    private final LongAdder poemNanos = new LongAdder();
+    private final AtomicLongArray poemLatencies = new AtomicLongArray(BUCKETS);
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder lookupNanos = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder found = new LongAdder();
+    private final LongAdder missNanos = new LongAdder();
+
+    // Abstraction function:
+    //   represents the events received: corpusWords words read in
+    //   corpusNanos ns; the latest graph built, described by build; poems
+    //   poems written in poemNanos ns, poemLatencies[i] of them taking
+    //   [2^i, 2^(i+1)) ns; lookups bridge lookups taking lookupNanos ns, of
+    //   which hits came from the cache, found found a bridge, and the rest
+    //   took missNanos ns
+    // Representation invariant:
+    //   poemLatencies has BUCKETS elements
+    //   hits <= lookups, found <= lookups
+    // Safety from rep exposure:
+    //   all fields are private; getPoemLatencyHistogram() returns a copy
+    // Thread safety argument:
+    //   the adders and poemLatencies are thread-safe; build is volatile and
+    //   refers to an immutable Build. Counts read while events arrive may
+    //   be a moment apart from one another.
+
+    /** Create metrics with every count 0. */
+    public PoetMetrics() {
+    }
+
+    @Override public void corpusLoaded(long words, long nanos) {
+        corpusWords.add(words);
+        corpusNanos.add(nanos);
+    }
+
+    @Override public void graphBuilt(int vertices, int edges, long estimatedBytes, long nanos) {
+        build = new Build(vertices, edges, estimatedBytes, nanos);
+    }
+
+    @Override public void bridgeLookup(boolean cached, boolean found, long nanos) {
+        lookups.increment();
+        lookupNanos.add(nanos);
+        if (cached) {
+            hits.increment();
+        } else {
+            missNanos.add(nanos);
+        }
+        if (found) {
+            this.found.increment();
+        }
+    }
+
+    @Override public void poemWritten(long nanos) {
+        poems.increment();
+        poemNanos.add(nanos);
+        poemLatencies.incrementAndGet(63 - Long.numberOfLeadingZeros(Math.max(nanos, 1)));
+    }
+
+    @Override public long getCorpusWords() {
+        return corpusWords.sum();
+    }
+
+    @Override public double getTokenizationRate() {
+        final long nanos = corpusNanos.sum();
+        return nanos == 0 ? 0.0 : corpusWords.sum() * 1e9 / nanos;
+    }
+
+    @Override public long getGraphBuildNanos() {
+        return build.nanos;
+    }
+
+    @Override public int getVertices() {
+        return build.vertices;
+    }
+
+    @Override public int getEdges() {
+        return build.edges;
+    }
+
+    @Override public long getEstimatedBytes() {
+        return build.estimatedBytes;
+    }
+
+    @Override public long getPoems() {
+        return poems.sum();
+    }
+
+    @Override public double getMeanPoemNanos() {
+        return ratio(poemNanos.sum(), poems.sum());
+    }
+
+    @Override public long[] getPoemLatencyHistogram() {
+        final long[] histogram = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            histogram[i] = poemLatencies.get(i);
+        }
+        return histogram;
+    }
+
+    @Override public long getBridgeLookups() {
+        return lookups.sum();
+    }
+
+    @Override public double getBridgeHitRatio() {
+        return ratio(hits.sum(), lookups.sum());
+    }
+
+    @Override public double getBridgeFoundRatio() {
+        return ratio(found.sum(), lookups.sum());
+    }
+
+    @Override public double getMeanLookupNanos() {
+        return ratio(lookupNanos.sum(), lookups.sum());
+    }
+
+    @Override public double getMeanMissNanos() {
+        return ratio(missNanos.sum(), lookups.sum() - hits.sum());
+    }
+
+    @Override public void reset() {
+        corpusWords.reset();
+        corpusNanos.reset();
+        build = new Build(0, 0, 0, 0);
+        poems.reset();
+        poemNanos.reset();
+        for (int i = 0; i < BUCKETS; i++) {
+            poemLatencies.set(i, 0);
+        }
+        lookups.reset();
+        lookupNanos.reset();
+        hits.reset();
+        found.reset();
+        missNanos.reset();
+    }
+
+    /* numerator / denominator, or 0 if the denominator is not positive */
+    private static double ratio(long numerator, long denominator) {
+        return denominator <= 0 ? 0.0 : (double) numerator / denominator;
+    }
+
+    @Override public String toString() {
+        return getPoems() + " poems, mean " + Math.round(getMeanPoemNanos()) + " ns; "
+                + getBridgeLookups() + " bridge lookups, hit ratio " + getBridgeHitRatio();
+    }
+
+    /* The description of one graph build */
+    private static final class Build {
+        private final int vertices;
+        private final int edges;
+        private final long estimatedBytes;
+        private final long nanos;
+
+        Build(int vertices, int edges, long estimatedBytes, long nanos) {
+            this.vertices = vertices;
+            this.edges = edges;
+            this.estimatedBytes = estimatedBytes;
+            this.nanos = nanos;
+        }
+    }
+
+}
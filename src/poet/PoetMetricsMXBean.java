@@ -0,0 +1,59 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package poet;
+
+/**
+ * JMX management interface of PoetMetrics.
+ */
+public interface PoetMetricsMXBean {
+
+    /** Returns the number of corpus words read */
+    long getCorpusWords();
+
+    /** Returns the rate at which corpus words were read, in words per second */
+    double getTokenizationRate();
+
+    /** Returns the time taken to build the latest affinity graph, in nanoseconds */
+    long getGraphBuildNanos();
+
+    /** Returns the number of vertices in the latest affinity graph */
+    int getVertices();
+
+    /** Returns the number of edges in the latest affinity graph */
+    int getEdges();
+
+    /** Returns a rough estimate of the size of the latest affinity graph, in bytes */
+    long getEstimatedBytes();
+
+    /** Returns the number of poems written */
+    long getPoems();
+
+    /** Returns the mean time taken to write a poem, in nanoseconds */
+    double getMeanPoemNanos();
+
+    /**
+     * Returns the poem latency histogram: element i is the number of poems
+     * that took from 2^i up to 2^(i+1) nanoseconds
+     */
+    long[] getPoemLatencyHistogram();
+
+    /** Returns the number of bridge lookups */
+    long getBridgeLookups();
+
+    /** Returns the fraction of bridge lookups answered from the cache */
+    double getBridgeHitRatio();
+
+    /** Returns the fraction of bridge lookups that found a bridge */
+    double getBridgeFoundRatio();
+
+    /** Returns the mean time of a bridge lookup, in nanoseconds */
+    double getMeanLookupNanos();
+
+    /** Returns the mean time of a bridge lookup that missed the cache, in nanoseconds */
+    double getMeanMissNanos();
+
+    /** Set every count back to 0 */
+    void reset();
+
+}
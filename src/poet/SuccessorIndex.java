@@ -0,0 +1,305 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package poet;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import graph.Graph;
+
+/**
+ * A lazily filled index of the successors of each word in an affinity graph,
+ * ranked by the weight of the edge to them, ties in String order as in
+ * RankedGraph.
+ *
+ * <p>The first lookup of a word sorts targets(word) by weight, heaviest
+ * first, and remembers the ranking; later lookups of the word take O(k) time
+ * for the top k successors, whatever its out-degree. At most capacity words
+ * are remembered, in two generations as in BridgeIndex: new words go into
+ * the current generation; when it is full, it becomes the old one and the
+ * previous old generation is dropped, and a hit in the old generation moves
+ * the word back into the current one. So the hot words stay ranked however
+ * many distinct words are looked up, while memory stays bounded.
+ *
+ * <p>An index made by next() for a changed graph takes over the rankings
+ * its predecessor remembered, except those of the words whose targets
+ * changed, until its own current generation first fills. So adding text to a
+ * poet re-sorts only the words it added successors to.
+ *
+ * <p>The graph must not change while the index is in use. Lookups may run
+ * concurrently from any number of threads.
+ */
+final class SuccessorIndex {
+
+    /** Default number of words remembered */
+    static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private final Graph<String> graph;
+    private final int capacity;
+    private final int generationCapacity;
+    private volatile Generations generations;
+    private volatile Inherited inherited;
+
+    // Abstraction function:
+    //   represents the ranked successors of every word in graph;
+    //   generations.current and generations.previous cache the rankings of
+    //   some words looked up so far, and inherited those of some words
+    //   looked up in an earlier graph whose targets have not changed since
+    // Representation invariant:
+    //   generationCapacity == ceil(capacity / 2)
+    //   generations.current.size() <= generations.limit
+    //     <= min(generationCapacity, capacity - generations.previous.size())
+    //   every cached ranking of w equals Ranking.of(graph.targets(w))
+    //   inherited is null once generations has been rotated
+    // Safety from rep exposure:
+    //   all fields are private; graph is final; Ranking is immutable and
+    //   never leaves this class
+    // Thread safety argument:
+    //   the generations' maps are ConcurrentHashMaps, and putIfRoom()
+    //     reserves its slot before adding a word, so concurrent puts never
+    //     take a generation past its limit
+    //   generations is volatile and only replaced inside synchronized
+    //     rotate(), at most once per full current generation; a put that
+    //     races with a rotation may still land in the generation just made
+    //     old, so the total can exceed capacity by the number of puts under
+    //     way
+    //   inherited is volatile and refers to an Inherited, which is
+    //     thread-safe; it only ever changes to null
+
+    /**
+     * @param graph affinity graph whose vertices are lowercase words; must
+     *        not change while this index is in use
+     * @param capacity greatest number of words to remember, >= 0
+     */
+    SuccessorIndex(Graph<String> graph, int capacity) {
+        this(graph, capacity, null);
+    }
+
+    private SuccessorIndex(Graph<String> graph, int capacity, Inherited inherited) {
+        assert capacity >= 0;
+        this.graph = graph;
+        this.capacity = capacity;
+        this.generationCapacity = capacity - capacity / 2;
+        this.generations = new Generations(new ConcurrentHashMap<>(), new ConcurrentHashMap<>(),
+                generationCapacity);
+        this.inherited = inherited;
+    }
+
+    /**
+     * Make the index of a graph that differs from this index's graph only in
+     * edges out of changedTargets, with the same capacity. The new index
+     * reuses the rankings this one remembers of every other word; this
+     * index is unaffected.
+     *
+     * @param graph affinity graph whose vertices are lowercase words; must
+     *        not change while the new index is in use
+     * @param changedTargets every word whose targets differ between this
+     *        index's graph and graph; must not change afterwards
+     * @return an index of graph
+     */
+    SuccessorIndex next(Graph<String> graph, Set<String> changedTargets) {
+        // hold only this index's generations, so successive indexes never form a chain
+        return new SuccessorIndex(graph, capacity, new Inherited(generations, changedTargets));
+    }
+
+    /**
+     * Returns the heaviest successors of a word.
+     *
+     * @param word lowercase word
+     * @param k greatest number of successors wanted, >= 0
+     * @return a read-only map of the min(k, out-degree) targets of word whose
+     *         edges from word are heaviest, to those edges' weights,
+     *         iterating from heaviest to lightest; ties in String order
+     */
+    Map<String, Integer> top(String word, int k) {
+        assert k >= 0;
+        Ranking ranking = remembered(word);
+        if (ranking == null) {
+            ranking = Ranking.of(graph.targets(word));
+            remember(word, ranking);
+        }
+        return ranking.top(k);
+    }
+
+    /* the remembered ranking of word, moved into the current generation; null if none */
+    private Ranking remembered(String word) {
+        final Generations generations = this.generations;
+        final Ranking ranking = generations.current.get(word);
+        if (ranking != null) {
+            return ranking;
+        }
+        Ranking old = generations.previous.get(word);
+        if (old == null) {
+            final Inherited inherited = this.inherited;
+            old = inherited == null ? null : inherited.get(word);
+        }
+        if (old != null) {
+            remember(word, old);
+        }
+        return old;
+    }
+
+    /* remember ranking for word in the current generation, unless it is already there */
+    private void remember(String word, Ranking ranking) {
+        if (capacity == 0) {
+            return;
+        }
+        while (true) {
+            final Generations generations = this.generations;
+            if (generations.putIfRoom(word, ranking)) {
+                return;
+            }
+            rotate(generations);
+        }
+    }
+
+    /* make the full current generation of full the old one, unless another thread already has */
+    private synchronized void rotate(Generations full) {
+        if (generations == full) {
+            inherited = null;
+            final int limit = Math.min(generationCapacity, capacity - full.size.get());
+            generations = new Generations(new ConcurrentHashMap<>(), full.current, limit);
+        }
+    }
+
+    /**
+     * Returns the number of words currently remembered, counting a word
+     * twice while it is in both generations; at most capacity
+     */
+    int size() {
+        final Generations generations = this.generations;
+        return generations.size.get() + generations.previous.size();
+    }
+
+    /* The current and old generations of rankings, and how many words the current one may take */
+    private static final class Generations {
+
+        private final Map<String, Ranking> current;
+        private final Map<String, Ranking> previous;
+        private final int limit;
+        private final AtomicInteger size = new AtomicInteger();
+
+        // Abstraction function:
+        //   represents the rankings of current, and those of previous
+        // Representation invariant:
+        //   size is at least current.size(); it exceeds that only while a
+        //     putIfRoom() is under way
+        // Thread safety argument:
+        //   current and previous are ConcurrentHashMaps, and limit is final;
+        //   putIfRoom() reserves its slot in size before adding the word
+
+        Generations(Map<String, Ranking> current, Map<String, Ranking> previous, int limit) {
+            this.current = current;
+            this.previous = previous;
+            this.limit = limit;
+        }
+
+        /**
+         * Add word with ranking to current, unless it is already there.
+         *
+         * @return false iff the word was not added because current already
+         *         holds limit words
+         */
+        boolean putIfRoom(String word, Ranking ranking) {
+            if (size.incrementAndGet() > limit) {
+                size.decrementAndGet();
+                return false;
+            }
+            if (current.putIfAbsent(word, ranking) != null) {
+                size.decrementAndGet();
+            }
+            return true;
+        }
+    }
+
+    /*
+     * The rankings of an earlier graph's index that are still valid: those
+     * of words whose targets did not change. Thread-safe.
+     */
+    private static final class Inherited {
+
+        private final Generations generations;
+        private final Set<String> changedTargets;
+
+        // Abstraction function:
+        //   represents the rankings in generations of the words not in
+        //   changedTargets
+        // Thread safety argument:
+        //   all fields are final; Generations is thread-safe, and
+        //   changedTargets is never changed after construction
+
+        Inherited(Generations generations, Set<String> changedTargets) {
+            this.generations = generations;
+            this.changedTargets = changedTargets;
+        }
+
+        /** Returns the ranking of word, or null if it is not remembered or may have changed */
+        Ranking get(String word) {
+            if (changedTargets.contains(word)) {
+                return null;
+            }
+            final Ranking ranking = generations.current.get(word);
+            return ranking != null ? ranking : generations.previous.get(word);
+        }
+    }
+
+    /* The successors of one word, heaviest first. Immutable. */
+    private static final class Ranking {
+
+        private static final Ranking NONE = new Ranking(new String[0], new int[0]);
+
+        private final String[] words;
+        private final int[] weights;
+
+        // Abstraction function:
+        //   represents the edges to words[i] of weight weights[i]
+        // Representation invariant:
+        //   words.length == weights.length, every weight > 0
+        //   weights is non-increasing, and words of equal weight are in
+        //     String order
+        // Safety from rep exposure:
+        //   the arrays never leave this class
+
+        private Ranking(String[] words, int[] weights) {
+            this.words = words;
+            this.weights = weights;
+        }
+
+        static Ranking of(Map<String, Integer> targets) {
+            if (targets.isEmpty()) {
+                return NONE;
+            }
+            final List<Map.Entry<String, Integer>> edges = new ArrayList<>(targets.entrySet());
+            edges.sort((a, b) -> a.getValue().equals(b.getValue())
+                    ? a.getKey().compareTo(b.getKey())
+                    : Integer.compare(b.getValue(), a.getValue()));
+            final String[] words = new String[edges.size()];
+            final int[] weights = new int[edges.size()];
+            for (int i = 0; i < words.length; i++) {
+                words[i] = edges.get(i).getKey();
+                weights[i] = edges.get(i).getValue();
+            }
+            return new Ranking(words, weights);
+        }
+
+        Map<String, Integer> top(int k) {
+            final int n = Math.min(k, words.length);
+            if (n == 0) {
+                return Collections.emptyMap();
+            }
+            final Map<String, Integer> top = new LinkedHashMap<>();
+            for (int i = 0; i < n; i++) {
+                top.put(words[i], weights[i]);
+            }
+            return Collections.unmodifiableMap(top);
+        }
+    }
+
+}
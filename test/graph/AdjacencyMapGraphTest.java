@@ -0,0 +1,79 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Tests for AdjacencyMapGraph.
+ * 
+ * This class runs the GraphInstanceTest tests against AdjacencyMapGraph, as
+ * well as tests for that particular implementation.
+ * 
+ * Tests against the Graph spec should be in GraphInstanceTest.
+ */
+public class AdjacencyMapGraphTest extends GraphInstanceTest {
+    
+    /*
+     * Provide an AdjacencyMapGraph for tests in GraphInstanceTest.
+     */
+    @Override public Graph<String> emptyInstance() {
+        return new AdjacencyMapGraph<>();
+    }
+    
+    /*
+     * Testing AdjacencyMapGraph...
+     */
+    
+    // Testing strategy for AdjacencyMapGraph.edgeCount()
+    //   edges: none, added, updated, removed by set(), removed by remove()
+    //   self-loop: present, absent
+    //
+    // Testing strategy for AdjacencyMapGraph.toString()
+    //   graph: no edges, one edge
+    
+    @Test
+    // covers edges added, updated and removed by set()
+    public void testEdgeCountSet() {
+        AdjacencyMapGraph<String> graph = new AdjacencyMapGraph<>();
+        
+        graph.set("a", "b", 1);
+        graph.set("a", "c", 1);
+        graph.set("a", "b", 3);
+        assertEquals("Expected updates not to add edges", 2, graph.edgeCount());
+        
+        graph.set("a", "c", 0);
+        assertEquals("Expected edge removed", 1, graph.edgeCount());
+    }
+    
+    @Test
+    // covers edges removed by remove(), self-loop present
+    public void testEdgeCountRemoveSelfLoop() {
+        AdjacencyMapGraph<String> graph = new AdjacencyMapGraph<>();
+        
+        graph.set("a", "a", 2);
+        graph.set("a", "b", 1);
+        graph.set("c", "a", 1);
+        graph.set("b", "c", 1);
+        
+        assertTrue("Expected vertex removed", graph.remove("a"));
+        assertEquals("Expected only edges not touching a", 1, graph.edgeCount());
+        assertTrue("Expected a removed from targets", graph.targets("c").isEmpty());
+        assertTrue("Expected a removed from sources", graph.sources("b").isEmpty());
+    }
+    
+    @Test
+    // covers graph with no edges, one edge
+    public void testToString() {
+        AdjacencyMapGraph<String> graph = new AdjacencyMapGraph<>();
+        graph.add("a");
+        assertEquals("Expected empty graph string", "Empty Graph", graph.toString());
+        
+        graph.set("a", "b", 4);
+        assertEquals("Expected edge string", "a -> b: 4", graph.toString());
+    }
+    
+}
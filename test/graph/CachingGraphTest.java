@@ -0,0 +1,150 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests for CachingGraph.
+ * 
+ * This class runs the GraphInstanceTest tests against CachingGraph, as
+ * well as tests for that particular implementation.
+ * 
+ * Tests against the Graph spec should be in GraphInstanceTest.
+ */
+public class CachingGraphTest extends GraphInstanceTest {
+    
+    /*
+     * Provide a CachingGraph for tests in GraphInstanceTest.
+     */
+    @Override public Graph<String> emptyInstance() {
+        return new CachingGraph<>(new ConcreteEdgesGraph<>(), 2);
+    }
+    
+    /*
+     * Testing CachingGraph...
+     */
+    
+    // Testing strategy for CachingGraph
+    //   lookup: first (miss), repeated (hit), after eviction
+    //   set(): changes weight, same weight, removes edge; touches cached
+    //          endpoint, untouched cached vertex
+    //   remove(): vertex cached, neighbour of cached vertex
+    //   operations: many random set() and remove() with a small capacity
+    //   observe with sources(), targets(), hits(), misses(), evictions(),
+    //   hitRate()
+    
+    @Test
+    // covers first and repeated lookups
+    public void testHitsAndMisses() {
+        CachingGraph<String> graph = new CachingGraph<>(new ConcreteEdgesGraph<>(), 4);
+        graph.set("a", "b", 1);
+        assertEquals("Expected no lookups yet", 0.0, graph.hitRate(), 0);
+        
+        Map<String, Integer> targets = graph.targets("a");
+        assertSame("Expected the remembered map", targets, graph.targets("a"));
+        graph.sources("b");
+        
+        assertEquals("Expected 1 hit", 1, graph.hits());
+        assertEquals("Expected 2 misses", 2, graph.misses());
+        assertEquals("Expected hit rate", 1.0 / 3, graph.hitRate(), 1e-9);
+    }
+    
+    @Test
+    // covers set() changing, keeping and removing edges of cached vertices
+    public void testSetInvalidates() {
+        CachingGraph<String> graph = new CachingGraph<>(new ConcreteEdgesGraph<>(), 4);
+        graph.set("a", "b", 1);
+        graph.set("c", "d", 1);
+        graph.targets("a");
+        graph.sources("b");
+        Map<String, Integer> untouched = graph.targets("c");
+        
+        graph.set("a", "b", 5);
+        assertEquals("Expected new weight", Collections.singletonMap("b", 5), graph.targets("a"));
+        assertEquals("Expected new weight", Collections.singletonMap("a", 5), graph.sources("b"));
+        assertSame("Expected untouched vertex still cached", untouched, graph.targets("c"));
+        
+        Map<String, Integer> same = graph.targets("a");
+        graph.set("a", "b", 5);
+        assertSame("Expected same weight to keep cache", same, graph.targets("a"));
+        
+        graph.set("a", "b", 0);
+        assertEquals("Expected edge removed", Collections.emptyMap(), graph.targets("a"));
+        assertEquals("Expected edge removed", Collections.emptyMap(), graph.sources("b"));
+    }
+    
+    @Test
+    // covers remove() of a cached vertex and of a cached vertex's neighbour
+    public void testRemoveInvalidates() {
+        CachingGraph<String> graph = new CachingGraph<>(new ConcreteEdgesGraph<>(), 4);
+        graph.set("a", "b", 1);
+        graph.set("c", "b", 2);
+        graph.set("b", "d", 3);
+        graph.sources("b");
+        graph.targets("a");
+        graph.sources("d");
+        graph.targets("b");
+        
+        graph.remove("b");
+        assertEquals("Expected no targets", Collections.emptyMap(), graph.targets("a"));
+        assertEquals("Expected no sources", Collections.emptyMap(), graph.sources("d"));
+        assertEquals("Expected removed vertex empty", Collections.emptyMap(), graph.targets("b"));
+        assertEquals("Expected removed vertex empty", Collections.emptyMap(), graph.sources("b"));
+    }
+    
+    @Test
+    // covers lookups after eviction
+    public void testEvictsLeastRecentlyUsed() {
+        CachingGraph<String> graph = new CachingGraph<>(new ConcreteEdgesGraph<>(), 2);
+        graph.set("a", "b", 1);
+        Map<String, Integer> a = graph.targets("a");
+        graph.targets("b");
+        graph.targets("a");
+        graph.targets("c");
+        
+        assertEquals("Expected b evicted", 1, graph.evictions());
+        assertSame("Expected a kept as most recently used", a, graph.targets("a"));
+        long misses = graph.misses();
+        graph.targets("b");
+        assertEquals("Expected b looked up again", misses + 1, graph.misses());
+    }
+    
+    @Test
+    // covers many random set() and remove() with a small capacity
+    public void testMatchesUncachedGraph() {
+        Random random = new Random(5);
+        CachingGraph<String> graph = new CachingGraph<>(new AdjacencyMapGraph<>(), 8);
+        Graph<String> expected = new AdjacencyMapGraph<>();
+        for (int i = 0; i < 20000; i++) {
+            String source = "v" + random.nextInt(30);
+            String target = "v" + random.nextInt(30);
+            int choice = random.nextInt(20);
+            if (choice == 0) {
+                assertEquals("Expected same result", expected.remove(source), graph.remove(source));
+            } else if (choice < 8) {
+                assertEquals("Expected same targets", expected.targets(source), graph.targets(source));
+                assertEquals("Expected same sources", expected.sources(target), graph.sources(target));
+            } else {
+                int weight = choice < 10 ? 0 : random.nextInt(5) + 1;
+                assertEquals("Expected same previous weight",
+                        expected.set(source, target, weight), graph.set(source, target, weight));
+            }
+        }
+        
+        assertEquals("Expected same vertices", expected.vertices(), graph.vertices());
+        for (String vertex : expected.vertices()) {
+            assertEquals("Expected same targets", expected.targets(vertex), graph.targets(vertex));
+            assertEquals("Expected same sources", expected.sources(vertex), graph.sources(vertex));
+        }
+        assertTrue("Expected some hits", graph.hits() > 0);
+    }
+    
+}
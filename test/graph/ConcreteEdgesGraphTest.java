@@ -5,6 +5,8 @@ package graph;
 
 import static org.junit.Assert.*;
 
+import java.util.Collections;
+
 import org.junit.Test;
 
 /**
@@ -29,9 +31,43 @@ public class ConcreteEdgesGraphTest extends GraphInstanceTest {
      */
     
     // Testing strategy for ConcreteEdgesGraph.toString()
-    //   TODO
+    //   graph: no edges, several edges, an edge removed from the middle
+    
+    // Testing strategy for the edge indexes
+    //   remove(): vertex with in-edges, out-edges and a self-loop
+    //   observe with sources(), targets(), vertices(), toString()
     
-    // TODO tests for ConcreteEdgesGraph.toString()
+    @Test
+    // covers no edges, several edges, an edge removed from the middle
+    public void testToString() {
+        Graph<String> graph = emptyInstance();
+        assertEquals("Expected empty graph", "Empty Graph", graph.toString());
+        
+        graph.set("a", "b", 1);
+        graph.set("b", "c", 2);
+        graph.set("c", "a", 3);
+        assertEquals("Expected edges in order", "a -> b: 1\nb -> c: 2\nc -> a: 3", graph.toString());
+        
+        graph.set("a", "b", 0);
+        assertEquals("Expected last edge moved into the gap", "c -> a: 3\nb -> c: 2", graph.toString());
+    }
+    
+    @Test
+    // covers remove() of a vertex with in-edges, out-edges and a self-loop
+    public void testRemoveIndexedEdges() {
+        Graph<String> graph = emptyInstance();
+        graph.set("a", "a", 1);
+        graph.set("a", "b", 2);
+        graph.set("c", "a", 3);
+        graph.set("b", "c", 4);
+        
+        assertTrue("Expected vertex removed", graph.remove("a"));
+        assertEquals("Expected remaining edge", "b -> c: 4", graph.toString());
+        assertEquals("Expected no sources", Collections.emptyMap(), graph.sources("b"));
+        assertEquals("Expected no targets", Collections.emptyMap(), graph.targets("c"));
+        assertEquals("Expected remaining source", Collections.singletonMap("b", 4), graph.sources("c"));
+        assertFalse("Expected vertex gone", graph.remove("a"));
+    }
     
     /*
      * Testing Edge...
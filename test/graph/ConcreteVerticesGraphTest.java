@@ -5,6 +5,8 @@ package graph;
 
 import static org.junit.Assert.*;
 
+import java.util.Collections;
+
 import org.junit.Test;
 
 /**
@@ -24,6 +26,13 @@ public class ConcreteVerticesGraphTest extends GraphInstanceTest {
         return new ConcreteVerticesGraph();
     }
     
+    /*
+     * ConcreteVerticesGraph does not allow self-loops.
+     */
+    @Override protected boolean allowsSelfLoops() {
+        return false;
+    }
+    
     /*
      * Testing ConcreteVerticesGraph...
      */
@@ -33,13 +42,64 @@ public class ConcreteVerticesGraphTest extends GraphInstanceTest {
     
     // TODO tests for ConcreteVerticesGraph.toString()
     
+    // Testing strategy for remove()
+    //   removed vertex: first, middle, last in the vertex list; in a
+    //                   two-edge cycle whose edges differ in weight
+    //   observe with sources(), targets(), vertices()
+    
+    @Test
+    // covers a two-edge cycle whose edges differ in weight
+    public void testRemoveCycle() {
+        Graph<String> graph = emptyInstance();
+        graph.set("a", "b", 3);
+        graph.set("b", "a", 5);
+        graph.set("b", "c", 1);
+        
+        assertTrue("Expected vertex removed", graph.remove("a"));
+        assertEquals("Expected no sources", Collections.emptyMap(), graph.sources("b"));
+        assertEquals("Expected remaining target", Collections.singletonMap("c", 1), graph.targets("b"));
+        assertFalse("Expected vertex gone", graph.vertices().contains("a"));
+    }
+    
+    @Test
+    // covers removing the first, middle and last vertices of the list
+    public void testRemovePositions() {
+        Graph<String> graph = emptyInstance();
+        graph.set("a", "b", 1);
+        graph.set("c", "d", 2);
+        graph.set("e", "a", 3);
+        
+        assertTrue("Expected middle vertex removed", graph.remove("c"));
+        assertTrue("Expected last vertex removed", graph.remove("e"));
+        assertTrue("Expected first vertex removed", graph.remove("a"));
+        assertEquals("Expected remaining vertices", 2, graph.vertices().size());
+        assertEquals("Expected no edges left", Collections.emptyMap(), graph.sources("d"));
+        assertEquals("Expected no edges left", Collections.emptyMap(), graph.sources("b"));
+        assertEquals("Expected edge to new vertex", 0, graph.set("d", "f", 4));
+        assertEquals("Expected edge from moved vertex", Collections.singletonMap("d", 4), graph.sources("f"));
+    }
+    
     /*
      * Testing Vertex...
      */
     
     // Testing strategy for Vertex
-    //   TODO
+    //   remove(): vertex is a source, a target, both with different
+    //             weights, neither
     
-    // TODO tests for operations of Vertex
+    @Test
+    // covers remove() of a vertex that is a source, a target, both, neither
+    public void testVertexRemove() {
+        Vertex<String> vertex = new Vertex<>("a");
+        vertex.setSource("b", 2);
+        vertex.setTarget("b", 7);
+        vertex.setTarget("c", 4);
+        
+        assertEquals("Expected source weight", 2, vertex.remove("b"));
+        assertFalse("Expected no source", vertex.isSource("b"));
+        assertFalse("Expected no target", vertex.isTarget("b"));
+        assertEquals("Expected target weight", 4, vertex.remove("c"));
+        assertEquals("Expected nothing removed", 0, vertex.remove("d"));
+    }
     
 }
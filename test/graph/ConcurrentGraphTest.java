@@ -0,0 +1,174 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+/**
+ * Tests for ConcurrentGraph.
+ * 
+ * This class runs the GraphInstanceTest tests against ConcurrentGraph, as
+ * well as tests for that particular implementation.
+ * 
+ * Tests against the Graph spec should be in GraphInstanceTest.
+ */
+public class ConcurrentGraphTest extends GraphInstanceTest {
+    
+    /*
+     * Provide a ConcurrentGraph for tests in GraphInstanceTest.
+     */
+    @Override public Graph<String> emptyInstance() {
+        return new ConcurrentGraph<>();
+    }
+    
+    /*
+     * Testing ConcurrentGraph...
+     */
+    
+    // Testing strategy for ConcurrentGraph
+    //   threads: one, several
+    //   concurrent operations: increment() on the same edges, increment()
+    //                          with remove() of an endpoint, set() with reads
+    //                          of both directions of its edge
+    //   sources(), targets() views: taken before later set(), before removal
+    //     of their vertex
+    //   observe with edgeCount(), sources(), targets(), toString()
+    
+    private static void runThreads(int count, Runnable task) throws InterruptedException {
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            threads.add(new Thread(task));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+    
+    @Test
+    // covers one thread, edgeCount(), toString()
+    public void testEdgeCountAndToString() {
+        ConcurrentGraph<String> graph = new ConcurrentGraph<>();
+        assertEquals("Expected empty string", "Empty Graph", graph.toString());
+        
+        graph.set("a", "a", 2);
+        graph.set("a", "b", 1);
+        graph.increment("b", "a", 3);
+        graph.set("a", "b", 0);
+        assertEquals("Expected two edges", 2, graph.edgeCount());
+        
+        graph.remove("a");
+        assertEquals("Expected no edges", 0, graph.edgeCount());
+        assertEquals("Expected empty string", "Empty Graph", graph.toString());
+    }
+    
+    @Test
+    // covers several threads incrementing the same edges
+    public void testConcurrentIncrement() throws InterruptedException {
+        ConcurrentGraph<String> graph = new ConcurrentGraph<>();
+        runThreads(8, () -> {
+            for (int i = 0; i < 10000; i++) {
+                graph.increment("a", "b", 1);
+                graph.increment("b", "a", 2);
+                graph.increment("b", "a", -1);
+            }
+        });
+        
+        assertEquals("Expected every increment counted", (Integer) 80000, graph.targets("a").get("b"));
+        assertEquals("Expected both sides agree", (Integer) 80000, graph.sources("b").get("a"));
+        assertEquals("Expected every increment counted", (Integer) 80000, graph.sources("a").get("b"));
+        assertEquals("Expected two edges", 2, graph.edgeCount());
+    }
+    
+    @Test
+    // covers set() concurrent with reads of both directions of its edge
+    public void testEdgesPublishedWhole() throws InterruptedException {
+        ConcurrentGraph<String> graph = new ConcurrentGraph<>();
+        final int edges = 20000;
+        final AtomicBoolean done = new AtomicBoolean(false);
+        final AtomicReference<String> halfEdge = new AtomicReference<>();
+        final AtomicInteger next = new AtomicInteger();
+        final Thread reader = new Thread(() -> {
+            while (!done.get() && halfEdge.get() == null) {
+                // probe the edges being added right now
+                final int newest = next.get();
+                for (int i = Math.max(0, newest - 4); i < Math.min(edges, newest + 4); i++) {
+                    // edges are never removed, so seen in one direction means present in both
+                    if (graph.sources("v" + i).containsKey("hub") && !graph.targets("hub").containsKey("v" + i)) {
+                        halfEdge.set("hub -> v" + i);
+                    }
+                }
+            }
+        });
+        reader.start();
+        runThreads(4, () -> {
+            for (int i = next.getAndIncrement(); i < edges; i = next.getAndIncrement()) {
+                graph.set("hub", "v" + i, 1);
+            }
+        });
+        done.set(true);
+        reader.join();
+        
+        assertNull("Expected no edge seen in only one direction", halfEdge.get());
+        assertEquals("Expected every edge", edges, graph.targets("hub").size());
+    }
+    
+    @Test
+    // covers views taken before later set(), before removal of their vertex
+    public void testViewsTrackVertex() {
+        ConcurrentGraph<String> graph = new ConcurrentGraph<>();
+        graph.set("a", "b", 1);
+        Map<String, Integer> targets = graph.targets("a");
+        Map<String, Integer> sources = graph.sources("b");
+        
+        graph.increment("a", "b", 2);
+        graph.set("a", "c", 4);
+        assertEquals("Expected view to see new weight", (Integer) 3, targets.get("b"));
+        assertEquals("Expected view to see new edge", 2, targets.size());
+        
+        graph.remove("a");
+        graph.set("a", "b", 5);
+        assertEquals("Expected removed vertex's view empty", Collections.emptyMap(), targets);
+        assertEquals("Expected view to see only the new edge", Collections.singletonMap("a", 5), sources);
+    }
+    
+    @Test
+    // covers increment() concurrent with remove() of an endpoint
+    public void testConcurrentRemove() throws InterruptedException {
+        ConcurrentGraph<String> graph = new ConcurrentGraph<>();
+        runThreads(4, () -> {
+            for (int i = 0; i < 2000; i++) {
+                graph.increment("hub", "v" + (i % 50), 1);
+                graph.increment("v" + (i % 50), "hub", 1);
+                if (i % 100 == 0) {
+                    graph.remove("hub");
+                }
+            }
+        });
+        
+        int edges = 0;
+        for (String vertex : graph.vertices()) {
+            for (Map.Entry<String, Integer> edge : graph.targets(vertex).entrySet()) {
+                assertEquals("Expected both sides agree",
+                        edge.getValue(), graph.sources(edge.getKey()).get(vertex));
+                assertTrue("Expected endpoint present", graph.vertices().contains(edge.getKey()));
+                edges++;
+            }
+        }
+        assertEquals("Expected edge count to match", edges, graph.edgeCount());
+    }
+    
+}
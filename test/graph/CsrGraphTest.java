@@ -0,0 +1,116 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests for CsrGraph.
+ *
+ * CsrGraph is immutable, so it cannot run the GraphInstanceTest tests;
+ * instead each test builds a mutable graph and checks that the copy observes
+ * the same vertices and edges.
+ */
+public class CsrGraphTest {
+
+    // Testing strategy
+    //   copyOf(): graph empty, has vertices without edges, has long rows
+    //             that need sorting, has self-loops
+    //   sources(), targets(): label absent, present with no edges, present
+    //                         with edges; get() of a non-neighbor
+    //   vertices(), sources(), targets(), sourceRow(), targetRow(): same
+    //     instance on every call
+    //   add(), set(), remove(): always throw
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    // covers copyOf() empty graph, label absent
+    public void testCopyOfEmpty() {
+        CsrGraph<String> graph = CsrGraph.copyOf(Graph.<String>empty());
+
+        assertEquals("Expected no vertices", Collections.emptySet(), graph.vertices());
+        assertEquals("Expected no targets", Collections.emptyMap(), graph.targets("a"));
+        assertEquals("Expected empty graph string", "Empty Graph", graph.toString());
+    }
+
+    @Test
+    // covers vertices without edges, self-loops, get() of a non-neighbor
+    public void testCopyOfSmallGraph() {
+        Graph<String> graph = Graph.empty();
+        graph.add("lonely");
+        graph.set("a", "a", 2);
+        graph.set("a", "b", 1);
+        graph.set("c", "a", 4);
+
+        CsrGraph<String> copy = CsrGraph.copyOf(graph);
+
+        assertEquals("Expected same vertices", graph.vertices(), copy.vertices());
+        assertEquals("Expected no edges of lonely", Collections.emptyMap(), copy.targets("lonely"));
+        assertEquals("Expected targets of a", graph.targets("a"), copy.targets("a"));
+        assertEquals("Expected sources of a", graph.sources("a"), copy.sources("a"));
+        assertNull("Expected no edge a -> c", copy.targets("a").get("c"));
+        assertEquals("Expected three edges", 3, copy.edgeCount());
+    }
+
+    @Test
+    // covers long rows that need sorting
+    public void testCopyOfRandomGraph() {
+        Graph<Integer> graph = Graph.empty();
+        Random random = new Random(7);
+        for (int i = 0; i < 3000; i++) {
+            graph.set(random.nextInt(40), random.nextInt(40), random.nextInt(9) + 1);
+        }
+
+        CsrGraph<Integer> copy = CsrGraph.copyOf(graph);
+
+        for (Integer v : graph.vertices()) {
+            assertEquals("Expected same targets", graph.targets(v), copy.targets(v));
+            assertEquals("Expected same sources", graph.sources(v), copy.sources(v));
+            for (Integer t : graph.targets(v).keySet()) {
+                assertTrue("Expected lookup by label", copy.targets(v).containsKey(t));
+            }
+        }
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    // covers set() throws
+    public void testSetUnsupported() {
+        CsrGraph.copyOf(Graph.<String>empty()).set("a", "b", 1);
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    // covers remove() throws
+    public void testRemoveUnsupported() {
+        CsrGraph.copyOf(Graph.<String>empty()).remove("a");
+    }
+
+    @Test
+    // covers vertices(), sources(), targets(), sourceRow(), targetRow() return
+    // the same instance
+    public void testViewsShared() {
+        Graph<String> graph = Graph.empty();
+        graph.set("a", "b", 2);
+        graph.set("b", "a", 3);
+        CsrGraph<String> copy = CsrGraph.copyOf(graph);
+
+        assertSame("Expected shared vertices view", copy.vertices(), copy.vertices());
+        assertSame("Expected shared sources view", copy.sources("a"), copy.sources("a"));
+        assertSame("Expected shared targets view", copy.targets("a"), copy.targets("a"));
+        assertSame("Expected shared entry set",
+                copy.targets("b").entrySet(), copy.targets("b").entrySet());
+        assertEquals("Expected targets", Collections.singletonMap("a", 3), copy.targets("b"));
+        assertSame("Expected shared source row", copy.sourceRow("a"), copy.sourceRow("a"));
+        assertSame("Expected shared target row", copy.targetRow("a"), copy.targetRow("a"));
+    }
+
+}
@@ -0,0 +1,152 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+/**
+ * Tests for GraphBuilder.
+ */
+public class GraphBuilderTest {
+
+    // Testing strategy
+    //   build(): nothing added, vertices only, edges; called twice
+    //   freeze(): nothing added, vertices and edges; called after build()
+    //   add() with expected degrees: vertex new, already present; degrees
+    //     exceeded
+    //   set(): weight > 0 new edge, > 0 existing edge, 0 existing edge
+    //   increment(): edge absent, present
+    //   setAll(): arrays, stream
+    //   observe with the built graph's vertices(), sources(), targets()
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    // covers build() with nothing added
+    public void testBuildEmpty() {
+        Graph<String> graph = new GraphBuilder<String>().build();
+
+        assertEquals("Expected no vertices", Collections.emptySet(), graph.vertices());
+    }
+
+    @Test
+    // covers vertices only, set() new edge, existing edge, weight 0
+    public void testSet() {
+        Graph<String> graph = new GraphBuilder<String>(4)
+                .add("lonely")
+                .set("a", "b", 1)
+                .set("a", "b", 5)
+                .set("b", "c", 2)
+                .set("b", "c", 0)
+                .build();
+
+        assertEquals("Expected all vertices",
+                new HashSet<>(Arrays.asList("a", "b", "c", "lonely")), graph.vertices());
+        assertEquals("Expected last weight", (Integer) 5, graph.targets("a").get("b"));
+        assertEquals("Expected last weight", (Integer) 5, graph.sources("b").get("a"));
+        assertEquals("Expected removed edge", Collections.emptyMap(), graph.targets("b"));
+    }
+
+    @Test
+    // covers add() with expected degrees, vertex new and present, degrees exceeded
+    public void testAddPresized() {
+        Graph<String> graph = new GraphBuilder<String>()
+                .add("a", 1, 0)
+                .set("a", "b", 2)
+                .add("a", 0, 0)
+                .set("a", "c", 3)
+                .build();
+
+        assertEquals("Expected all vertices",
+                new HashSet<>(Arrays.asList("a", "b", "c")), graph.vertices());
+        assertEquals("Expected edges past expected degree", 2, graph.targets("a").size());
+        assertEquals("Expected edge kept", (Integer) 2, graph.sources("b").get("a"));
+    }
+
+    @Test
+    // covers increment() edge absent, present
+    public void testIncrement() {
+        Graph<String> graph = new GraphBuilder<String>()
+                .increment("a", "b", 1)
+                .increment("a", "b", 2)
+                .build();
+
+        assertEquals("Expected summed weight", (Integer) 3, graph.targets("a").get("b"));
+        assertEquals("Expected summed weight", (Integer) 3, graph.sources("b").get("a"));
+    }
+
+    @Test
+    // covers setAll() from arrays and from a stream; built graph stays mutable
+    public void testSetAll() {
+        Graph<String> graph = new GraphBuilder<String>()
+                .setAll(new String[] {"a", "b"}, new String[] {"b", "c"}, new int[] {1, 2})
+                .setAll(Stream.of("c d 3", "d a 4"),
+                        edge -> edge.split(" ")[0],
+                        edge -> edge.split(" ")[1],
+                        edge -> Integer.parseInt(edge.split(" ")[2]))
+                .build();
+
+        assertEquals("Expected four vertices", 4, graph.vertices().size());
+        assertEquals("Expected array edge", (Integer) 2, graph.targets("b").get("c"));
+        assertEquals("Expected stream edge", (Integer) 4, graph.sources("a").get("d"));
+
+        assertEquals("Expected built graph to be mutable", 4, graph.set("d", "a", 1));
+    }
+
+    @Test(expected=IllegalStateException.class)
+    // covers build() called twice
+    public void testBuildTwice() {
+        GraphBuilder<String> builder = new GraphBuilder<>();
+        builder.build();
+        builder.build();
+    }
+
+    @Test
+    // covers freeze() with nothing added
+    public void testFreezeEmpty() {
+        Graph<String> graph = new GraphBuilder<String>().freeze();
+
+        assertEquals("Expected no vertices", Collections.emptySet(), graph.vertices());
+    }
+
+    @Test
+    // covers freeze() with vertices and edges
+    public void testFreeze() {
+        GraphBuilder<String> builder = new GraphBuilder<String>()
+                .add("lonely")
+                .increment("a", "b", 1)
+                .increment("a", "b", 2)
+                .set("b", "a", 4)
+                .set("b", "c", 5)
+                .set("b", "c", 0);
+        Graph<String> graph = builder.freeze();
+
+        assertTrue("Expected immutable graph", graph instanceof ImmutableGraph);
+        assertEquals("Expected all vertices",
+                new HashSet<>(Arrays.asList("a", "b", "c", "lonely")), graph.vertices());
+        assertEquals("Expected summed weight", (Integer) 3, graph.targets("a").get("b"));
+        assertEquals("Expected in-edges", (Integer) 3, graph.sources("b").get("a"));
+        assertEquals("Expected in-edges", (Integer) 4, graph.sources("a").get("b"));
+        assertEquals("Expected removed edge", Collections.emptyMap(), graph.sources("c"));
+    }
+
+    @Test(expected=IllegalStateException.class)
+    // covers freeze() called after build()
+    public void testFreezeAfterBuild() {
+        GraphBuilder<String> builder = new GraphBuilder<>();
+        builder.build();
+        builder.freeze();
+    }
+
+}
@@ -6,6 +6,7 @@ import static org.junit.Assert.*;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
 
 import org.junit.Test;
@@ -56,6 +57,9 @@ public abstract class GraphInstanceTest {
     //             has no targets, has multiple targets
     //      sourceTargets contains all target vertices from source
     //
+    //   Many random set() and remove(), compared with AdjacencyMapGraph
+    //      self-loops: included unless the implementation forbids them
+    //
     
     /**
      * Overridden by implementation-specific test classes.
@@ -64,6 +68,15 @@ public abstract class GraphInstanceTest {
      */
     public abstract Graph<String> emptyInstance();
     
+    /**
+     * Overridden by test classes of implementations that forbid self-loops.
+     * 
+     * @return whether the implementation being tested allows self-loops
+     */
+    protected boolean allowsSelfLoops() {
+        return true;
+    }
+    
     @Test(expected=AssertionError.class)
     public void testAssertionsEnabled() {
         assert false; // make sure assertions are enabled with VM argument: -ea
@@ -562,4 +575,31 @@ public abstract class GraphInstanceTest {
         assertTrue("Expected targets to containe vertex1, vertex2", 
                 Arrays.asList(vertex1,vertex2).containsAll(targets.keySet()));
     }
-}
\ No newline at end of file
+    
+    @Test
+    //covers many random set() and remove(), compared with AdjacencyMapGraph
+    public void testMatchesAdjacencyMapGraph() {
+        Random random = new Random(7);
+        Graph<String> graph = emptyInstance();
+        Graph<String> expected = new AdjacencyMapGraph<>();
+        for (int i = 0; i < 20000; i++) {
+            String source = "v" + random.nextInt(300);
+            String target = "v" + random.nextInt(300);
+            int choice = random.nextInt(10);
+            if (choice == 0) {
+                assertEquals("Expected same result", expected.remove(source), graph.remove(source));
+            } else if (allowsSelfLoops() || !source.equals(target)) {
+                int weight = choice < 4 ? 0 : random.nextInt(1000) + 1;
+                assertEquals("Expected same previous weight",
+                        expected.set(source, target, weight), graph.set(source, target, weight));
+            }
+        }
+        
+        assertEquals("Expected same vertices", expected.vertices(), graph.vertices());
+        for (String vertex : expected.vertices()) {
+            assertEquals("Expected same targets", expected.targets(vertex), graph.targets(vertex));
+            assertEquals("Expected same sources", expected.sources(vertex), graph.sources(vertex));
+        }
+        assertEquals("Expected no edges for absent label", Collections.emptyMap(), graph.targets("absent"));
+    }
+}
@@ -21,6 +21,9 @@ public class GraphStaticTest {
     //   empty()
     //     no inputs, only output is empty graph
     //     observe with vertices()
+    //   freeze()
+    //     graph: empty, with edges, already immutable
+    //     observe with vertices(), sources(), targets()
     
     @Test(expected=AssertionError.class)
     public void testAssertionsEnabled() {
@@ -33,6 +36,39 @@ public class GraphStaticTest {
                 Collections.emptySet(), Graph.empty().vertices());
     }
     
+    @Test
+    // covers freeze() empty graph
+    public void testFreezeEmpty() {
+        assertEquals("expected frozen empty graph to have no vertices",
+                Collections.emptySet(), Graph.freeze(Graph.empty()).vertices());
+    }
+    
+    @Test
+    // covers freeze() graph with edges
+    public void testFreezeCopies() {
+        Graph<String> graph = Graph.empty();
+        graph.set("a", "b", 2);
+        graph.set("b", "c", 3);
+        ImmutableGraph<String> frozen = Graph.freeze(graph);
+        graph.set("c", "a", 1);
+        
+        assertEquals("expected vertices copied", 3, frozen.vertices().size());
+        assertEquals("expected edges copied",
+                Collections.singletonMap("a", 2), frozen.sources("b"));
+        assertEquals("expected later changes not copied",
+                Collections.emptyMap(), frozen.targets("c"));
+    }
+    
+    @Test
+    // covers freeze() already immutable graph
+    public void testFreezeImmutable() {
+        Graph<String> graph = Graph.empty();
+        graph.set("a", "b", 2);
+        ImmutableGraph<String> frozen = Graph.freeze(graph);
+        
+        assertSame("expected immutable graph returned as is", frozen, Graph.freeze(frozen));
+    }
+    
     // TODO test other vertex label types in Problem 3.2
     
 }
@@ -0,0 +1,122 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+import org.junit.Test;
+
+import graph.ImmutableGraph.Row;
+
+/**
+ * Tests for ImmutableGraph.sourceRow() and targetRow(), run against every
+ * implementation.
+ */
+public class ImmutableGraphTest {
+
+    // Testing strategy for sourceRow(vertex), targetRow(vertex)
+    //   vertex: absent, present with no edges, present with edges, on a
+    //           self-loop
+    //   rows: short, long
+    //   weightOf(): neighbor, vertex that is not a neighbor, non-vertex
+    //   observe with size(), neighbor(), weight() against sources(),
+    //   targets()
+
+    private static final List<Function<Graph<String>, ImmutableGraph<String>>> IMPLEMENTATIONS = Arrays.asList(
+            CsrGraph::copyOf,
+            ImmutableGraphTest::mapped,
+            ImmutableGraphTest::versioned);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    private static ImmutableGraph<String> mapped(Graph<String> graph) {
+        try {
+            final File file = File.createTempFile("graph", ".bin");
+            file.deleteOnExit();
+            MappedGraph.write(graph, file);
+            return MappedGraph.open(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static ImmutableGraph<String> versioned(Graph<String> graph) {
+        final VersionedGraph<String> versioned = new VersionedGraph<>();
+        for (String source : graph.vertices()) {
+            versioned.add(source);
+            for (Map.Entry<String, Integer> edge : graph.targets(source).entrySet()) {
+                versioned.set(source, edge.getKey(), edge.getValue());
+            }
+        }
+        return versioned.snapshot();
+    }
+
+    /* check that row lists exactly the edges of expected, and weightOf() agrees */
+    private static void assertRowMatches(String message, Map<String, Integer> expected, Row<String> row) {
+        final Map<String, Integer> edges = new HashMap<>();
+        for (int i = 0; i < row.size(); i++) {
+            edges.put(row.neighbor(i), row.weight(i));
+        }
+        assertEquals(message, expected, edges);
+        for (Map.Entry<String, Integer> edge : expected.entrySet()) {
+            assertEquals(message + ": weightOf " + edge.getKey(),
+                    (int) edge.getValue(), row.weightOf(edge.getKey()));
+        }
+    }
+
+    @Test
+    // covers vertex absent, present with no edges, with edges, on a
+    // self-loop; short rows; weightOf() of non-neighbor and non-vertex
+    public void testRowsOfSmallGraph() {
+        Graph<String> graph = Graph.empty();
+        graph.add("lonely");
+        graph.set("a", "a", 2);
+        graph.set("a", "b", 1);
+        graph.set("c", "a", 300);
+        for (Function<Graph<String>, ImmutableGraph<String>> implementation : IMPLEMENTATIONS) {
+            ImmutableGraph<String> frozen = implementation.apply(graph);
+
+            for (String vertex : graph.vertices()) {
+                assertRowMatches("targets of " + vertex, graph.targets(vertex), frozen.targetRow(vertex));
+                assertRowMatches("sources of " + vertex, graph.sources(vertex), frozen.sourceRow(vertex));
+            }
+            assertEquals("Expected no row of non-vertex", 0, frozen.targetRow("zzz").size());
+            assertEquals("Expected no row of non-vertex", 0, frozen.sourceRow("zzz").size());
+            assertEquals("Expected non-neighbor absent", 0, frozen.targetRow("a").weightOf("c"));
+            assertEquals("Expected non-vertex absent", 0, frozen.targetRow("a").weightOf("zzz"));
+        }
+    }
+
+    @Test
+    // covers long rows
+    public void testRowsOfRandomGraph() {
+        Graph<String> graph = Graph.empty();
+        Random random = new Random(11);
+        for (int i = 0; i < 3000; i++) {
+            graph.set("v" + random.nextInt(40), "v" + random.nextInt(40), 1 + random.nextInt(1000));
+        }
+        for (Function<Graph<String>, ImmutableGraph<String>> implementation : IMPLEMENTATIONS) {
+            ImmutableGraph<String> frozen = implementation.apply(graph);
+
+            for (String vertex : graph.vertices()) {
+                assertRowMatches("targets of " + vertex, graph.targets(vertex), frozen.targetRow(vertex));
+                assertRowMatches("sources of " + vertex, graph.sources(vertex), frozen.sourceRow(vertex));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,94 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+
+/**
+ * Tests for IncrementableGraph.increment(), run against every implementation.
+ */
+public class IncrementableGraphTest {
+
+    // Testing strategy for increment(source, target, delta)
+    //   edge: absent, present
+    //   delta: > 0, 0, < 0 leaving weight > 0, < 0 leaving weight 0
+    //   source, target: exist in graph, don't exist in graph
+    //   observe with return value, sources(), targets(), vertices()
+
+    private static final List<Supplier<IncrementableGraph<String>>> IMPLEMENTATIONS = Arrays.asList(
+            AdjacencyMapGraph::new,
+            ConcreteEdgesGraph::new,
+            ConcreteVerticesGraph::new,
+            MapVerticesGraph::new,
+            OffHeapGraph::new,
+            InternedGraph::new,
+            ConcurrentGraph::new,
+            VersionedGraph::new,
+            RankedGraph::new);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    // covers edge absent, delta > 0, vertices don't exist
+    public void testIncrementAddsEdge() {
+        for (Supplier<IncrementableGraph<String>> implementation : IMPLEMENTATIONS) {
+            IncrementableGraph<String> graph = implementation.get();
+
+            assertEquals("Expected no previous weight", 0, graph.increment("a", "b", 2));
+            assertEquals("Expected both vertices added", 2, graph.vertices().size());
+            assertEquals("Expected new weight", (Integer) 2, graph.targets("a").get("b"));
+            assertEquals("Expected new weight", (Integer) 2, graph.sources("b").get("a"));
+        }
+    }
+
+    @Test
+    // covers edge present, delta > 0 and delta < 0 leaving weight > 0
+    public void testIncrementUpdatesEdge() {
+        for (Supplier<IncrementableGraph<String>> implementation : IMPLEMENTATIONS) {
+            IncrementableGraph<String> graph = implementation.get();
+            graph.set("a", "b", 3);
+
+            assertEquals("Expected previous weight", 3, graph.increment("a", "b", 4));
+            assertEquals("Expected previous weight", 7, graph.increment("a", "b", -5));
+            assertEquals("Expected new weight", (Integer) 2, graph.targets("a").get("b"));
+            assertEquals("Expected new weight", (Integer) 2, graph.sources("b").get("a"));
+        }
+    }
+
+    @Test
+    // covers delta < 0 leaving weight 0
+    public void testIncrementRemovesEdge() {
+        for (Supplier<IncrementableGraph<String>> implementation : IMPLEMENTATIONS) {
+            IncrementableGraph<String> graph = implementation.get();
+            graph.set("a", "b", 3);
+
+            assertEquals("Expected previous weight", 3, graph.increment("a", "b", -3));
+            assertEquals("Expected edge removed", Collections.emptyMap(), graph.targets("a"));
+            assertEquals("Expected edge removed", Collections.emptyMap(), graph.sources("b"));
+            assertEquals("Expected vertices kept", 2, graph.vertices().size());
+        }
+    }
+
+    @Test
+    // covers edge absent, delta 0
+    public void testIncrementZeroDoesNotModify() {
+        for (Supplier<IncrementableGraph<String>> implementation : IMPLEMENTATIONS) {
+            IncrementableGraph<String> graph = implementation.get();
+
+            assertEquals("Expected no previous weight", 0, graph.increment("a", "b", 0));
+            assertEquals("Expected no vertices added", Collections.emptySet(), graph.vertices());
+        }
+    }
+
+}
@@ -0,0 +1,103 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.Test;
+
+import graph.GraphMetrics.Operation;
+
+/**
+ * Tests for InstrumentedGraph and GraphMetrics.
+ * 
+ * This class runs the GraphInstanceTest tests against InstrumentedGraph, as
+ * well as tests for that particular implementation.
+ * 
+ * Tests against the Graph spec should be in GraphInstanceTest.
+ */
+public class InstrumentedGraphTest extends GraphInstanceTest {
+    
+    /*
+     * Provide an InstrumentedGraph for tests in GraphInstanceTest.
+     */
+    @Override public Graph<String> emptyInstance() {
+        return new InstrumentedGraph<>(new AdjacencyMapGraph<>(), new GraphMetrics(true));
+    }
+    
+    /*
+     * Testing InstrumentedGraph...
+     */
+    
+    // Testing strategy for InstrumentedGraph
+    //   metrics: enabled, disabled, re-enabled after reset()
+    //   operations: each of add, set, remove, vertices, sources, targets
+    //   metrics shared by two graphs
+    //   observe with calls(), totalNanos(), getCalls(), getMeanNanos()
+    
+    @Test
+    // covers enabled metrics, every operation
+    public void testCountsEachOperation() {
+        GraphMetrics metrics = new GraphMetrics(true);
+        Graph<String> graph = new InstrumentedGraph<>(new AdjacencyMapGraph<>(), metrics);
+        graph.add("a");
+        graph.add("a");
+        graph.set("a", "b", 2);
+        graph.sources("b");
+        graph.targets("a");
+        graph.targets("b");
+        graph.vertices();
+        graph.remove("b");
+        
+        assertEquals("Expected 2 adds", 2, metrics.calls(Operation.ADD));
+        assertEquals("Expected 1 set", 1, metrics.calls(Operation.SET));
+        assertEquals("Expected 1 sources", 1, metrics.calls(Operation.SOURCES));
+        assertEquals("Expected 2 targets", 2, metrics.calls(Operation.TARGETS));
+        assertEquals("Expected 1 vertices", 1, metrics.calls(Operation.VERTICES));
+        assertEquals("Expected 1 remove", 1, metrics.calls(Operation.REMOVE));
+        assertTrue("Expected time recorded", metrics.totalNanos(Operation.TARGETS) >= 0);
+        assertEquals("Expected counts by name", Long.valueOf(2), metrics.getCalls().get("targets"));
+        assertEquals("Expected graph unchanged by wrapping",
+                Collections.emptyMap(), graph.targets("a"));
+    }
+    
+    @Test
+    // covers disabled metrics, then re-enabled after reset()
+    public void testDisabled() {
+        GraphMetrics metrics = new GraphMetrics(false);
+        Graph<String> graph = new InstrumentedGraph<>(new ConcreteEdgesGraph<>(), metrics);
+        graph.set("a", "b", 1);
+        graph.targets("a");
+        assertEquals("Expected nothing recorded while disabled", 0, metrics.calls(Operation.SET));
+        assertEquals("Expected nothing recorded while disabled", 0, metrics.calls(Operation.TARGETS));
+        
+        metrics.setEnabled(true);
+        graph.targets("a");
+        assertEquals("Expected call recorded once enabled", 1, metrics.calls(Operation.TARGETS));
+        
+        metrics.reset();
+        assertEquals("Expected counts reset", 0, metrics.calls(Operation.TARGETS));
+        assertEquals("Expected mean 0 without calls",
+                Double.valueOf(0.0), metrics.getMeanNanos().get("targets"));
+        assertTrue("Expected still enabled", metrics.isEnabled());
+    }
+    
+    @Test
+    // covers metrics shared by two graphs
+    public void testSharedMetrics() {
+        GraphMetrics metrics = new GraphMetrics(true);
+        Graph<String> first = new InstrumentedGraph<>(new AdjacencyMapGraph<>(), metrics);
+        Graph<Integer> second = new InstrumentedGraph<>(new MapVerticesGraph<>(), metrics);
+        first.set("a", "b", 1);
+        second.set(1, 2, 1);
+        Map<Integer, Integer> sources = second.sources(2);
+        
+        assertEquals("Expected sets of both graphs", 2, metrics.calls(Operation.SET));
+        assertEquals("Expected wrapped result", Collections.singletonMap(1, 1), sources);
+    }
+    
+}
@@ -0,0 +1,113 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Tests for InternedGraph.
+ *
+ * This class runs the GraphInstanceTest tests against InternedGraph, as
+ * well as tests for that particular implementation.
+ *
+ * Tests against the Graph spec should be in GraphInstanceTest.
+ */
+public class InternedGraphTest extends GraphInstanceTest {
+
+    /*
+     * Provide an InternedGraph for tests in GraphInstanceTest.
+     */
+    @Override public Graph<String> emptyInstance() {
+        return new InternedGraph<>();
+    }
+
+    /*
+     * Testing InternedGraph...
+     */
+
+    // Testing strategy for InternedGraph.remove()
+    //   removed id: reused by a later add, not reused
+    //   removed vertex: has a self-loop, has none
+    //   views of the removed vertex taken before removal
+    //
+    // Testing strategy for InternedGraph.freeze()
+    //   graph: empty, has removed vertices, has self-loops
+    //   observe the snapshot after further changes to the graph
+
+    @Test
+    // covers removed id reused, self-loop present
+    public void testRemoveReusesId() {
+        InternedGraph<String> graph = new InternedGraph<>();
+        graph.set("a", "a", 2);
+        graph.set("a", "b", 1);
+        graph.set("b", "c", 3);
+
+        assertTrue("Expected vertex removed", graph.remove("a"));
+        assertEquals("Expected only b -> c left", 1, graph.edgeCount());
+
+        graph.set("d", "b", 4);
+        assertEquals("Expected new vertex to have only its own edges",
+                1, graph.targets("d").size());
+        assertEquals("Expected b to have only the new source",
+                (Integer) 4, graph.sources("b").get("d"));
+        assertEquals("Expected b to have one source", 1, graph.sources("b").size());
+    }
+
+    @Test
+    // covers removed id reused, self-loop present, views taken before removal
+    public void testRemoveDetachesViews() {
+        InternedGraph<String> graph = new InternedGraph<>();
+        graph.set("a", "a", 2);
+        graph.set("a", "b", 1);
+        graph.set("c", "a", 5);
+        Map<String, Integer> targets = graph.targets("a");
+        Map<String, Integer> sources = graph.sources("a");
+
+        graph.remove("a");
+        graph.set("d", "d", 7);
+        graph.set("d", "b", 4);
+
+        assertEquals("Expected old targets view empty", Collections.emptyMap(), targets);
+        assertEquals("Expected old sources view empty", Collections.emptyMap(), sources);
+        assertNull("Expected no weight for the vertex reusing the id", targets.get("d"));
+        assertFalse("Expected old view not to see the new vertex", sources.containsKey("d"));
+        assertEquals("Expected new vertex's own edges", 2, graph.targets("d").size());
+    }
+
+    @Test
+    // covers freeze() of an empty graph
+    public void testFreezeEmpty() {
+        CsrGraph<String> frozen = new InternedGraph<String>().freeze();
+
+        assertTrue("Expected no vertices", frozen.vertices().isEmpty());
+        assertEquals("Expected no edges", 0, frozen.edgeCount());
+    }
+
+    @Test
+    // covers freeze() with removed vertices and self-loops, later changes
+    public void testFreezeSnapshot() {
+        InternedGraph<String> graph = new InternedGraph<>();
+        graph.set("a", "b", 1);
+        graph.set("b", "b", 5);
+        graph.set("x", "b", 2);
+        graph.set("b", "c", 3);
+        graph.remove("x");
+
+        CsrGraph<String> frozen = graph.freeze();
+        graph.set("a", "c", 7);
+
+        assertEquals("Expected same vertices", graph.vertices(), frozen.vertices());
+        assertEquals("Expected same edges", 3, frozen.edgeCount());
+        assertEquals("Expected sources of b", graph.sources("b"), frozen.sources("b"));
+        assertEquals("Expected targets of b", graph.targets("b"), frozen.targets("b"));
+        assertFalse("Expected snapshot unaffected by later set",
+                frozen.targets("a").containsKey("c"));
+    }
+
+}
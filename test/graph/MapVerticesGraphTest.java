@@ -0,0 +1,96 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Tests for MapVerticesGraph.
+ *
+ * This class runs the GraphInstanceTest tests against MapVerticesGraph, as
+ * well as tests for that particular implementation.
+ *
+ * Tests against the Graph spec should be in GraphInstanceTest.
+ */
+public class MapVerticesGraphTest extends GraphInstanceTest {
+
+    /*
+     * Provide a MapVerticesGraph for tests in GraphInstanceTest.
+     */
+    @Override public Graph<String> emptyInstance() {
+        return new MapVerticesGraph<>();
+    }
+
+    /*
+     * Testing MapVerticesGraph...
+     */
+
+    // Testing strategy for MapVerticesGraph.vertices()
+    //   view taken before, after mutation
+    //   view: modified by caller
+    //
+    // Testing strategy for MapVerticesGraph.toString()
+    //   graph: no edges, one edge
+    //
+    // Testing strategy for self-loops
+    //   set, increment a self-loop; remove a vertex with a self-loop and
+    //   other edges
+
+    @Test
+    // covers view taken before mutation
+    public void testVerticesViewTracksGraph() {
+        Graph<String> graph = emptyInstance();
+        Set<String> vertices = graph.vertices();
+
+        graph.set("a", "b", 1);
+        assertEquals("Expected view to see new vertices", 2, vertices.size());
+
+        graph.remove("a");
+        assertFalse("Expected view to see removal", vertices.contains("a"));
+        assertSame("Expected the same view on every call", vertices, graph.vertices());
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    // covers view modified by caller
+    public void testVerticesViewReadOnly() {
+        Graph<String> graph = emptyInstance();
+        graph.add("a");
+        graph.vertices().remove("a");
+    }
+
+    @Test
+    // covers set, increment a self-loop; remove a vertex with a self-loop
+    public void testSelfLoop() {
+        MapVerticesGraph<String> graph = new MapVerticesGraph<>();
+        assertEquals("Expected no previous weight", 0, graph.set("a", "a", 2));
+        assertEquals("Expected previous weight", 2, graph.increment("a", "a", 3));
+        graph.set("a", "b", 1);
+        graph.set("c", "a", 4);
+        assertEquals("Expected self-loop as target", 5, (int) graph.targets("a").get("a"));
+        assertEquals("Expected self-loop as source", 5, (int) graph.sources("a").get("a"));
+
+        assertTrue("Expected vertex removed", graph.remove("a"));
+        assertEquals("Expected other vertices", new HashSet<>(Arrays.asList("b", "c")), graph.vertices());
+        assertTrue("Expected no edge into b", graph.sources("b").isEmpty());
+        assertTrue("Expected no edge out of c", graph.targets("c").isEmpty());
+    }
+
+    @Test
+    // covers graph with no edges, one edge
+    public void testToString() {
+        Graph<String> graph = emptyInstance();
+        graph.add("a");
+        assertEquals("Expected no edges", "", graph.toString());
+
+        graph.set("a", "b", 2);
+        assertEquals("Expected edge string", "a -> {b=2}", graph.toString());
+    }
+
+}
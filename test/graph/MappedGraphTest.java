@@ -0,0 +1,174 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Collections;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests for MappedGraph.
+ *
+ * MappedGraph is immutable, so it cannot run the GraphInstanceTest tests;
+ * instead each test writes a mutable graph to a file and checks that the
+ * mapped graph observes the same vertices and edges.
+ */
+public class MappedGraphTest {
+
+    // Testing strategy
+    //   write() then open(): graph empty, has vertices without edges, has
+    //                        self-loops, is large with large weights and
+    //                        UTF-8 labels
+    //   sources(), targets(): label absent, present with no edges, present
+    //                         with edges; get() of a non-neighbor; called
+    //                         twice for the same vertex
+    //   sourceRow(), targetRow(): called twice for the same vertex
+    //   write(): over a new file, over a file that is mapped
+    //   open(): not a graph file, corrupted byte
+    //   add(), set(), remove(): always throw
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    private static File tempFile() throws IOException {
+        final File file = File.createTempFile("graph", ".bin");
+        file.deleteOnExit();
+        return file;
+    }
+
+    private static MappedGraph roundTrip(Graph<String> graph) throws IOException {
+        final File file = tempFile();
+        MappedGraph.write(graph, file);
+        return MappedGraph.open(file);
+    }
+
+    private static void assertSameGraph(Graph<String> expected, Graph<String> actual) {
+        assertEquals("Expected same vertices", expected.vertices(), actual.vertices());
+        for (String vertex : expected.vertices()) {
+            assertEquals("Expected same targets", expected.targets(vertex), actual.targets(vertex));
+            assertEquals("Expected same sources", expected.sources(vertex), actual.sources(vertex));
+        }
+    }
+
+    @Test
+    // covers empty graph, label absent
+    public void testEmpty() throws IOException {
+        MappedGraph mapped = roundTrip(Graph.empty());
+
+        assertEquals("Expected no vertices", Collections.emptySet(), mapped.vertices());
+        assertEquals("Expected no targets", Collections.emptyMap(), mapped.targets("a"));
+        assertEquals("Expected empty string", "Empty Graph", mapped.toString());
+    }
+
+    @Test
+    // covers vertices without edges, self-loops, get() of a non-neighbor
+    public void testSmallGraph() throws IOException {
+        Graph<String> graph = Graph.empty();
+        graph.add("lonely");
+        graph.set("a", "a", 2);
+        graph.set("a", "b", 1);
+        graph.set("c", "a", 3);
+        MappedGraph mapped = roundTrip(graph);
+
+        assertSameGraph(graph, mapped);
+        assertEquals("Expected three edges", 3, mapped.edgeCount());
+        assertNull("Expected non-neighbor absent", mapped.targets("a").get("c"));
+        assertNull("Expected non-vertex absent", mapped.targets("a").get("zzz"));
+        assertTrue("Expected vertex present", mapped.vertices().contains("lonely"));
+        assertEquals("Expected no edges", Collections.emptyMap(), mapped.sources("lonely"));
+    }
+
+    @Test
+    // covers large graph, large weights and UTF-8
+    public void testLargeGraph() throws IOException {
+        Random random = new Random(7);
+        Graph<String> graph = Graph.empty();
+        for (int i = 0; i < 5000; i++) {
+            graph.set("w\u00e9" + random.nextInt(700), "w\u00e9" + random.nextInt(700),
+                    1 + random.nextInt(1 << 20));
+        }
+
+        assertSameGraph(graph, roundTrip(graph));
+    }
+
+    @Test
+    // covers sources(), targets(), sourceRow(), targetRow() called twice for
+    // the same vertex
+    public void testSharedViews() throws IOException {
+        Graph<String> graph = Graph.empty();
+        graph.set("a", "b", 1);
+        graph.set("a", "c", 2);
+        MappedGraph mapped = roundTrip(graph);
+
+        assertSame("Expected same targets view", mapped.targets("a"), mapped.targets("a"));
+        assertSame("Expected same sources view", mapped.sources("b"), mapped.sources("b"));
+        assertSame("Expected same entry set", mapped.targets("a").entrySet(), mapped.targets("a").entrySet());
+        assertEquals("Expected weight by binary search", Integer.valueOf(2), mapped.targets("a").get("c"));
+        assertSame("Expected same target row", mapped.targetRow("a"), mapped.targetRow("a"));
+        assertSame("Expected same source row", mapped.sourceRow("b"), mapped.sourceRow("b"));
+    }
+
+    @Test
+    // covers write() over a file that is mapped
+    public void testWriteOverMappedFile() throws IOException {
+        Random random = new Random(11);
+        Graph<String> large = Graph.empty();
+        for (int i = 0; i < 20000; i++) {
+            large.set("w" + random.nextInt(2000), "w" + random.nextInt(2000), 1 + random.nextInt(100));
+        }
+        Graph<String> small = Graph.empty();
+        small.set("a", "b", 1);
+        File file = tempFile();
+        MappedGraph.write(large, file);
+        MappedGraph mapped = MappedGraph.open(file);
+
+        MappedGraph.write(small, file);
+        assertSameGraph(large, mapped);
+        assertSameGraph(small, MappedGraph.open(file));
+    }
+
+    @Test(expected=IOException.class)
+    // covers open() not a graph file
+    public void testNotAGraphFile() throws IOException {
+        File file = tempFile();
+        try (RandomAccessFile out = new RandomAccessFile(file, "rw")) {
+            out.writeBytes("To explore strange new worlds, to seek out new life");
+        }
+        MappedGraph.open(file);
+    }
+
+    @Test
+    // covers open() corrupted byte
+    public void testCorrupted() throws IOException {
+        Graph<String> graph = Graph.empty();
+        graph.set("a", "b", 1);
+        File file = tempFile();
+        MappedGraph.write(graph, file);
+        try (RandomAccessFile out = new RandomAccessFile(file, "rw")) {
+            out.seek(out.length() - 12);
+            out.write(out.read() ^ 1);
+        }
+        try {
+            MappedGraph.open(file);
+            fail("Expected checksum failure");
+        } catch (IOException e) {
+            assertTrue("Expected checksum message", e.getMessage().contains("checksum"));
+        }
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    // covers set() throws
+    public void testSetUnsupported() throws IOException {
+        roundTrip(Graph.empty()).set("a", "b", 1);
+    }
+
+}
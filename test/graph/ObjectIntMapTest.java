@@ -0,0 +1,111 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests for ObjectIntMap.
+ */
+public class ObjectIntMapTest {
+
+    // Testing strategy
+    //   put(): key absent, key present; forces a resize
+    //   get(): key present, absent
+    //   addTo(): key absent, present
+    //   remove(): key absent, present, inside a probe run of colliding keys
+    //   asMap(): empty map, after mutation, compared to a HashMap
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    // covers put() key absent, key present; get() present, absent
+    public void testPutGet() {
+        ObjectIntMap<String> map = new ObjectIntMap<>();
+
+        assertEquals("Expected no previous value", 0, map.put("a", 3));
+        assertEquals("Expected previous value", 3, map.put("a", 5));
+        assertEquals("Expected current value", 5, map.get("a"));
+        assertEquals("Expected absent key to read as 0", 0, map.get("b"));
+        assertEquals("Expected one key", 1, map.size());
+    }
+
+    @Test
+    // covers addTo() key absent, present
+    public void testAddTo() {
+        ObjectIntMap<String> map = new ObjectIntMap<>();
+
+        assertEquals("Expected no previous value", 0, map.addTo("a", 1));
+        assertEquals("Expected previous value", 1, map.addTo("a", 2));
+        assertEquals("Expected sum", 3, map.get("a"));
+    }
+
+    @Test
+    // covers remove() key absent, present
+    public void testRemove() {
+        ObjectIntMap<String> map = new ObjectIntMap<>();
+        map.put("a", 1);
+
+        assertEquals("Expected nothing removed", 0, map.remove("b"));
+        assertEquals("Expected removed value", 1, map.remove("a"));
+        assertFalse("Expected key gone", map.containsKey("a"));
+        assertTrue("Expected empty map", map.isEmpty());
+    }
+
+    @Test
+    // covers resize, remove() inside probe runs, asMap() compared to HashMap
+    public void testRandomOperationsMatchHashMap() {
+        ObjectIntMap<Integer> map = new ObjectIntMap<>();
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 20000; i++) {
+            Integer key = random.nextInt(500);
+            if (random.nextInt(3) == 0) {
+                Integer previous = expected.remove(key);
+                assertEquals("Expected same removed value",
+                        previous == null ? 0 : previous, map.remove(key));
+            } else {
+                int value = random.nextInt(100) + 1;
+                Integer previous = expected.put(key, value);
+                assertEquals("Expected same previous value",
+                        previous == null ? 0 : previous, map.put(key, value));
+            }
+        }
+        assertEquals("Expected same mappings", expected, map.asMap());
+        for (Integer key : expected.keySet()) {
+            assertEquals("Expected same value", (int) expected.get(key), map.get(key));
+        }
+    }
+
+    @Test
+    // covers asMap() empty map, after mutation
+    public void testAsMapIsLiveView() {
+        ObjectIntMap<String> map = new ObjectIntMap<>();
+        Map<String, Integer> view = map.asMap();
+        assertTrue("Expected empty view", view.isEmpty());
+
+        map.put("a", 2);
+        assertEquals("Expected view to see put", (Integer) 2, view.get("a"));
+        assertSame("Expected the same view on every call", view, map.asMap());
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    // covers asMap() modified by caller
+    public void testAsMapReadOnly() {
+        ObjectIntMap<String> map = new ObjectIntMap<>();
+        map.put("a", 2);
+        map.asMap().put("b", 1);
+    }
+
+}
@@ -0,0 +1,92 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Tests for OffHeapGraph.
+ * 
+ * This class runs the GraphInstanceTest tests against OffHeapGraph, as well
+ * as tests for that particular implementation.
+ * 
+ * Tests against the Graph spec should be in GraphInstanceTest.
+ */
+public class OffHeapGraphTest extends GraphInstanceTest {
+    
+    /*
+     * Provide an OffHeapGraph for tests in GraphInstanceTest.
+     */
+    @Override public Graph<String> emptyInstance() {
+        return new OffHeapGraph();
+    }
+    
+    /*
+     * Testing OffHeapGraph...
+     */
+    
+    // Testing strategy for OffHeapGraph
+    //   labels: ASCII, non-ASCII, equal hash codes
+    //   operations: growing every region and index and reusing freed records,
+    //               by the random set() and remove() in GraphInstanceTest
+    //   self-loop: present when its vertex is removed
+    //   sources(), targets() views: taken before later set(), before removal
+    //     of their vertex and reuse of its record
+    //   observe with edgeCount(), sources(), targets(), vertices(), toString()
+    
+    @Test
+    // covers non-ASCII labels, equal hash codes
+    public void testLabels() {
+        OffHeapGraph graph = new OffHeapGraph();
+        // "Aa" and "BB" have the same String hash code
+        graph.set("Aa", "BB", 1);
+        graph.set("\u00e9cole", "Aa", 2);
+        
+        assertEquals("Expected three vertices", 3, graph.vertices().size());
+        assertEquals("Expected edge by colliding label", (Integer) 1, graph.sources("BB").get("Aa"));
+        assertEquals("Expected non-ASCII label", (Integer) 2, graph.targets("\u00e9cole").get("Aa"));
+        assertTrue("Expected vertex found", graph.vertices().contains("\u00e9cole"));
+    }
+    
+    @Test
+    // covers views taken before later set(), before removal and record reuse
+    public void testViewsTrackVertex() {
+        OffHeapGraph graph = new OffHeapGraph();
+        graph.set("a", "b", 1);
+        Map<String, Integer> targets = graph.targets("a");
+        Map<String, Integer> sources = graph.sources("b");
+        
+        graph.set("a", "c", 2);
+        assertEquals("Expected view to see new edge", (Integer) 2, targets.get("c"));
+        assertEquals("Expected view size", 2, targets.size());
+        assertEquals("Expected entries", new HashSet<>(Arrays.asList("b", "c")), targets.keySet());
+        
+        graph.remove("a");
+        graph.set("d", "b", 3);
+        assertEquals("Expected removed vertex's view empty", Collections.emptyMap(), targets);
+        assertNull("Expected no edge to b from the removed vertex", targets.get("b"));
+        assertEquals("Expected view to see only the new source", Collections.singletonMap("d", 3), sources);
+    }
+    
+    @Test
+    // covers self-loop present when its vertex is removed
+    public void testRemoveSelfLoop() {
+        OffHeapGraph graph = new OffHeapGraph();
+        graph.set("a", "a", 2);
+        graph.set("a", "b", 1);
+        graph.set("c", "a", 1);
+        graph.set("b", "c", 1);
+        graph.remove("a");
+        
+        assertEquals("Expected one edge", 1, graph.edgeCount());
+        assertEquals("Expected remaining edge", "b -> c: 1", graph.toString());
+    }
+}
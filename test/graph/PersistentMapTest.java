@@ -0,0 +1,139 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests for PersistentMap.
+ */
+public class PersistentMapTest {
+
+    // Testing strategy
+    //   map: empty, one key, many keys
+    //   plus(): new key, existing key with same value, with new value
+    //   minus(): absent key, present key, last key
+    //   keys: distinct hashes, equal hashes (collisions)
+    //   older versions: unchanged by later plus() and minus()
+    //   observe with get(), containsKey(), size(), entrySet(), forEach(),
+    //   equals()
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    /* key whose hash code is its value modulo 4, so many keys collide */
+    private static final class Colliding {
+        private final int value;
+
+        Colliding(int value) {
+            this.value = value;
+        }
+
+        @Override public boolean equals(Object that) {
+            return that instanceof Colliding && ((Colliding) that).value == value;
+        }
+
+        @Override public int hashCode() {
+            return value % 4;
+        }
+    }
+
+    @Test
+    // covers empty map, minus() absent key
+    public void testEmpty() {
+        PersistentMap<String, Integer> map = PersistentMap.empty();
+
+        assertEquals("Expected no pairs", 0, map.size());
+        assertNull("Expected no value", map.get("a"));
+        assertSame("Expected unchanged map", map, map.minus("a"));
+        assertEquals("Expected equal to empty map", Collections.emptyMap(), map);
+    }
+
+    @Test
+    // covers plus() new key, equal value, new value; minus() last key
+    public void testOneKey() {
+        PersistentMap<String, Integer> empty = PersistentMap.empty();
+        PersistentMap<String, Integer> one = empty.plus("a", 1);
+
+        assertEquals("Expected one pair", Collections.singletonMap("a", 1), one);
+        assertSame("Expected unchanged map for same value", one, one.plus("a", one.get("a")));
+        assertEquals("Expected new value", (Integer) 2, one.plus("a", 2).get("a"));
+        assertEquals("Expected old value kept", (Integer) 1, one.get("a"));
+        assertEquals("Expected empty map", 0, one.minus("a").size());
+        assertEquals("Expected older version unchanged", 0, empty.size());
+    }
+
+    @Test
+    // covers many keys, distinct hashes, older versions unchanged
+    public void testMatchesHashMap() {
+        Random random = new Random(1);
+        Map<Integer, Integer> expected = new HashMap<>();
+        PersistentMap<Integer, Integer> map = PersistentMap.empty();
+        for (int i = 0; i < 20000; i++) {
+            // negative keys exercise the high bits of the hash
+            int key = random.nextInt(4000) - 2000;
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                map = map.minus(key);
+            } else {
+                expected.put(key, i + 1);
+                map = map.plus(key, i + 1);
+            }
+        }
+        PersistentMap<Integer, Integer> before = map;
+        Map<Integer, Integer> expectedBefore = new HashMap<>(expected);
+        for (int key = -2000; key < 0; key++) {
+            map = map.minus(key);
+        }
+
+        assertEquals("Expected same pairs as HashMap", expectedBefore, before);
+        assertEquals("Expected same size as HashMap", expectedBefore.size(), before.size());
+        Map<Integer, Integer> visited = new HashMap<>();
+        before.forEach(visited::put);
+        assertEquals("Expected forEach() to visit every pair", expectedBefore, visited);
+        for (Integer key : map.keySet()) {
+            assertTrue("Expected only nonnegative keys left", key >= 0);
+        }
+    }
+
+    @Test
+    // covers equal hashes
+    public void testCollisions() {
+        PersistentMap<Colliding, Integer> map = PersistentMap.empty();
+        for (int i = 0; i < 40; i++) {
+            map = map.plus(new Colliding(i), i);
+        }
+        map = map.plus(new Colliding(5), 500);
+        for (int i = 0; i < 40; i += 2) {
+            map = map.minus(new Colliding(i));
+        }
+
+        assertEquals("Expected odd keys left", 20, map.size());
+        assertEquals("Expected replaced value", (Integer) 500, map.get(new Colliding(5)));
+        assertEquals("Expected colliding value", (Integer) 7, map.get(new Colliding(7)));
+        assertFalse("Expected removed key absent", map.containsKey(new Colliding(8)));
+        int count = 0;
+        for (Map.Entry<Colliding, Integer> entry : map.entrySet()) {
+            assertEquals("Expected odd keys", 1, entry.getKey().value % 2);
+            count++;
+        }
+        assertEquals("Expected every pair iterated", 20, count);
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    // covers Map mutators throw
+    public void testPutUnsupported() {
+        PersistentMap.<String, Integer>empty().put("a", 1);
+    }
+
+}
@@ -0,0 +1,148 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests for RankedGraph.
+ * 
+ * This class runs the GraphInstanceTest tests against RankedGraph, as
+ * well as tests for that particular implementation.
+ * 
+ * Tests against the Graph spec should be in GraphInstanceTest.
+ */
+public class RankedGraphTest extends GraphInstanceTest {
+    
+    /*
+     * Provide a RankedGraph for tests in GraphInstanceTest.
+     */
+    @Override public Graph<String> emptyInstance() {
+        return new RankedGraph<>();
+    }
+    
+    /*
+     * Testing RankedGraph...
+     */
+    
+    // Testing strategy for topTargets(), topSources()
+    //   vertex: absent, no edges, many edges
+    //   k: 0, less than degree, more than degree
+    //   weights: distinct, tied in and out of the order reached; changed by
+    //            set(), increment(), removed by set(0) and by remove() of a
+    //            neighbour or a self-loop
+    //   operations: many random increment(), set() and remove()
+    //   observe with topTargets(), topSources(), edgeCount()
+    
+    private static List<String> keys(Map<String, Integer> map) {
+        return new ArrayList<>(map.keySet());
+    }
+    
+    @Test
+    // covers absent vertex, vertex without edges, k = 0
+    public void testTopEmpty() {
+        RankedGraph<String> graph = new RankedGraph<>();
+        graph.add("a");
+        graph.set("b", "c", 1);
+        
+        assertEquals("Expected none for absent vertex", Collections.emptyMap(), graph.topTargets("x", 3));
+        assertEquals("Expected none without edges", Collections.emptyMap(), graph.topSources("a", 3));
+        assertEquals("Expected none for k = 0", Collections.emptyMap(), graph.topTargets("b", 0));
+    }
+    
+    @Test
+    // covers distinct and tied weights, k less than and more than degree
+    public void testTopOrder() {
+        RankedGraph<String> graph = new RankedGraph<>();
+        graph.set("a", "d", 2);
+        graph.set("a", "c", 5);
+        graph.set("a", "b", 1);
+        graph.set("a", "e", 9);
+        graph.increment("a", "b", 1);
+        graph.set("x", "c", 1);
+        
+        assertEquals("Expected heaviest two targets", Arrays.asList("e", "c"), keys(graph.topTargets("a", 2)));
+        assertEquals("Expected ties in natural order, not order reached",
+                Arrays.asList("e", "c", "b", "d"), keys(graph.topTargets("a", 10)));
+        assertEquals("Expected weight of top target", (Integer) 9, graph.topTargets("a", 1).get("e"));
+        assertEquals("Expected heaviest source", Collections.singletonMap("a", 5), graph.topSources("c", 1));
+    }
+    
+    @Test
+    // covers weights changed by set() and increment(), removed by set(0) and remove()
+    public void testTopFollowsChanges() {
+        RankedGraph<String> graph = new RankedGraph<>();
+        graph.set("a", "b", 1);
+        graph.set("a", "c", 2);
+        graph.set("a", "d", 3);
+        graph.set("a", "a", 4);
+        
+        graph.increment("a", "b", 5);
+        assertEquals("Expected incremented target first",
+                Arrays.asList("b", "a", "d", "c"), keys(graph.topTargets("a", 4)));
+        graph.set("a", "d", 0);
+        graph.remove("c");
+        assertEquals("Expected removed targets gone",
+                Arrays.asList("b", "a"), keys(graph.topTargets("a", 4)));
+        graph.remove("a");
+        assertEquals("Expected no sources after removing self-loop vertex",
+                Collections.emptyMap(), graph.topSources("b", 4));
+        assertEquals("Expected no edges", 0, graph.edgeCount());
+    }
+    
+    @Test
+    // covers many random increment(), set() and remove()
+    public void testTopMatchesSortedTargets() {
+        Random random = new Random(13);
+        RankedGraph<String> graph = new RankedGraph<>();
+        for (int i = 0; i < 20000; i++) {
+            String source = "v" + random.nextInt(20);
+            String target = "v" + random.nextInt(20);
+            int choice = random.nextInt(20);
+            if (choice == 0) {
+                graph.remove(source);
+            } else if (choice < 4) {
+                graph.set(source, target, random.nextInt(4));
+            } else {
+                graph.increment(source, target, 1);
+            }
+        }
+        
+        int edges = 0;
+        for (String vertex : graph.vertices()) {
+            edges += graph.targets(vertex).size();
+            assertEquals("Expected all targets", graph.targets(vertex), graph.topTargets(vertex, 100));
+            assertEquals("Expected all sources", graph.sources(vertex), graph.topSources(vertex, 100));
+            assertDescending(graph.topTargets(vertex, 5));
+            assertDescending(graph.topSources(vertex, 5));
+            int fifth = new ArrayList<>(graph.topTargets(vertex, 100).values())
+                    .stream().sorted(Collections.reverseOrder()).skip(4).findFirst().orElse(0);
+            for (int weight : graph.targets(vertex).values()) {
+                if (weight > fifth) {
+                    assertTrue("Expected every heavier target in the top 5",
+                            graph.topTargets(vertex, 5).containsValue(weight));
+                }
+            }
+        }
+        assertEquals("Expected edge count", edges, graph.edgeCount());
+    }
+    
+    private static void assertDescending(Map<String, Integer> top) {
+        int previous = Integer.MAX_VALUE;
+        for (int weight : top.values()) {
+            assertTrue("Expected heaviest first", weight <= previous);
+            previous = weight;
+        }
+    }
+    
+}
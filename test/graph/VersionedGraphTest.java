@@ -0,0 +1,273 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests for VersionedGraph.
+ * 
+ * This class runs the GraphInstanceTest tests against VersionedGraph, as
+ * well as tests for that particular implementation.
+ * 
+ * Tests against the Graph spec should be in GraphInstanceTest.
+ */
+public class VersionedGraphTest extends GraphInstanceTest {
+    
+    /*
+     * Provide a VersionedGraph for tests in GraphInstanceTest.
+     */
+    @Override public Graph<String> emptyInstance() {
+        return new VersionedGraph<>();
+    }
+    
+    /*
+     * Testing VersionedGraph...
+     */
+    
+    // Testing strategy for VersionedGraph
+    //   snapshot(): of empty graph, after changes; later set(), remove()
+    //   version(): after a change, after a no-op
+    //   apply(): several changes, throws
+    //   snapshot mutators: always throw
+    //   base: empty, frozen graph with edges; changes to its edges and
+    //         vertices, removing and adding back its vertices
+    //   compaction: none, automatic, compact(); snapshots taken before it
+    //   observe with vertices(), sources(), targets(), edgeCount()
+    
+    @Test
+    // covers snapshot() of empty graph, later set()
+    public void testSnapshotOfEmpty() {
+        VersionedGraph<String> graph = new VersionedGraph<>();
+        ImmutableGraph<String> empty = graph.snapshot();
+        graph.set("a", "b", 1);
+        
+        assertEquals("Expected snapshot unchanged", Collections.emptySet(), empty.vertices());
+        assertEquals("Expected graph changed", 2, graph.vertices().size());
+    }
+    
+    @Test
+    // covers snapshot() after changes, later set() and remove()
+    public void testSnapshotIsolated() {
+        VersionedGraph<String> graph = new VersionedGraph<>();
+        graph.set("a", "b", 1);
+        graph.set("b", "c", 2);
+        ImmutableGraph<String> snapshot = graph.snapshot();
+        graph.set("a", "b", 5);
+        graph.remove("c");
+        
+        assertEquals("Expected old weight", (Integer) 1, snapshot.targets("a").get("b"));
+        assertEquals("Expected old edge", Collections.singletonMap("b", 2), snapshot.sources("c"));
+        assertEquals("Expected new weight", (Integer) 5, graph.sources("b").get("a"));
+        assertEquals("Expected vertex removed",
+                new HashSet<>(Arrays.asList("a", "b")), graph.vertices());
+        assertEquals("Expected one edge", 1, graph.edgeCount());
+    }
+    
+    @Test
+    // covers version() after a change, after a no-op
+    public void testVersion() {
+        VersionedGraph<String> graph = new VersionedGraph<>();
+        assertEquals("Expected first version", 0, graph.version());
+        
+        graph.set("a", "b", 1);
+        graph.set("a", "b", 1);
+        graph.remove("z");
+        assertEquals("Expected one new version", 1, graph.version());
+    }
+    
+    @Test
+    // covers apply() several changes
+    public void testApply() {
+        VersionedGraph<String> graph = new VersionedGraph<>();
+        graph.apply(edits -> {
+            edits.set("a", "b", 1);
+            edits.increment("a", "b", 2);
+            edits.set("b", "a", 4);
+            edits.remove("c");
+        });
+        
+        assertEquals("Expected one version for the batch", 1, graph.version());
+        assertEquals("Expected summed weight", (Integer) 3, graph.targets("a").get("b"));
+        assertEquals("Expected two edges", 2, graph.edgeCount());
+    }
+    
+    @Test
+    // covers apply() throws
+    public void testApplyThrows() {
+        VersionedGraph<String> graph = new VersionedGraph<>();
+        try {
+            graph.apply(edits -> {
+                edits.set("a", "b", 1);
+                throw new IllegalStateException("abandon");
+            });
+            fail("Expected exception");
+        } catch (IllegalStateException e) {
+            assertEquals("Expected nothing published", Collections.emptySet(), graph.vertices());
+        }
+    }
+    
+    @Test(expected=UnsupportedOperationException.class)
+    // covers snapshot mutators throw
+    public void testSnapshotImmutable() {
+        new VersionedGraph<String>().snapshot().add("a");
+    }
+    
+    @Test
+    // covers Graph.freeze() of a snapshot
+    public void testFreezeSnapshot() {
+        VersionedGraph<String> graph = new VersionedGraph<>();
+        graph.set("a", "b", 1);
+        ImmutableGraph<String> snapshot = graph.snapshot();
+        
+        assertSame("Expected snapshot returned as is", snapshot, Graph.freeze(snapshot));
+    }
+    
+    /* a frozen graph of count random edges among vertices v0..v(vertices-1) */
+    private static ImmutableGraph<String> randomBase(Random random, int vertices, int count) {
+        Graph<String> graph = Graph.empty();
+        for (int i = 0; i < count; i++) {
+            graph.set("v" + random.nextInt(vertices), "v" + random.nextInt(vertices), 1 + random.nextInt(9));
+        }
+        return Graph.freeze(graph);
+    }
+    
+    /* a mutable copy of graph */
+    private static Graph<String> copyOf(Graph<String> graph) {
+        Graph<String> copy = Graph.empty();
+        for (String source : graph.vertices()) {
+            copy.add(source);
+            for (Map.Entry<String, Integer> edge : graph.targets(source).entrySet()) {
+                copy.set(source, edge.getKey(), edge.getValue());
+            }
+        }
+        return copy;
+    }
+    
+    /* check that actual has the vertices and edges of expected */
+    private static void assertSameGraph(String message, Graph<String> expected, VersionedGraph<String> actual) {
+        assertEquals(message + ": vertices", expected.vertices(), actual.vertices());
+        int edges = 0;
+        for (String vertex : expected.vertices()) {
+            assertEquals(message + ": targets of " + vertex, expected.targets(vertex), actual.targets(vertex));
+            assertEquals(message + ": sources of " + vertex, expected.sources(vertex), actual.sources(vertex));
+            assertEquals(message + ": target count of " + vertex,
+                    expected.targets(vertex).size(), actual.targets(vertex).entrySet().size());
+            edges += expected.targets(vertex).size();
+        }
+        assertEquals(message + ": edge count", edges, actual.edgeCount());
+        assertEquals(message + ": snapshot edge count", edges, actual.snapshot().edgeCount());
+    }
+    
+    @Test
+    // covers base frozen graph with edges; changes to its edges and vertices,
+    // removing and adding back its vertices
+    public void testChangesOverBase() {
+        Graph<String> expected = Graph.empty();
+        expected.set("a", "b", 1);
+        expected.set("b", "c", 2);
+        expected.set("c", "c", 3);
+        VersionedGraph<String> graph = new VersionedGraph<>(Graph.freeze(expected));
+        ImmutableGraph<String> original = graph.snapshot();
+        assertSameGraph("Expected base", expected, graph);
+        
+        expected.set("a", "b", 4);
+        graph.set("a", "b", 4);
+        expected.set("a", "d", 1);
+        graph.increment("a", "d", 1);
+        expected.set("b", "c", 0);
+        graph.increment("b", "c", -2);
+        assertSameGraph("Expected edges changed", expected, graph);
+        
+        expected.remove("c");
+        graph.remove("c");
+        assertSameGraph("Expected base vertex removed", expected, graph);
+        
+        expected.add("c");
+        graph.add("c");
+        assertSameGraph("Expected vertex back without its old edges", expected, graph);
+        
+        expected.set("b", "c", 2);
+        graph.set("b", "c", 2);
+        assertSameGraph("Expected base edge back", expected, graph);
+        
+        assertEquals("Expected snapshot unchanged", 3, original.edgeCount());
+        assertEquals("Expected old weight", (Integer) 1, original.targets("a").get("b"));
+        assertEquals("Expected old self-loop", (Integer) 3, original.sources("c").get("c"));
+    }
+    
+    @Test
+    // covers many random changes over a base, automatic compaction, snapshots
+    // taken before it
+    public void testRandomChangesOverBase() {
+        Random random = new Random(5);
+        ImmutableGraph<String> base = randomBase(random, 60, 400);
+        Graph<String> expected = copyOf(base);
+        VersionedGraph<String> graph = new VersionedGraph<>(base);
+        ImmutableGraph<String> first = graph.snapshot();
+        Graph<String> firstExpected = copyOf(base);
+        
+        for (int i = 0; i < 4 * VersionedGraph.COMPACT_MIN; i++) {
+            String source = "v" + random.nextInt(300);
+            String target = "v" + random.nextInt(300);
+            // rare removals, so that the overlay grows past the compaction threshold
+            int change = random.nextInt(100);
+            if (change == 0) {
+                assertEquals("Expected same result", expected.remove(source), graph.remove(source));
+            } else if (change == 1) {
+                assertEquals("Expected same result", expected.add(source), graph.add(source));
+            } else if (change < 10) {
+                assertEquals("Expected same result", expected.set(source, target, 0), graph.set(source, target, 0));
+            } else {
+                int weight = 1 + random.nextInt(9);
+                assertEquals("Expected same result",
+                        expected.set(source, target, weight), graph.set(source, target, weight));
+            }
+            assertTrue("Expected overlay compacted once large",
+                    graph.overlaySize() <= Math.max(VersionedGraph.COMPACT_MIN,
+                            graph.edgeCount() / VersionedGraph.COMPACT_RATIO));
+            if (i % 1000 == 0) {
+                assertSameGraph("Expected same graph after " + i + " changes", expected, graph);
+            }
+        }
+        assertSameGraph("Expected same graph at end", expected, graph);
+        assertEquals("Expected first snapshot unchanged", firstExpected.vertices(), first.vertices());
+        for (String vertex : firstExpected.vertices()) {
+            assertEquals("Expected first snapshot unchanged", firstExpected.targets(vertex), first.targets(vertex));
+        }
+    }
+    
+    @Test
+    // covers compact()
+    public void testCompact() {
+        Graph<String> expected = Graph.empty();
+        expected.set("a", "b", 1);
+        VersionedGraph<String> graph = new VersionedGraph<>(Graph.freeze(expected));
+        graph.set("b", "c", 2);
+        graph.remove("a");
+        ImmutableGraph<String> before = graph.snapshot();
+        long version = graph.version();
+        
+        graph.compact();
+        expected.set("b", "c", 2);
+        expected.remove("a");
+        assertSameGraph("Expected graph unchanged", expected, graph);
+        assertEquals("Expected same version", version, graph.version());
+        assertEquals("Expected empty overlay", 0, graph.overlaySize());
+        assertEquals("Expected snapshot unchanged", expected.vertices(), before.vertices());
+        
+        graph.set("c", "a", 3);
+        expected.set("c", "a", 3);
+        assertSameGraph("Expected changes over the compacted base", expected, graph);
+    }
+    
+}
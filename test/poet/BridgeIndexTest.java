@@ -0,0 +1,239 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package poet;
+
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import graph.Graph;
+import graph.ImmutableGraph;
+import graph.VersionedGraph;
+import poet.BridgeIndex.Bridges;
+
+/**
+ * Tests for BridgeIndex.
+ */
+public class BridgeIndexTest {
+
+    // Testing strategy
+    //   pair: no bridges, one bridge, several bridges with distinct weights,
+    //         several bridges tied for maximum weight
+    //   words: in graph, not in graph
+    //   lookup: first, repeated; index below capacity, at capacity
+    //   eviction: pair looked up again within a generation, pair not looked
+    //             up again
+    //   next(): pair untouched by the change, pair whose w1 targets changed,
+    //           pair whose w2 sources changed, pair first looked up after it
+    //   maxWeightBridge(): targets(w1) smaller than sources(w2), larger
+    //   best(): pair with bridges, without bridges; repeated
+    //   weightedRandom(): no bridges, several bridges
+    //   path weights: small, summing past Integer.MAX_VALUE
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    private static ImmutableGraph<String> graph() {
+        return Graph.freeze(mutableGraph());
+    }
+
+    private static Graph<String> mutableGraph() {
+        Graph<String> graph = Graph.empty();
+        graph.set("you", "may", 2);
+        graph.set("may", "find", 1);
+        graph.set("may", "write", 1);
+        graph.set("find", "me", 1);
+        graph.set("write", "me", 1);
+        graph.set("you", "can", 1);
+        graph.set("can", "me", 5);
+        graph.set("test", "of", 1);
+        graph.set("of", "the", 1);
+        return graph;
+    }
+
+    @Test
+    // covers no bridges, words not in graph
+    public void testNoBridges() {
+        BridgeIndex index = new BridgeIndex(graph(), 10);
+
+        assertEquals("Expected no bridges", 0, index.get("me", "you").size());
+        assertNull("Expected no best bridge", index.get("unknown", "words").best());
+    }
+
+    @Test
+    // covers one bridge
+    public void testOneBridge() {
+        Bridges bridges = new BridgeIndex(graph(), 10).get("test", "the");
+
+        assertEquals("Expected one bridge", 1, bridges.size());
+        assertEquals("Expected bridge word", "of", bridges.word(0));
+        assertEquals("Expected path weight", 2, bridges.weight(0));
+        assertEquals("Expected best bridge", "of", bridges.best());
+    }
+
+    @Test
+    // covers several bridges with distinct weights
+    public void testBestBridgeByWeight() {
+        assertEquals("Expected heaviest path", "can",
+                new BridgeIndex(graph(), 10).get("you", "me").best());
+    }
+
+    @Test
+    // covers several bridges tied for maximum weight
+    public void testBestBridgeTie() {
+        Bridges bridges = new BridgeIndex(graph(), 10).get("may", "me");
+
+        assertEquals("Expected two bridges", 2, bridges.size());
+        assertEquals("Expected least word among ties", "find", bridges.best());
+    }
+
+    @Test
+    // covers repeated lookup, index below and at capacity
+    public void testMemoBounded() {
+        BridgeIndex index = new BridgeIndex(graph(), 1);
+
+        Bridges first = index.get("you", "me");
+        assertSame("Expected repeated lookup to be remembered", first, index.get("you", "me"));
+
+        index.get("test", "the");
+        assertEquals("Expected no more pairs than capacity", 1, index.size());
+        assertEquals("Expected pairs past capacity still answered",
+                "of", index.get("test", "the").best());
+    }
+
+    @Test
+    // covers eviction of a pair looked up again and of one that is not
+    public void testMemoEvictsColdPairs() {
+        Graph<String> mutable = Graph.empty();
+        for (int i = 0; i < 50; i++) {
+            mutable.set("w" + i, "b" + i, 1);
+            mutable.set("b" + i, "x" + i, 1);
+        }
+        ImmutableGraph<String> graph = Graph.freeze(mutable);
+        BridgeIndex index = new BridgeIndex(graph, 4);
+
+        Bridges hot = index.get("w0", "x0");
+        Bridges cold = index.get("w1", "x1");
+        for (int i = 2; i < 50; i++) {
+            index.get("w" + i, "x" + i);
+            assertSame("Expected hot pair remembered", hot, index.get("w0", "x0"));
+            assertTrue("Expected no more pairs than capacity", index.size() <= 4);
+        }
+        assertNotSame("Expected cold pair evicted", cold, index.get("w1", "x1"));
+        assertEquals("Expected evicted pair still answered", "b1", index.get("w1", "x1").best());
+    }
+
+    @Test
+    // covers next() with pairs untouched by the change, pairs whose w1
+    // targets or w2 sources changed, and a pair first looked up after it
+    public void testNextKeepsUntouchedPairs() {
+        ImmutableGraph<String> graph = graph();
+        BridgeIndex index = new BridgeIndex(graph, 10);
+        Bridges untouched = index.get("test", "the");
+        Bridges fromChanged = index.get("you", "me");
+        Bridges intoChanged = index.get("may", "me");
+        assertEquals("Expected best of untouched pair", "of", index.best("test", "the"));
+        assertEquals("Expected best before change", "can", index.best("you", "me"));
+        
+        VersionedGraph<String> versioned = new VersionedGraph<>(graph);
+        Set<String> changedTargets = new HashSet<>();
+        Set<String> changedSources = new HashSet<>();
+        versioned.increment("you", "write", 10);
+        changedTargets.add("you");
+        changedSources.add("write");
+        versioned.increment("write", "me", 3);
+        changedTargets.add("write");
+        changedSources.add("me");
+        BridgeIndex next = index.next(versioned.snapshot(),
+                Collections.unmodifiableSet(changedTargets), Collections.unmodifiableSet(changedSources));
+        
+        assertSame("Expected untouched pair reused", untouched, next.get("test", "the"));
+        assertEquals("Expected untouched best reused", "of", next.best("test", "the"));
+        assertNotSame("Expected pair from changed word recomputed", fromChanged, next.get("you", "me"));
+        assertEquals("Expected new heaviest path", "write", next.get("you", "me").best());
+        assertEquals("Expected best recomputed", "write", next.best("you", "me"));
+        assertNotSame("Expected pair into changed word recomputed", intoChanged, next.get("may", "me"));
+        assertEquals("Expected tie broken by new weight", "write", next.get("may", "me").best());
+        assertEquals("Expected pair first looked up after change", 0, next.get("test", "you").size());
+        
+        assertSame("Expected old index unchanged", fromChanged, index.get("you", "me"));
+        assertEquals("Expected old best unchanged", "can", index.best("you", "me"));
+    }
+
+    @Test
+    // covers maxWeightBridge() walking either side
+    public void testMaxWeightBridge() {
+        Graph<String> graph = mutableGraph();
+        graph.set("other", "me", 1);
+        graph.set("x", "can", 1);
+        graph.set("y", "can", 1);
+
+        assertEquals("Expected heaviest path walking targets",
+                "can", BridgeIndex.maxWeightBridge(Graph.freeze(graph), "you", "me"));
+        graph.set("you", "z1", 1);
+        graph.set("you", "z2", 1);
+        graph.set("you", "z3", 1);
+        assertEquals("Expected heaviest path walking sources",
+                "can", BridgeIndex.maxWeightBridge(Graph.freeze(graph), "you", "me"));
+        assertNull("Expected no bridge", BridgeIndex.maxWeightBridge(Graph.freeze(graph), "me", "you"));
+    }
+
+    @Test
+    // covers best() with and without bridges, repeated
+    public void testBest() {
+        BridgeIndex index = new BridgeIndex(graph(), 10);
+
+        assertEquals("Expected heaviest path", "can", index.best("you", "me"));
+        assertEquals("Expected remembered answer", "can", index.best("you", "me"));
+        assertNull("Expected no bridge", index.best("me", "you"));
+        assertNull("Expected remembered absence", index.best("me", "you"));
+    }
+
+    @Test
+    // covers weightedRandom() with no bridges, several bridges
+    public void testWeightedRandom() {
+        BridgeIndex index = new BridgeIndex(graph(), 10);
+        Random random = new Random(3);
+
+        assertNull("Expected no bridge", index.get("me", "you").weightedRandom(random));
+
+        int can = 0;
+        for (int i = 0; i < 1000; i++) {
+            String bridge = index.get("you", "me").weightedRandom(random);
+            assertTrue("Expected a bridge", bridge.equals("can") || bridge.equals("may"));
+            can += bridge.equals("can") ? 1 : 0;
+        }
+        assertTrue("Expected paths picked in proportion to weight", can > 500);
+    }
+
+    @Test
+    // covers path weights summing past Integer.MAX_VALUE
+    public void testHeavyPaths() {
+        Graph<String> graph = Graph.empty();
+        graph.set("a", "b", Integer.MAX_VALUE);
+        graph.set("b", "z", Integer.MAX_VALUE);
+        graph.set("a", "c", 1);
+        graph.set("c", "z", 1);
+        ImmutableGraph<String> frozen = Graph.freeze(graph);
+        BridgeIndex index = new BridgeIndex(frozen, 10);
+        Bridges bridges = index.get("a", "z");
+
+        assertEquals("Expected path weight without overflow", 2L * Integer.MAX_VALUE,
+                bridges.weight(bridges.word(0).equals("b") ? 0 : 1));
+        assertEquals("Expected heaviest path", "b", bridges.best());
+        assertEquals("Expected heaviest path", "b", BridgeIndex.maxWeightBridge(frozen, "a", "z"));
+        Random random = new Random(5);
+        for (int i = 0; i < 100; i++) {
+            assertEquals("Expected the far heavier path", "b", bridges.weightedRandom(random));
+        }
+    }
+
+}
@@ -0,0 +1,158 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package poet;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Tests for CorpusTokenizer.
+ */
+public class CorpusTokenizerTest {
+
+    // Testing strategy
+    //   file: empty, whitespace only, one word, many words
+    //   whitespace: single space, runs, tabs, CR LF, leading, trailing,
+    //               non-ASCII (U+3000)
+    //   words: ASCII mixed case, non-ASCII mixed case
+    //   chunk size: larger than file, smaller than a word
+    //   range: whole file, boundaries at whitespace, inside words, empty
+    //   splitAtWhitespace(): one range, more ranges than words
+    //   tokenize(Reader): empty, same text as a file
+    //   lastWord(): no words, trailing whitespace, non-ASCII whitespace in
+    //               the last run
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    private static File corpusOf(String text) throws IOException {
+        final File file = File.createTempFile("corpus", ".txt");
+        file.deleteOnExit();
+        Files.write(file.toPath(), text.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static List<String> words(File corpus, int chunkSize) throws IOException {
+        final List<String> words = new ArrayList<>();
+        CorpusTokenizer.tokenize(corpus, chunkSize, words::add);
+        return words;
+    }
+
+    @Test
+    // covers empty file, whitespace only
+    public void testNoWords() throws IOException {
+        assertEquals("Expected no words in empty file",
+                Collections.emptyList(), words(corpusOf(""), 16));
+        assertEquals("Expected no words in blank file",
+                Collections.emptyList(), words(corpusOf(" \n\t \r\n"), 16));
+    }
+
+    @Test
+    // covers one word, mixed case, chunk larger than file
+    public void testOneWord() throws IOException {
+        assertEquals("Expected one lowercase word",
+                Arrays.asList("serenity"), words(corpusOf("Serenity"), 1 << 20));
+    }
+
+    @Test
+    // covers runs, tabs, CR LF, leading and trailing whitespace
+    public void testWhitespace() throws IOException {
+        final File corpus = corpusOf("  Hello,\tHELLO,  hello,\r\ngoodbye!\n");
+
+        assertEquals("Expected words split on any whitespace",
+                Arrays.asList("hello,", "hello,", "hello,", "goodbye!"), words(corpus, 1 << 20));
+    }
+
+    @Test
+    // covers non-ASCII words and whitespace
+    public void testNonAscii() throws IOException {
+        final File corpus = corpusOf("\u00c9COLE na\u00efve\u3000\u00dcBER");
+
+        assertEquals("Expected non-ASCII words lowercased and split",
+                Arrays.asList("\u00e9cole", "na\u00efve", "\u00fcber"), words(corpus, 1 << 20));
+    }
+
+    @Test
+    // covers chunk smaller than a word
+    public void testWordsSpanChunks() throws IOException {
+        final File corpus = corpusOf("To explore strange new worlds \u00c9COLE");
+
+        assertEquals("Expected same words with tiny chunks",
+                words(corpus, 1 << 20), words(corpus, 3));
+    }
+
+    @Test
+    // covers ranges with boundaries inside words and at whitespace, empty ranges
+    public void testRangesCoverEveryWordOnce() throws IOException {
+        final File corpus = corpusOf("In the moonlit night you may find me\nA silent dance");
+        final List<String> expected = words(corpus, 1 << 20);
+        final long size = corpus.length();
+
+        for (long split = 0; split <= size; split++) {
+            final List<String> words = new ArrayList<>();
+            CorpusTokenizer.tokenize(corpus, 0, split, 4, words::add);
+            CorpusTokenizer.tokenize(corpus, split, split, 4, words::add);
+            CorpusTokenizer.tokenize(corpus, split, size, 4, words::add);
+            assertEquals("Expected every word once for split at " + split, expected, words);
+        }
+    }
+
+    @Test
+    // covers splitAtWhitespace() with one range, more ranges than words
+    public void testSplitAtWhitespace() throws IOException {
+        final File corpus = corpusOf("To explore strange");
+        final long size = corpus.length();
+
+        assertArrayEquals("Expected one range over the file",
+                new long[] {0, size}, CorpusTokenizer.splitAtWhitespace(corpus, 1));
+
+        final long[] bounds = CorpusTokenizer.splitAtWhitespace(corpus, 8);
+        final List<String> words = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            assertTrue("Expected ascending bounds", bounds[i] <= bounds[i + 1]);
+            CorpusTokenizer.tokenize(corpus, bounds[i], bounds[i + 1], 4, words::add);
+        }
+        assertEquals("Expected ranges to cover every word once",
+                Arrays.asList("to", "explore", "strange"), words);
+    }
+
+    @Test
+    // covers tokenize(Reader) with empty text and with the same text as a file
+    public void testTokenizeReader() throws IOException {
+        final String text = "  Hello,\tHELLO,  hello,\r\ngoodbye! \u00c9COLE na\u00efve\u3000\u00dcBER\n";
+        final List<String> words = new ArrayList<>();
+        CorpusTokenizer.tokenize(new StringReader(""), words::add);
+        assertEquals("Expected no words in empty text", Collections.emptyList(), words);
+
+        CorpusTokenizer.tokenize(new StringReader(text), words::add);
+        assertEquals("Expected same words as from a file",
+                words(corpusOf(text), 1 << 20), words);
+    }
+
+    @Test
+    // covers lastWord() with no words, trailing whitespace, non-ASCII whitespace
+    public void testLastWord() throws IOException {
+        assertNull("Expected no last word", CorpusTokenizer.lastWord(corpusOf(" \n ")));
+        assertEquals("Expected last word before trailing whitespace",
+                "goodbye!", CorpusTokenizer.lastWord(corpusOf("Hello, GOODBYE!\r\n")));
+        assertEquals("Expected last word after non-ASCII whitespace",
+                "\u00fcber", CorpusTokenizer.lastWord(corpusOf("na\u00efve\u3000\u00dcBER")));
+        assertEquals("Expected only word",
+                "one", CorpusTokenizer.lastWord(corpusOf("One")));
+    }
+
+}
@@ -7,8 +7,13 @@ import static org.junit.Assert.*;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 import org.junit.Test;
 
@@ -25,6 +30,34 @@ public class GraphPoetTest {
     // Partitions for poem(input) -> poeticOutput
     //   input: one word, multiple words
     //        : word pairs with adjacency count > 1
+    //        : word pairs with bridges tied for maximum weight
+    //        : repeated words, whitespace runs
+    //   output: String, Appendable
+    //
+    // Partitions for poem(in, out)
+    //   in: empty, many words
+    //
+    // Partitions for poems(inputs)
+    //   inputs: empty, many
+    //
+    // Partitions for save(graphFile) then GraphPoet(corpus, graphFile)
+    //   corpus: multiple lines
+    //
+    // Partitions for addCorpus(file|in, continueFromLast), appendText(text, continueFromLast)
+    //   source: File, Reader, String
+    //   continueFromLast: true, false
+    //   last word so far: from the corpus file, from an earlier addition
+    //   bridges looked up before the addition: yes, no
+    //
+    // Partitions for poem(input, random) -> poeticOutput
+    //   random: same seed twice
+    //   word pairs with several bridges
+    //
+    // Partitions for topSuccessors(word, k)
+    //   word: not in graph, followed by several words; any case
+    //   k: 0, less than the number of successors, more
+    //   successors: tied, changed by an addition
+    //   graph: built from the corpus, loaded from a graph file
     
     @Test(expected=AssertionError.class)
     public void testAssertionsEnabled() {
@@ -116,5 +149,179 @@ public void testPoem_MultipleAdjacencies() {
             || output.contains("find"));
 }
 
+@Test
+// covers word pairs with bridges tied for maximum weight
+public void testPoem_MaxWeightTieIsDeterministic() {
+    String input = "you MAY me";
+    
+    assertEquals("Expected least bridge among ties",
+            "you MAY find me", graphMultipleLines.poem(input));
+    assertEquals("Expected the same poem every time",
+            graphMultipleLines.poem(input), graphMultipleLines.poem(input));
+}
+
+@Test
+// covers same seed twice, word pairs with several bridges
+public void testPoem_WeightedRandomSeeded() {
+    String input = "you MAY me";
+    String first = graphMultipleLines.poem(input, new Random(17));
+    String second = graphMultipleLines.poem(input, new Random(17));
+    
+    assertEquals("Expected the same poem for the same seed", first, second);
+    assertTrue("Expected one of the bridges",
+            first.equals("you MAY find me") || first.equals("you MAY write me"));
+}
+
+@Test
+// covers repeated words, whitespace runs
+public void testPoem_RepeatedWords() {
+    String input = "new  explore\tnew";
+    
+    assertEquals("Expected bridge before the second occurrence",
+            "new explore strange new", graphOneLine.poem(input));
+}
+
+@Test
+// covers output to Appendable
+public void testPoem_Appendable() throws IOException {
+    String input = "Seek to explore new and exciting synergies!";
+    StringBuilder out = new StringBuilder("> ");
+    graphOneLine.poem(input, out);
+    
+    assertEquals("Expected poem appended",
+            "> " + graphOneLine.poem(input), out.toString());
+}
+
+@Test
+// covers poem(in, out) empty, many words
+public void testPoem_ReaderWriter() throws IOException {
+    String input = "Seek to explore\nnew and exciting synergies!";
+    StringWriter out = new StringWriter();
+    graphOneLine.poem(new StringReader(input), out);
+    
+    assertEquals("Expected same poem as poem(input)",
+            graphOneLine.poem(input), out.toString());
+    
+    StringWriter empty = new StringWriter();
+    graphOneLine.poem(new StringReader(""), empty);
+    assertEquals("Expected empty poem", "", empty.toString());
+}
+
+@Test
+// covers poems() with no inputs
+public void testPoems_Empty() {
+    assertEquals("Expected no poems",
+            Collections.emptyList(), graphOneLine.poems(Collections.<String>emptyList()));
+}
+
+@Test
+// covers poems() with many inputs
+public void testPoems_InOrder() {
+    List<String> inputs = new ArrayList<>();
+    List<String> expected = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+        String input = i % 2 == 0 ? "Seek to explore new " + i : "new explore new " + i;
+        inputs.add(input);
+        expected.add(graphOneLine.poem(input));
+    }
+    
+    assertEquals("Expected poems in input order", expected, graphOneLine.poems(inputs));
+}
+
+@Test
+// covers save() then GraphPoet(corpus, graphFile)
+public void testSaveAndLoad() throws IOException {
+    File graphFile = File.createTempFile("poet", ".graph");
+    graphFile.deleteOnExit();
+    graphMultipleLines.save(graphFile);
+    File corpus = new File("test/poet/MultipleLines.txt");
+    GraphPoet loaded = new GraphPoet(corpus, graphFile);
+    String input = "you MAY me in moonlit";
+    
+    assertEquals("Expected same poem from saved graph",
+            graphMultipleLines.poem(input), loaded.poem(input));
+    assertEquals("Expected corpus words still available",
+            graphMultipleLines.getCorpusWords(), loaded.getCorpusWords());
+}
+
+@Test
+// covers appendText() as a separate document, bridges looked up before
+public void testAppendText_NewBridge() {
+    GraphPoet poet = instanceGraph("test/poet/OneLine.txt");
+    assertEquals("Expected no bridge yet", "life zebra", poet.poem("life zebra"));
+    
+    poet.appendText("Life IS zebra");
+    assertEquals("Expected bridge from appended text", "life is zebra", poet.poem("life zebra"));
+    assertEquals("Expected corpus words unchanged",
+            graphOneLine.getCorpusWords(), poet.getCorpusWords());
+}
+
+@Test
+// covers appendText() continuing from the last word of the corpus file, and not
+public void testAppendText_ContinueFromLast() {
+    GraphPoet separate = instanceGraph("test/poet/OneLine.txt");
+    separate.appendText("beyond", false);
+    assertEquals("Expected no bridge across documents",
+            "new beyond", separate.poem("new beyond"));
+    
+    GraphPoet continued = instanceGraph("test/poet/OneLine.txt");
+    continued.appendText("beyond", true);
+    assertEquals("Expected bridge from corpus tail",
+            "new civilizations beyond", continued.poem("new beyond"));
+}
+
+@Test
+// covers addCorpus(Reader) continuing from an earlier addition
+public void testAddCorpus_Reader() throws IOException {
+    GraphPoet poet = instanceGraph("test/poet/OneWord.txt");
+    poet.appendText("life alpha");
+    poet.addCorpus(new StringReader("\nGamma "), true);
+    
+    assertEquals("Expected bridge across additions",
+            "life alpha Gamma", poet.poem("life Gamma"));
+}
+
+@Test
+// covers addCorpus(File) as a separate document
+public void testAddCorpus_File() throws IOException {
+    GraphPoet poet = instanceGraph("test/poet/OneLine.txt");
+    assertEquals("Expected no bridge yet", "night may", poet.poem("night may"));
+    
+    poet.addCorpus(new File("test/poet/MultipleLines.txt"));
+    assertEquals("Expected bridge from added file", "night you may", poet.poem("night may"));
+    assertEquals("Expected old bridges kept",
+            graphOneLine.poem("Seek to explore new"), poet.poem("Seek to explore new"));
+}
+
+@Test
+// covers topSuccessors() of a word not in graph, k 0, less and more than successors, ties
+public void testTopSuccessors() {
+    // "To explore strange new worlds To seek out new life and new civilizations"
+    assertEquals("Expected no successors", Collections.emptyMap(), graphOneLine.topSuccessors("zebra", 3));
+    assertEquals("Expected none wanted", Collections.emptyMap(), graphOneLine.topSuccessors("new", 0));
+    assertEquals("Expected ties in String order",
+            Arrays.asList("civilizations", "life"),
+            new ArrayList<>(graphOneLine.topSuccessors("NEW", 2).keySet()));
+    assertEquals("Expected every successor", 3, graphOneLine.topSuccessors("new", 10).size());
+    assertEquals("Expected each once", Integer.valueOf(1), graphOneLine.topSuccessors("new", 10).get("worlds"));
+}
+
+@Test
+// covers topSuccessors() changed by an addition, and from a graph file
+public void testTopSuccessors_AfterAdditionAndSave() throws IOException {
+    GraphPoet poet = instanceGraph("test/poet/OneLine.txt");
+    assertEquals("Expected ties first", Collections.singletonMap("civilizations", 1), poet.topSuccessors("new", 1));
+    
+    poet.appendText("new worlds");
+    assertEquals("Expected the added successor first",
+            Collections.singletonMap("worlds", 2), poet.topSuccessors("new", 1));
+    
+    File graphFile = File.createTempFile("poet", ".graph");
+    graphFile.deleteOnExit();
+    poet.save(graphFile);
+    GraphPoet loaded = new GraphPoet(new File("test/poet/OneLine.txt"), graphFile);
+    assertEquals("Expected same successors from saved graph",
+            poet.topSuccessors("new", 3), loaded.topSuccessors("new", 3));
+}
 
 }
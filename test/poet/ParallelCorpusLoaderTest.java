@@ -0,0 +1,71 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package poet;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Test;
+
+import graph.Graph;
+
+/**
+ * Tests for ParallelCorpusLoader.
+ */
+public class ParallelCorpusLoaderTest {
+
+    // Testing strategy
+    //   corpus: one word, one line, multiple lines, large text
+    //   shards: 1, fewer than words, more than words
+    //   compare every vertex's targets and sources with a sequential load
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    private static void assertSameGraph(String message, Graph<String> expected, Graph<String> actual) {
+        assertEquals(message + ": vertices", expected.vertices(), actual.vertices());
+        for (String vertex : expected.vertices()) {
+            assertEquals(message + ": targets of " + vertex, expected.targets(vertex), actual.targets(vertex));
+            assertEquals(message + ": sources of " + vertex, expected.sources(vertex), actual.sources(vertex));
+        }
+    }
+
+    private static void assertShardsMatchSequential(String path) throws IOException {
+        final File corpus = new File(path);
+        final Graph<String> sequential = ParallelCorpusLoader.load(corpus, 1).freeze();
+        for (int shards = 2; shards <= 9; shards++) {
+            assertSameGraph(path + " with " + shards + " shards",
+                    sequential, ParallelCorpusLoader.load(corpus, shards).freeze());
+        }
+    }
+
+    @Test
+    // covers one word, more shards than words
+    public void testOneWord() throws IOException {
+        assertShardsMatchSequential("test/poet/OneWord.txt");
+    }
+
+    @Test
+    // covers one line
+    public void testOneLine() throws IOException {
+        assertShardsMatchSequential("test/poet/OneLine.txt");
+    }
+
+    @Test
+    // covers multiple lines
+    public void testMultipleLines() throws IOException {
+        assertShardsMatchSequential("test/poet/MultipleLines.txt");
+    }
+
+    @Test
+    // covers large text, fewer shards than words
+    public void testLargeText() throws IOException {
+        assertShardsMatchSequential("src/poet/mugar-omni-theater.txt");
+    }
+
+}
@@ -0,0 +1,122 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package poet;
+
+import static org.junit.Assert.*;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.function.BiFunction;
+
+import org.junit.Test;
+
+/**
+ * Tests for PoemWriter.
+ */
+public class PoemWriterTest {
+
+    // Testing strategy
+    //   text: empty, whitespace only, one word, many words
+    //   whitespace: runs, tabs and newlines, leading, trailing, non-ASCII
+    //   words: mixed case, repeated
+    //   bridges: none, some
+    //   write(): once, several times; mixed with word()
+    //   write(Reader): whole text at once, one character per read,
+    //                  surrogate pair split across reads
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    /* bridges "x" between "a" and "b", and "y" between "b" and "a" */
+    private static final BiFunction<String, String, String> BRIDGES = (w1, w2) ->
+            w1.equals("a") && w2.equals("b") ? "x"
+            : w1.equals("b") && w2.equals("a") ? "y"
+            : null;
+
+    private static String poem(String text) throws IOException {
+        final StringBuilder out = new StringBuilder();
+        new PoemWriter(out, BRIDGES).write(text);
+        return out.toString();
+    }
+
+    @Test
+    // covers empty text, whitespace only
+    public void testNoWords() throws IOException {
+        assertEquals("Expected empty poem", "", poem(""));
+        assertEquals("Expected empty poem", "", poem(" \t\n "));
+    }
+
+    @Test
+    // covers one word, no bridges
+    public void testOneWord() throws IOException {
+        assertEquals("Expected word unchanged", "Serenity", poem("Serenity"));
+    }
+
+    @Test
+    // covers runs, tabs and newlines, leading, trailing, non-ASCII whitespace
+    public void testWhitespace() throws IOException {
+        assertEquals("Expected single spaces between words",
+                "c d e f", poem("  c \t d\r\n\ne\u3000f  "));
+    }
+
+    @Test
+    // covers mixed case, repeated words, some bridges
+    public void testBridgesBetweenRepeatedWords() throws IOException {
+        assertEquals("Expected each bridge before its own word",
+                "A x B y a x b c", poem("A B a b c"));
+    }
+
+    @Test
+    // covers write() several times, mixed with word()
+    public void testWordsCarryAcrossCalls() throws IOException {
+        final StringBuilder out = new StringBuilder();
+        final PoemWriter writer = new PoemWriter(out, BRIDGES);
+        writer.write("a");
+        writer.write("  ");
+        writer.word("b");
+        writer.write("A c");
+
+        assertEquals("Expected one poem across calls", "a x b y A c", out.toString());
+    }
+
+    /* a Reader that returns at most one character per read */
+    private static Reader trickle(String text) {
+        return new FilterReader(new StringReader(text)) {
+            @Override public int read(char[] buffer, int offset, int length) throws IOException {
+                return super.read(buffer, offset, Math.min(length, 1));
+            }
+        };
+    }
+
+    private static String poem(Reader in) throws IOException {
+        final StringBuilder out = new StringBuilder();
+        new PoemWriter(out, BRIDGES).write(in);
+        return out.toString();
+    }
+
+    @Test
+    // covers write(Reader) whole text at once, one character per read
+    public void testWriteReader() throws IOException {
+        final String text = "  A\tB a\n\nb c  ";
+
+        assertEquals("Expected same poem as from a string",
+                poem(text), poem(new StringReader(text)));
+        assertEquals("Expected same poem with one character per read",
+                poem(text), poem(trickle(text)));
+    }
+
+    @Test
+    // covers write(Reader) surrogate pair split across reads
+    public void testWriteReaderSurrogates() throws IOException {
+        final String text = "a \ud835\udc00\ud835\udc01 b";
+
+        assertEquals("Expected supplementary characters kept whole",
+                text, poem(trickle(text)));
+    }
+
+}
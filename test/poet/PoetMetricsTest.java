@@ -0,0 +1,105 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package poet;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Test;
+
+/**
+ * Tests for PoetMetrics.
+ */
+public class PoetMetricsTest {
+
+    // Testing strategy
+    //   events: none, corpusLoaded, graphBuilt, bridgeLookup (cached or not,
+    //           found or not), poemWritten (latencies in several buckets)
+    //   reset(): after events
+    //   used as the listener of a GraphPoet: construction, poems, additions
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    // covers no events
+    public void testEmpty() {
+        PoetMetrics metrics = new PoetMetrics();
+
+        assertEquals("Expected no poems", 0, metrics.getPoems());
+        assertEquals("Expected no rate", 0.0, metrics.getTokenizationRate(), 0);
+        assertEquals("Expected no hit ratio", 0.0, metrics.getBridgeHitRatio(), 0);
+        assertEquals("Expected no mean", 0.0, metrics.getMeanMissNanos(), 0);
+        assertArrayEquals("Expected empty histogram",
+                new long[64], metrics.getPoemLatencyHistogram());
+    }
+
+    @Test
+    // covers every event, then reset()
+    public void testEvents() {
+        PoetMetrics metrics = new PoetMetrics();
+        metrics.corpusLoaded(1000, 500_000_000);
+        metrics.graphBuilt(10, 20, 3000, 7);
+        metrics.bridgeLookup(false, true, 300);
+        metrics.bridgeLookup(true, true, 10);
+        metrics.bridgeLookup(true, false, 10);
+        metrics.bridgeLookup(false, false, 100);
+        metrics.poemWritten(1);
+        metrics.poemWritten(1000);
+        metrics.poemWritten(1023);
+
+        assertEquals("Expected words per second", 2000.0, metrics.getTokenizationRate(), 1e-9);
+        assertEquals("Expected latest build", 10, metrics.getVertices());
+        assertEquals("Expected latest build", 20, metrics.getEdges());
+        assertEquals("Expected latest build", 3000, metrics.getEstimatedBytes());
+        assertEquals("Expected latest build", 7, metrics.getGraphBuildNanos());
+        assertEquals("Expected 4 lookups", 4, metrics.getBridgeLookups());
+        assertEquals("Expected half hits", 0.5, metrics.getBridgeHitRatio(), 1e-9);
+        assertEquals("Expected half found", 0.5, metrics.getBridgeFoundRatio(), 1e-9);
+        assertEquals("Expected mean of all lookups", 105.0, metrics.getMeanLookupNanos(), 1e-9);
+        assertEquals("Expected mean of misses", 200.0, metrics.getMeanMissNanos(), 1e-9);
+        assertEquals("Expected 3 poems", 3, metrics.getPoems());
+        long[] histogram = metrics.getPoemLatencyHistogram();
+        assertEquals("Expected 1 ns in bucket 0", 1, histogram[0]);
+        assertEquals("Expected 1000 and 1023 ns in bucket 9", 2, histogram[9]);
+
+        metrics.reset();
+        assertEquals("Expected no poems after reset", 0, metrics.getPoems());
+        assertEquals("Expected no build after reset", 0, metrics.getEdges());
+        assertArrayEquals("Expected empty histogram after reset",
+                new long[64], metrics.getPoemLatencyHistogram());
+    }
+
+    @Test
+    // covers listening to a GraphPoet
+    public void testPoetEvents() throws IOException {
+        PoetMetrics metrics = new PoetMetrics();
+        GraphPoet poet = new GraphPoet(new File("test/poet/OneLine.txt"), 1, metrics);
+        // "To explore strange new worlds To seek out new life and new civilizations"
+        assertEquals("Expected corpus words", 13, metrics.getCorpusWords());
+        assertEquals("Expected vertices", 10, metrics.getVertices());
+        assertEquals("Expected edges", 12, metrics.getEdges());
+        assertTrue("Expected estimate", metrics.getEstimatedBytes() > 0);
+
+        poet.poem("Seek to explore new");
+        poet.poem("Seek to explore new");
+        assertEquals("Expected 2 poems", 2, metrics.getPoems());
+        assertEquals("Expected 3 lookups per poem", 6, metrics.getBridgeLookups());
+        assertEquals("Expected second poem from the cache", 0.5, metrics.getBridgeHitRatio(), 1e-9);
+
+        long bytes = metrics.getEstimatedBytes();
+        poet.appendText("brave new world");
+        assertEquals("Expected added words", 16, metrics.getCorpusWords());
+        assertEquals("Expected new vertices", 12, metrics.getVertices());
+        assertEquals("Expected brave -> new, new -> world", 14, metrics.getEdges());
+        // two vertices "brave" and "world", and two edges
+        assertEquals("Expected estimate to grow", bytes + 2 * 48 + 2 * 10 + 2 * 16,
+                metrics.getEstimatedBytes());
+    }
+
+}
@@ -0,0 +1,146 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package poet;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.Test;
+
+import graph.Graph;
+import graph.RankedGraph;
+
+/**
+ * Tests for SuccessorIndex.
+ */
+public class SuccessorIndexTest {
+
+    // Testing strategy
+    //   word: not in graph, without targets, with several targets
+    //   weights: distinct, tied; ties against RankedGraph.topTargets()
+    //   k: 0, less than the out-degree, more
+    //   lookup: first, repeated; index below capacity, at capacity
+    //   eviction: word looked up again within a generation, words not
+    //   next(): word whose targets changed, word whose targets did not
+    //   result: read-only
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    private static Graph<String> graph() {
+        Graph<String> graph = Graph.empty();
+        graph.set("the", "sea", 5);
+        graph.set("the", "sky", 2);
+        graph.set("the", "moon", 2);
+        graph.set("the", "end", 1);
+        graph.add("alone");
+        return graph;
+    }
+
+    @Test
+    // covers word not in graph, without targets, k 0
+    public void testNoSuccessors() {
+        SuccessorIndex index = new SuccessorIndex(graph(), 10);
+
+        assertEquals("Expected none for absent word", Collections.emptyMap(), index.top("unknown", 3));
+        assertEquals("Expected none without targets", Collections.emptyMap(), index.top("alone", 3));
+        assertEquals("Expected none for k 0", Collections.emptyMap(), index.top("the", 0));
+    }
+
+    @Test
+    // covers distinct and tied weights, k less than and more than the out-degree
+    public void testRanking() {
+        SuccessorIndex index = new SuccessorIndex(graph(), 10);
+        Map<String, Integer> top = index.top("the", 3);
+
+        assertEquals("Expected heaviest first, ties in String order",
+                Arrays.asList("sea", "moon", "sky"), new ArrayList<>(top.keySet()));
+        assertEquals("Expected weights", Arrays.asList(5, 2, 2), new ArrayList<>(top.values()));
+        assertEquals("Expected every target", 4, index.top("the", 10).size());
+    }
+
+    @Test
+    // covers repeated lookup, index at capacity
+    public void testCapacity() {
+        SuccessorIndex index = new SuccessorIndex(graph(), 1);
+        index.top("the", 1);
+        index.top("alone", 1);
+
+        assertEquals("Expected one word remembered", 1, index.size());
+        assertEquals("Expected same ranking when remembered",
+                Collections.singletonMap("sea", 5), index.top("the", 1));
+        assertEquals("Expected same ranking when not remembered",
+                Collections.emptyMap(), index.top("alone", 1));
+    }
+
+    @Test
+    // covers ties against RankedGraph.topTargets()
+    public void testTiesMatchRankedGraph() {
+        Graph<String> graph = Graph.empty();
+        RankedGraph<String> ranked = new RankedGraph<>();
+        for (String target : Arrays.asList("sky", "moon", "end", "sea", "ash")) {
+            graph.set("the", target, target.length());
+            ranked.set("the", target, target.length());
+        }
+        ranked.increment("the", "end", 1);
+        ranked.increment("the", "end", -1);
+
+        assertEquals("Expected the same ranking as RankedGraph",
+                new ArrayList<>(ranked.topTargets("the", 5).entrySet()),
+                new ArrayList<>(new SuccessorIndex(graph, 10).top("the", 5).entrySet()));
+    }
+
+    @Test
+    // covers eviction of a word looked up again and of words that are not
+    public void testEvictsColdWords() {
+        Graph<String> graph = Graph.empty();
+        for (int i = 0; i < 50; i++) {
+            graph.set("w" + i, "x" + i, 1);
+        }
+        SuccessorIndex index = new SuccessorIndex(graph, 4);
+        for (int i = 0; i < 50; i++) {
+            index.top("w" + i, 1);
+            assertEquals("Expected hot word ranked", Collections.singletonMap("x0", 1), index.top("w0", 1));
+            assertTrue("Expected no more words than capacity", index.size() <= 4);
+        }
+    }
+
+    @Test
+    // covers next() with a word whose targets changed and one whose did not
+    public void testNextKeepsUntouchedWords() {
+        Graph<String> before = graph();
+        SuccessorIndex index = new SuccessorIndex(before, 10);
+        index.top("the", 2);
+        index.top("sea", 2);
+
+        Graph<String> after = graph();
+        after.set("alone", "sea", 1);
+        after.set("the", "end", 9);
+        // white box: sea's edges also change below but are not reported, so a
+        // reused ranking shows up as the old one
+        after.set("sea", "end", 1);
+        SuccessorIndex next = index.next(after, Collections.singleton("the"));
+
+        assertEquals("Expected changed word ranked again",
+                Arrays.asList("end", "sea"), new ArrayList<>(next.top("the", 2).keySet()));
+        assertEquals("Expected unchanged word's ranking reused", Collections.emptyMap(), next.top("sea", 2));
+        assertEquals("Expected word first looked up after the change ranked",
+                Collections.singletonMap("sea", 1), next.top("alone", 2));
+        assertEquals("Expected old index unchanged",
+                Arrays.asList("sea", "moon"), new ArrayList<>(index.top("the", 2).keySet()));
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    // covers read-only result
+    public void testReadOnly() {
+        new SuccessorIndex(graph(), 10).top("the", 2).put("a", 1);
+    }
+
+}